@@ -1,11 +1,13 @@
 plugins {
     alias(libs.plugins.kotlin.multiplatform) apply false
     alias(libs.plugins.kotlin.android) apply false
+    alias(libs.plugins.kotlin.jvm) apply false
     alias(libs.plugins.android.library) apply false
     alias(libs.plugins.android.application) apply false
     alias(libs.plugins.kotlin.cocoapods) apply false
     alias(libs.plugins.kotlin.dokka) apply false
     alias(libs.plugins.kotlinx.serialization) apply false
+    alias(libs.plugins.jmh) apply false
     alias(libs.plugins.nexus)
 }
 
@@ -0,0 +1,43 @@
+plugins {
+    alias(libs.plugins.kotlin.jvm)
+    alias(libs.plugins.jmh)
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+kotlin {
+    jvmToolchain(17)
+}
+
+dependencies {
+    jmhImplementation(project(":maplibre-navigation-core"))
+    jmhImplementation(libs.kotlinx.coroutines)
+}
+
+sourceSets {
+    named("jmh") {
+        // Benchmarks run against the same route fixtures as the unit tests of the core module
+        resources.srcDir(project(":maplibre-navigation-core").file("src/androidUnitTest/resources"))
+        resources.include("*.json")
+    }
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    timeUnit.set("us")
+    benchmarkMode.set(listOf("avgt"))
+    // Reports allocation rate per operation next to the time per operation
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+
+    // Run a subset with: ./gradlew :maplibre-navigation-benchmark:jmh -PjmhIncludes=SnapToRoute
+    project.findProperty("jmhIncludes")?.let { includes.add(it.toString()) }
+}
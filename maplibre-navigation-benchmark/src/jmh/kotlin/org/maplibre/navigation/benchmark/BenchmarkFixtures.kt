@@ -0,0 +1,75 @@
+package org.maplibre.navigation.benchmark
+
+import kotlinx.coroutines.awaitCancellation
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.emptyFlow
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
+import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.location.engine.LocationEngine
+import org.maplibre.navigation.core.models.DirectionsResponse
+import org.maplibre.navigation.core.models.DirectionsRoute
+
+/**
+ * Loads the route fixtures of the core unit tests and derives benchmark input from them.
+ */
+internal object BenchmarkFixtures {
+
+    /**
+     * Fixtures used by the route based benchmarks, from a short single step route to a long
+     * route with two legs.
+     */
+    const val DIRECTIONS_PRECISION_6 = "directions_v5_precision_6.json"
+    const val TWO_LEG_ROUTE = "directions_two_leg_route.json"
+    const val LONG_STEP = "long_step.json"
+
+    fun loadJson(fileName: String): String {
+        val resource = checkNotNull(BenchmarkFixtures::class.java.classLoader.getResource(fileName)) {
+            "Fixture $fileName not found"
+        }
+        return resource.readText()
+    }
+
+    fun loadRoute(fileName: String): DirectionsRoute {
+        return DirectionsResponse.fromJson(loadJson(fileName)).routes.first()
+    }
+
+    /**
+     * Finds the step of the first leg with the most geometry points. Projections onto this step
+     * are the most expensive ones of the route.
+     */
+    fun longestStepIndex(routeGeometryIndex: RouteGeometryIndex): Int {
+        val steps = routeGeometryIndex.legs.first().steps
+        return steps.indices.maxBy { stepIndex -> steps[stepIndex].positions.size }
+    }
+
+    /**
+     * Creates locations in even distances along the given step, like a user driving along it.
+     */
+    fun locationsAlongStep(
+        routeGeometryIndex: RouteGeometryIndex,
+        stepIndex: Int,
+        count: Int
+    ): Array<Location> {
+        val stepGeometry = checkNotNull(routeGeometryIndex.stepGeometry(0, stepIndex))
+        val spacing = stepGeometry.length / count
+        return Array(count) { index ->
+            val position = checkNotNull(stepGeometry.locateAlong(index * spacing)).coordinates
+            Location(
+                latitude = position.latitude,
+                longitude = position.longitude,
+                accuracyMeters = 5f,
+                speedMetersPerSeconds = 12f,
+                timeMilliseconds = index * 1000L,
+            )
+        }
+    }
+
+    /**
+     * Location engine which never emits, the benchmarks pass all locations manually.
+     */
+    object IdleLocationEngine : LocationEngine {
+        override fun listenToLocation(request: LocationEngine.Request): Flow<Location> = emptyFlow()
+
+        override suspend fun getLastLocation(): Location? = awaitCancellation()
+    }
+}
@@ -0,0 +1,36 @@
+package org.maplibre.navigation.benchmark
+
+import org.maplibre.navigation.core.models.DirectionsResponse
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Measures parsing a directions response with [DirectionsResponse.fromJson].
+ */
+@State(Scope.Benchmark)
+open class DirectionsResponseBenchmark {
+
+    @Param(
+        BenchmarkFixtures.DIRECTIONS_PRECISION_6,
+        BenchmarkFixtures.TWO_LEG_ROUTE,
+        BenchmarkFixtures.LONG_STEP
+    )
+    @JvmField
+    var fixture: String = BenchmarkFixtures.DIRECTIONS_PRECISION_6
+
+    private lateinit var json: String
+
+    @Setup(Level.Trial)
+    fun setUp() {
+        json = BenchmarkFixtures.loadJson(fixture)
+    }
+
+    @Benchmark
+    fun fromJson(): DirectionsResponse {
+        return DirectionsResponse.fromJson(json)
+    }
+}
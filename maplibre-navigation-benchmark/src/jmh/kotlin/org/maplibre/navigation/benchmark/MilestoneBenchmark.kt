@@ -0,0 +1,23 @@
+package org.maplibre.navigation.benchmark
+
+import org.maplibre.navigation.core.milestone.Milestone
+import org.maplibre.navigation.core.navigation.NavigationHelper
+import org.openjdk.jmh.annotations.Benchmark
+
+/**
+ * Measures [NavigationHelper.checkMilestones] with the default milestones and a set of custom
+ * step milestones registered.
+ */
+open class MilestoneBenchmark {
+
+    @Benchmark
+    fun checkMilestones(state: NavigationState): List<Milestone> {
+        val index = state.nextIndex()
+        val previousIndex = if (index == 0) state.routeProgresses.size - 1 else index - 1
+        return NavigationHelper.checkMilestones(
+            state.routeProgresses[previousIndex],
+            state.routeProgresses[index],
+            state.navigation
+        )
+    }
+}
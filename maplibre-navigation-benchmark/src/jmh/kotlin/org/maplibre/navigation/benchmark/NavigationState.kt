@@ -0,0 +1,110 @@
+package org.maplibre.navigation.benchmark
+
+import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.milestone.BannerInstructionMilestone
+import org.maplibre.navigation.core.milestone.StepMilestone
+import org.maplibre.navigation.core.milestone.Trigger
+import org.maplibre.navigation.core.milestone.TriggerProperty
+import org.maplibre.navigation.core.milestone.VoiceInstructionMilestone
+import org.maplibre.navigation.core.navigation.MapLibreNavigation
+import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions
+import org.maplibre.navigation.core.navigation.NavigationIndices
+import org.maplibre.navigation.core.navigation.NavigationRouteProcessor
+import org.maplibre.navigation.core.routeprogress.RouteProgress
+import org.maplibre.navigation.core.utils.RouteUtils
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+
+/**
+ * A navigation session on one of the route fixtures, positioned on the longest step of the first
+ * leg. Holds locations along that step and the route progress built for each of them, so the
+ * single engine parts can be measured in isolation.
+ */
+@State(Scope.Thread)
+open class NavigationState {
+
+    @Param(
+        BenchmarkFixtures.DIRECTIONS_PRECISION_6,
+        BenchmarkFixtures.TWO_LEG_ROUTE,
+        BenchmarkFixtures.LONG_STEP
+    )
+    @JvmField
+    var fixture: String = BenchmarkFixtures.DIRECTIONS_PRECISION_6
+
+    lateinit var navigation: MapLibreNavigation
+    lateinit var routeProcessor: NavigationRouteProcessor
+    lateinit var locations: Array<Location>
+    lateinit var routeProgresses: Array<RouteProgress>
+
+    private var locationIndex = 0
+
+    @Setup(Level.Trial)
+    fun setUp() {
+        val route = BenchmarkFixtures.loadRoute(fixture)
+        navigation = MapLibreNavigation(
+            options = MapLibreNavigationOptions(defaultMilestonesEnabled = false),
+            locationEngine = BenchmarkFixtures.IdleLocationEngine,
+        )
+        // Starting the navigation builds the route geometry index, locations are passed manually
+        navigation.startNavigation(route)
+        navigation.stopNavigation()
+        navigation.addMilestones(createMilestones())
+
+        val routeGeometryIndex = checkNotNull(navigation.routeGeometryIndex)
+        val stepIndex = BenchmarkFixtures.longestStepIndex(routeGeometryIndex)
+        locations = BenchmarkFixtures.locationsAlongStep(routeGeometryIndex, stepIndex, LOCATION_COUNT)
+
+        routeProcessor = NavigationRouteProcessor(RouteUtils())
+        routeProcessor.buildNewRouteProgress(navigation, locations.first())
+        routeProcessor.setIndex(navigation, NavigationIndices(legIndex = 0, stepIndex = stepIndex))
+        routeProgresses = Array(locations.size) { index ->
+            routeProcessor.buildNewRouteProgress(navigation, locations[index])
+        }
+    }
+
+    @TearDown(Level.Trial)
+    fun tearDown() {
+        navigation.onDestroy()
+    }
+
+    /**
+     * Index of the next location along the step, starting over at the end of the step.
+     */
+    fun nextIndex(): Int {
+        val index = locationIndex
+        locationIndex = (index + 1) % locations.size
+        return index
+    }
+
+    /**
+     * The default voice and banner milestones, together with a set of custom step milestones like
+     * an app would register them.
+     */
+    private fun createMilestones() = buildList {
+        add(VoiceInstructionMilestone(identifier = VOICE_MILESTONE_ID))
+        add(BannerInstructionMilestone(identifier = BANNER_MILESTONE_ID))
+        for (identifier in 0 until CUSTOM_MILESTONE_COUNT) {
+            add(
+                StepMilestone(
+                    identifier = identifier,
+                    trigger = Trigger.all(
+                        Trigger.lt(TriggerProperty.STEP_DISTANCE_REMAINING_METERS, 10.0 * identifier),
+                        Trigger.gte(TriggerProperty.STEP_DISTANCE_TOTAL_METERS, 100.0),
+                        Trigger.neq(TriggerProperty.LAST_STEP, TriggerProperty.TRUE_VALUE)
+                    )
+                )
+            )
+        }
+    }
+
+    private companion object {
+        const val LOCATION_COUNT = 100
+        const val CUSTOM_MILESTONE_COUNT = 30
+        const val VOICE_MILESTONE_ID = 1000
+        const val BANNER_MILESTONE_ID = 1001
+    }
+}
@@ -0,0 +1,31 @@
+package org.maplibre.navigation.benchmark
+
+import org.maplibre.navigation.core.offroute.OffRouteDetector
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Measures [OffRouteDetector.isUserOffRoute] for locations along the route.
+ */
+@State(Scope.Thread)
+open class OffRouteBenchmark {
+
+    private lateinit var offRouteDetector: OffRouteDetector
+
+    @Setup
+    fun setUp() {
+        offRouteDetector = OffRouteDetector()
+    }
+
+    @Benchmark
+    fun isUserOffRoute(state: NavigationState): Boolean {
+        val index = state.nextIndex()
+        return offRouteDetector.isUserOffRoute(
+            state.locations[index],
+            state.routeProgresses[index],
+            state.navigation.options
+        )
+    }
+}
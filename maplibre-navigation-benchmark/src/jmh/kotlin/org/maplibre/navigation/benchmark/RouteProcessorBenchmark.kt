@@ -0,0 +1,19 @@
+package org.maplibre.navigation.benchmark
+
+import org.maplibre.navigation.core.routeprogress.RouteProgress
+import org.openjdk.jmh.annotations.Benchmark
+
+/**
+ * Measures [org.maplibre.navigation.core.navigation.NavigationRouteProcessor.buildNewRouteProgress],
+ * the first step of processing every location update.
+ */
+open class RouteProcessorBenchmark {
+
+    @Benchmark
+    fun buildNewRouteProgress(state: NavigationState): RouteProgress {
+        return state.routeProcessor.buildNewRouteProgress(
+            state.navigation,
+            state.locations[state.nextIndex()]
+        )
+    }
+}
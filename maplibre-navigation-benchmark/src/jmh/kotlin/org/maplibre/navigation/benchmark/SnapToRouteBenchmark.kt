@@ -0,0 +1,28 @@
+package org.maplibre.navigation.benchmark
+
+import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.snap.SnapToRoute
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Measures [SnapToRoute.getSnappedLocation] for locations along the route.
+ */
+@State(Scope.Thread)
+open class SnapToRouteBenchmark {
+
+    private lateinit var snapToRoute: SnapToRoute
+
+    @Setup
+    fun setUp() {
+        snapToRoute = SnapToRoute()
+    }
+
+    @Benchmark
+    fun getSnappedLocation(state: NavigationState): Location {
+        val index = state.nextIndex()
+        return snapToRoute.getSnappedLocation(state.locations[index], state.routeProgresses[index])
+    }
+}
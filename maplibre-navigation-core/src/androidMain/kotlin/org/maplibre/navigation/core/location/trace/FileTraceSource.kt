@@ -0,0 +1,40 @@
+package org.maplibre.navigation.core.location.trace
+
+import java.io.File
+
+/**
+ * Reads a recorded trace line by line from a file, without loading the whole file.
+ *
+ * @param file the recorded trace
+ *
+ * @since 5.0.0
+ */
+class FileTraceSource(private val file: File) : TraceSource {
+
+    override fun open(): TraceReader {
+        val reader = file.bufferedReader()
+        return object : TraceReader {
+            override fun readLine(): String? = reader.readLine()
+
+            override fun close() = reader.close()
+        }
+    }
+
+    companion object {
+
+        /**
+         * Detects the trace format by the file extension: `.gpx`, `.nmea` / `.nmea0183` / `.log`,
+         * or `.jsonl` / `.ndjson`.
+         *
+         * @return the detected format, or null for unknown extensions
+         */
+        fun formatOf(file: File): TraceFormat? {
+            return when (file.extension.lowercase()) {
+                "gpx" -> TraceFormat.GPX
+                "nmea", "nmea0183", "log" -> TraceFormat.NMEA
+                "jsonl", "ndjson" -> TraceFormat.JSON_LINES
+                else -> null
+            }
+        }
+    }
+}
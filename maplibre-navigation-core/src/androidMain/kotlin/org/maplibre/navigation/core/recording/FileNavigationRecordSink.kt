@@ -0,0 +1,29 @@
+package org.maplibre.navigation.core.recording
+
+import java.io.BufferedOutputStream
+import java.io.File
+import java.io.FileOutputStream
+
+/**
+ * Writes a navigation recording to a file. An existing file is replaced.
+ *
+ * @param file the file the recording is written to
+ *
+ * @since 5.0.0
+ */
+class FileNavigationRecordSink(file: File) : NavigationRecordSink {
+
+    private val outputStream = BufferedOutputStream(FileOutputStream(file))
+
+    override fun write(bytes: ByteArray, offset: Int, length: Int) {
+        outputStream.write(bytes, offset, length)
+    }
+
+    override fun flush() {
+        outputStream.flush()
+    }
+
+    override fun close() {
+        outputStream.close()
+    }
+}
@@ -0,0 +1,80 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions.GeometryKernel
+import org.maplibre.navigation.core.utils.MeasurementUtils.userTrueDistanceFromStep
+import org.maplibre.spatialk.geojson.Position
+import org.maplibre.spatialk.turf.measurement.distance
+import org.maplibre.spatialk.units.extensions.inMeters
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class LocalTangentPlaneTest : BaseTest() {
+
+    @Test
+    fun routeGeometryIndex_createsPlanesOnlyForLocalTangentPlaneKernel() {
+        val route = buildTestDirectionsRoute()
+
+        assertNull(RouteGeometryIndex(route).stepGeometry(0, 3)!!.localTangentPlane)
+        assertNotNull(RouteGeometryIndex(route, GeometryKernel.LOCAL_TANGENT_PLANE).stepGeometry(0, 3)!!.localTangentPlane)
+    }
+
+    @Test
+    fun project_matchesGeodesicProjection() {
+        val route = buildTestDirectionsRoute()
+        val geodesicStep = RouteGeometryIndex(route).stepGeometry(0, 3)!!
+        val planeStep = RouteGeometryIndex(route, GeometryKernel.LOCAL_TANGENT_PLANE).stepGeometry(0, 3)!!
+        val geodesicCursor = ProjectionCursor()
+        val planeCursor = ProjectionCursor()
+
+        for (i in 0 until geodesicStep.positions.size - 1) {
+            val position = offsetPosition(geodesicStep.positions[i], geodesicStep.positions[i + 1])
+
+            val geodesicProjection = geodesicCursor.project(geodesicStep, position)!!
+            val planeProjection = planeCursor.project(planeStep, position)!!
+
+            assertEquals(geodesicProjection.segmentIndex, planeProjection.segmentIndex)
+            assertEquals(geodesicProjection.distanceFromLine, planeProjection.distanceFromLine, 0.1)
+            assertEquals(geodesicProjection.distanceAlongStep, planeProjection.distanceAlongStep, 0.1)
+        }
+    }
+
+    @Test
+    fun distanceFromLine_matchesGeodesicDistance() {
+        val planeStep = RouteGeometryIndex(buildTestDirectionsRoute(), GeometryKernel.LOCAL_TANGENT_PLANE)
+            .stepGeometry(0, 3)!!
+        val plane = planeStep.localTangentPlane!!
+
+        for (distanceAway in listOf(5.0, 50.0, 500.0)) {
+            val position = buildPointAwayFromPoint(planeStep.positions[1], distanceAway, 45.0).coordinates
+            val geodesicDistance = userTrueDistanceFromStep(position, planeStep.positions)
+
+            assertEquals(geodesicDistance, plane.distanceFromLine(position), geodesicDistance * 0.001 + 0.01)
+        }
+    }
+
+    @Test
+    fun locateAlong_matchesGeodesicPosition() {
+        val route = buildTestDirectionsRoute()
+        val geodesicStep = RouteGeometryIndex(route).stepGeometry(0, 3)!!
+        val planeStep = RouteGeometryIndex(route, GeometryKernel.LOCAL_TANGENT_PLANE).stepGeometry(0, 3)!!
+
+        var distanceAlong = 0.0
+        while (distanceAlong < geodesicStep.length) {
+            val geodesicPoint = geodesicStep.locateAlong(distanceAlong)!!
+            val planePoint = planeStep.locateAlong(distanceAlong)!!
+
+            assertEquals(0.0, distance(geodesicPoint.coordinates, planePoint.coordinates).inMeters, 0.1)
+            distanceAlong += 7.5
+        }
+    }
+
+    private fun offsetPosition(start: Position, end: Position): Position {
+        return Position(
+            longitude = (start.longitude + end.longitude) / 2 + 0.00005,
+            latitude = (start.latitude + end.latitude) / 2 - 0.00005
+        )
+    }
+}
@@ -0,0 +1,74 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.utils.Constants
+import org.maplibre.spatialk.geojson.Position
+import org.maplibre.spatialk.polyline.PolylineEncoding
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertSame
+
+class PackedPositionsTest : BaseTest() {
+
+    @Test
+    fun decode_matchesPolylineEncoding() {
+        val route = buildTestDirectionsRoute()
+        val geometries = listOf(route.geometry) + route.legs.flatMap { leg -> leg.steps.map { step -> step.geometry } }
+
+        for (geometry in geometries) {
+            val expected = PolylineEncoding.decode(encoded = geometry, precision = Constants.PRECISION_6)
+
+            val packedPositions = PackedPositions.decode(geometry, Constants.PRECISION_6)
+
+            assertEquals(expected.size, packedPositions.size)
+            expected.forEachIndexed { index, position ->
+                assertEquals(position.longitude, packedPositions.longitude(index), DELTA)
+                assertEquals(position.latitude, packedPositions.latitude(index), DELTA)
+            }
+        }
+    }
+
+    @Test
+    fun decode_supportsPrecisionFive() {
+        // Example of the polyline algorithm documentation
+        val packedPositions = PackedPositions.decode("_p~iF~ps|U_ulLnnqC_mqNvxq`@", Constants.PRECISION_5)
+
+        assertEquals(
+            listOf(Position(-120.2, 38.5), Position(-120.95, 40.7), Position(-126.453, 43.252)),
+            packedPositions.map { position -> Position(round(position.longitude), round(position.latitude)) }
+        )
+    }
+
+    @Test
+    fun decode_rejectsTruncatedPolyline() {
+        assertFailsWith<IllegalArgumentException> {
+            PackedPositions.decode("_p~iF~ps|U_ulL", Constants.PRECISION_5)
+        }
+    }
+
+    @Test
+    fun subList_sharesCoordinates() {
+        val packedPositions = PackedPositions(doubleArrayOf(1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0))
+
+        val view = packedPositions.subList(1, 3)
+
+        assertEquals(2, view.size)
+        assertEquals(1, view.offset)
+        assertEquals(listOf(Position(3.0, 4.0), Position(5.0, 6.0)), view)
+        assertEquals(5.0, view.subList(1, 2).longitude(0))
+        assertFailsWith<IndexOutOfBoundsException> { view[2] }
+    }
+
+    @Test
+    fun of_packsPositionsOnce() {
+        val positions = listOf(Position(1.0, 2.0), Position(3.0, 4.0))
+
+        val packedPositions = PackedPositions.of(positions)
+
+        assertEquals(positions, packedPositions)
+        assertSame(packedPositions, PackedPositions.of(packedPositions))
+    }
+
+    private fun round(value: Double): Double = kotlin.math.round(value * 100_000) / 100_000
+}
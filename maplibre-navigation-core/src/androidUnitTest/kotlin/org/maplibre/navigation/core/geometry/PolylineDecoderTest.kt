@@ -0,0 +1,80 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.utils.Constants
+import org.maplibre.spatialk.polyline.PolylineEncoding
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class PolylineDecoderTest : BaseTest() {
+
+    @Test
+    fun decodeAll_reusesDecoderForMultiplePolylines() {
+        val route = buildTestDirectionsRoute()
+        val decoder = PolylineDecoder(1)
+
+        route.legs.flatMap { leg -> leg.steps }.forEach { step ->
+            val expected = PolylineEncoding.decode(step.geometry, Constants.PRECISION_6)
+
+            decoder.reset(step.geometry, Constants.PRECISION_6)
+            decoder.decodeAll()
+
+            assertTrue(decoder.isComplete)
+            assertEquals(expected.size, decoder.size)
+            assertEquals(expected, decoder.toPackedPositions())
+        }
+    }
+
+    @Test
+    fun decodeUntil_onlyDecodesRequestedPositions() {
+        val geometry = buildTestDirectionsRoute().legs[0].steps[1].geometry
+        val expected = PolylineEncoding.decode(geometry, Constants.PRECISION_6)
+        val decoder = PolylineDecoder()
+        decoder.reset(geometry, Constants.PRECISION_6)
+
+        assertEquals(2, decoder.decodeUntil(2))
+        assertFalse(decoder.isComplete)
+        assertEquals(expected[1].longitude, decoder.longitude(1), DELTA)
+        assertEquals(expected[1].latitude, decoder.latitude(1), DELTA)
+        assertFailsWith<IndexOutOfBoundsException> { decoder.latitude(2) }
+
+        assertEquals(expected.size, decoder.decodeUntil(Int.MAX_VALUE))
+        assertEquals(expected.subList(1, 3), decoder.toPackedPositions(1, 3))
+    }
+
+    @Test
+    fun countPositions_matchesDecodedPositions() {
+        val route = buildTestDirectionsRoute()
+
+        assertEquals(
+            PolylineEncoding.decode(route.geometry, Constants.PRECISION_6).size,
+            PolylineDecoder.countPositions(route.geometry)
+        )
+        assertEquals(0, PolylineDecoder.countPositions(""))
+    }
+
+    @Test
+    fun matches_comparesWithRangeOfPositions() {
+        val positions = PackedPositions.decode("_p~iF~ps|U_ulLnnqC_mqNvxq`@", Constants.PRECISION_5)
+        val decoder = PolylineDecoder()
+
+        decoder.reset(encode(positions.subList(1, 3)), Constants.PRECISION_5)
+        assertTrue(decoder.matches(positions, 1))
+
+        decoder.reset(encode(positions.subList(1, 3)), Constants.PRECISION_5)
+        assertFalse(decoder.matches(positions, 0))
+
+        decoder.reset(encode(positions), Constants.PRECISION_5)
+        assertFalse(decoder.matches(positions, 1))
+
+        decoder.reset("", Constants.PRECISION_5)
+        assertFalse(decoder.matches(positions, 0))
+    }
+
+    private fun encode(positions: PackedPositions): String {
+        return PolylineEncoding.encode(positions, Constants.PRECISION_5)
+    }
+}
@@ -0,0 +1,93 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.navigation.core.BaseTest
+import org.maplibre.spatialk.geojson.LineString
+import org.maplibre.spatialk.geojson.Position
+import org.maplibre.spatialk.turf.measurement.distance
+import org.maplibre.spatialk.turf.measurement.length
+import org.maplibre.spatialk.turf.misc.nearestPointTo
+import org.maplibre.spatialk.turf.misc.slice
+import org.maplibre.spatialk.units.extensions.inMeters
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class ProjectionCursorTest : BaseTest() {
+
+    @Test
+    fun project_matchesNearestPointOnLine() {
+        val stepGeometry = buildLongStepGeometry()
+        val lineString = LineString(stepGeometry.positions)
+        val cursor = ProjectionCursor()
+
+        // Drive along the step with an offset to the line
+        for (i in 0 until stepGeometry.positions.size - 1 step 7) {
+            val location = offsetPosition(stepGeometry.positions[i], stepGeometry.positions[i + 1])
+
+            val projection = cursor.project(stepGeometry, location)
+            val expected = lineString.nearestPointTo(location).geometry.coordinates
+
+            assertNotNull(projection)
+            assertEquals(distance(location, expected).inMeters, projection.distanceFromLine, 0.5)
+            assertEquals(
+                lineString.slice(stepGeometry.positions.first(), expected).length().inMeters,
+                projection.distanceAlongStep,
+                1.0
+            )
+        }
+    }
+
+    @Test
+    fun project_jumpOutsideOfWindowFallsBackToFullScan() {
+        val stepGeometry = buildLongStepGeometry()
+        val cursor = ProjectionCursor(segmentsAhead = 4, segmentsBehind = 4)
+
+        cursor.project(stepGeometry, stepGeometry.positions[1])
+        val lastSegmentIndex = stepGeometry.positions.size - 2
+        val projection = cursor.project(stepGeometry, stepGeometry.positions[lastSegmentIndex])
+
+        assertNotNull(projection)
+        assertEquals(stepGeometry.positions[lastSegmentIndex], projection.position)
+        assertEquals(0.0, projection.distanceFromLine, DELTA)
+        assertEquals(
+            stepGeometry.cumulativeDistances[lastSegmentIndex],
+            projection.distanceAlongStep,
+            DELTA
+        )
+    }
+
+    @Test
+    fun project_newStepGeometryIsScannedFully() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+        val firstStep = index.stepGeometry(0, 3)!!
+        val secondStep = index.stepGeometry(0, 1)!!
+        val cursor = ProjectionCursor(segmentsAhead = 1, segmentsBehind = 1)
+
+        cursor.project(firstStep, firstStep.positions[firstStep.positions.size / 2])
+        val projection = cursor.project(secondStep, secondStep.positions.last())
+
+        assertNotNull(projection)
+        assertEquals(secondStep.positions.last(), projection.position)
+        assertEquals(secondStep.length, projection.distanceAlongStep, DELTA)
+    }
+
+    @Test
+    fun project_lessThanTwoPositionsReturnsNull() {
+        val stepGeometry = StepGeometry.fromPositions(listOf(Position(-77.0, 38.0)))
+
+        assertNull(ProjectionCursor().project(stepGeometry, Position(-77.0, 38.0)))
+    }
+
+    private fun buildLongStepGeometry(): StepGeometry {
+        return RouteGeometryIndex(buildTestDirectionsRoute()).stepGeometry(0, 3)!!
+    }
+
+    private fun offsetPosition(start: Position, end: Position): Position {
+        return Position(
+            longitude = (start.longitude + end.longitude) / 2 + 0.00005,
+            latitude = (start.latitude + end.latitude) / 2 - 0.00005
+        )
+    }
+}
@@ -0,0 +1,207 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.models.LegStep
+import org.maplibre.navigation.core.models.RouteLeg
+import org.maplibre.navigation.core.navigation.NavigationHelper
+import org.maplibre.navigation.core.utils.Constants
+import org.maplibre.spatialk.geojson.LineString
+import org.maplibre.spatialk.geojson.Position
+import org.maplibre.spatialk.polyline.PolylineEncoding
+import org.maplibre.spatialk.turf.measurement.length
+import org.maplibre.spatialk.turf.measurement.locateAlong
+import org.maplibre.spatialk.units.extensions.inMeters
+import org.maplibre.spatialk.units.extensions.meters
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class RouteGeometryIndexTest : BaseTest() {
+
+    @Test
+    fun stepGeometry_matchesDecodedStepGeometry() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+
+        route.legs.forEachIndexed { legIndex, leg ->
+            leg.steps.forEachIndexed { stepIndex, step ->
+                val expected = PolylineEncoding.decode(step.geometry, Constants.PRECISION_6)
+                assertEquals(expected, index.stepGeometry(legIndex, stepIndex)?.positions)
+            }
+        }
+    }
+
+    @Test
+    fun routeGeometry_matchesDecodedRouteGeometry() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+
+        val expected = PolylineEncoding.decode(route.geometry, Constants.PRECISION_6)
+        assertEquals(expected, index.routeGeometry.positions)
+    }
+
+    @Test
+    fun stepGeometry_invalidIndicesReturnNull() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+
+        assertNull(index.stepGeometry(route.legs.size, 0))
+        assertNull(index.stepGeometry(0, route.legs.first().steps.size))
+        assertNull(index.stepGeometry(-1, 0))
+    }
+
+    @Test
+    fun stepGeometry_lengthMatchesLineStringLength() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+
+        route.legs.first().steps.indices.forEach { stepIndex ->
+            val stepGeometry = index.stepGeometry(0, stepIndex)!!
+            if (stepGeometry.positions.size < 2) {
+                return@forEach
+            }
+
+            val expected = LineString(stepGeometry.positions).length().inMeters
+            assertEquals(expected, stepGeometry.length, LARGE_DELTA)
+        }
+    }
+
+    @Test
+    fun stepGeometry_distancesAlongLegAreCumulative() {
+        val route = buildTestDirectionsRoute("directions_two_leg_route.json")
+        val index = RouteGeometryIndex(route)
+
+        index.legs.forEach { legGeometry ->
+            var expectedDistanceAlongLeg = 0.0
+            legGeometry.steps.forEach { stepGeometry ->
+                assertEquals(expectedDistanceAlongLeg, stepGeometry.distanceAlongLeg, DELTA)
+                assertEquals(
+                    legGeometry.distanceAlongRoute + expectedDistanceAlongLeg,
+                    stepGeometry.distanceAlongRoute,
+                    DELTA
+                )
+                expectedDistanceAlongLeg += stepGeometry.length
+            }
+            assertEquals(expectedDistanceAlongLeg, legGeometry.length, DELTA)
+        }
+        assertEquals(index.legs[0].length, index.legs[1].distanceAlongRoute, DELTA)
+    }
+
+    @Test
+    fun stepGeometry_sharesRouteGeometryPositions() {
+        val route = buildTestDirectionsRoute("directions_two_leg_route.json")
+        val index = RouteGeometryIndex(route)
+
+        var expectedOffset = 0
+        route.legs.forEachIndexed { legIndex, leg ->
+            leg.steps.forEachIndexed { stepIndex, step ->
+                val positions = index.stepGeometry(legIndex, stepIndex)!!.positions
+
+                assertEquals(PolylineEncoding.decode(step.geometry, Constants.PRECISION_6), positions)
+                assertEquals(expectedOffset, positions.offset)
+                expectedOffset += positions.size - 1
+            }
+        }
+        assertEquals(index.routeGeometry.positions.size - 1, expectedOffset)
+    }
+
+    @Test
+    fun locateAlong_matchesLineStringLocateAlong() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+        val stepGeometry = index.stepGeometry(0, 1)!!
+        val lineString = LineString(stepGeometry.positions)
+
+        listOf(0.0, 1.0, stepGeometry.length / 3, stepGeometry.length / 2, stepGeometry.length - 1)
+            .forEach { distance ->
+                val expected = lineString.locateAlong(distance.meters).coordinates
+                val actual = stepGeometry.locateAlong(distance)!!.coordinates
+
+                assertEquals(expected.latitude, actual.latitude, 1E-6)
+                assertEquals(expected.longitude, actual.longitude, 1E-6)
+            }
+    }
+
+    @Test
+    fun locateAlong_beyondLengthReturnsLastPosition() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+        val stepGeometry = index.stepGeometry(0, 1)!!
+
+        val point = stepGeometry.locateAlong(stepGeometry.length + 100)
+
+        assertNotNull(point)
+        assertEquals(stepGeometry.positions.last(), point.coordinates)
+    }
+
+    @Test
+    fun distanceAlong_matchesProjection() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+        val stepGeometry = index.stepGeometry(0, 1)!!
+        val position = stepGeometry.positions[stepGeometry.positions.size / 2]
+
+        val expected = ProjectionCursor().project(stepGeometry, position)!!.distanceAlongStep
+
+        assertEquals(expected, stepGeometry.distanceAlong(position)!!, DELTA)
+        assertEquals(expected, stepGeometry.distanceAlong(position)!!, DELTA)
+        assertEquals(0.0, stepGeometry.distanceAlong(stepGeometry.positions.first())!!, DELTA)
+    }
+
+    @Test
+    fun distanceAlong_singlePositionReturnsNull() {
+        val stepGeometry = StepGeometry.fromPositions(listOf(Position(1.0, 2.0)))
+
+        assertNull(stepGeometry.distanceAlong(Position(1.0, 2.0)))
+    }
+
+    @Test
+    fun firstPosition_isFirstPositionOfFirstStep() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+
+        assertEquals(index.stepGeometry(0, 0)!!.positions.first(), index.firstPosition)
+    }
+
+    @Test
+    fun stepDistanceAfter_matchesSumOfFollowingSteps() {
+        val route = buildTestDirectionsRoute("directions_two_leg_route.json")
+        val index = RouteGeometryIndex(route)
+
+        route.legs.forEachIndexed { legIndex, leg ->
+            leg.steps.indices.forEach { stepIndex ->
+                val expectedDistance = leg.steps.drop(stepIndex + 1).sumOf(LegStep::distance)
+                val expectedDuration = leg.steps.drop(stepIndex + 1).sumOf(LegStep::duration)
+
+                assertEquals(expectedDistance, index.stepDistanceAfter(legIndex, stepIndex), DELTA)
+                assertEquals(expectedDuration, index.stepDurationAfter(legIndex, stepIndex), DELTA)
+            }
+        }
+    }
+
+    @Test
+    fun legDistanceAfter_matchesSumOfFollowingLegs() {
+        val route = buildTestDirectionsRoute("directions_two_leg_route.json")
+        val index = RouteGeometryIndex(route)
+
+        route.legs.indices.forEach { legIndex ->
+            val expectedDistance = route.legs.drop(legIndex + 1).sumOf(RouteLeg::distance)
+            val expectedDuration = route.legs.drop(legIndex + 1).sumOf(RouteLeg::duration)
+
+            assertEquals(expectedDistance, index.legDistanceAfter(legIndex), DELTA)
+            assertEquals(expectedDuration, index.legDurationAfter(legIndex), DELTA)
+        }
+    }
+
+    @Test
+    fun legDistanceRemaining_indexMatchesRouteIteration() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+
+        val expected = NavigationHelper.legDistanceRemaining(100.0, 0, 2, route)
+        val actual = NavigationHelper.legDistanceRemaining(100.0, 0, 2, index)
+
+        assertEquals(expected, actual, DELTA)
+    }
+}
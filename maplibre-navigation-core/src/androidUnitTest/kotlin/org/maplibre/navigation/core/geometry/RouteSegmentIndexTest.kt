@@ -0,0 +1,70 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.navigation.core.BaseTest
+import org.maplibre.spatialk.geojson.Position
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class RouteSegmentIndexTest : BaseTest() {
+
+    @Test
+    fun nearestSegment_matchesScanOfAllSteps() {
+        val routeGeometryIndex = RouteGeometryIndex(buildTestDirectionsRoute())
+
+        for (cellSizeMeters in listOf(20.0, RouteSegmentIndex.DEFAULT_CELL_SIZE_METERS, 5_000.0)) {
+            val segmentIndex = RouteSegmentIndex(routeGeometryIndex.legs, cellSizeMeters)
+
+            routeGeometryIndex.legs.flatMap(LegGeometry::steps).forEach { step ->
+                for (i in 0 until step.positions.size - 1 step 3) {
+                    val position = buildPointAwayFromPoint(middleOf(step.positions[i], step.positions[i + 1]), 15.0, 90.0)
+                        .coordinates
+
+                    val match = segmentIndex.nearestSegment(position, 100.0)
+
+                    assertNotNull(match)
+                    assertEquals(scanAllSteps(routeGeometryIndex, position), match.distanceFromLine, 0.5)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun nearestSegment_returnsNullBeyondMaxDistance() {
+        val routeGeometryIndex = RouteGeometryIndex(buildTestDirectionsRoute())
+        val position = buildPointAwayFromPoint(routeGeometryIndex.firstPosition!!, 5_000.0, 0.0).coordinates
+
+        assertNull(routeGeometryIndex.segmentIndex.nearestSegment(position, 100.0))
+        assertNotNull(routeGeometryIndex.segmentIndex.nearestSegment(position, 50_000.0))
+    }
+
+    @Test
+    fun nearestSegment_skipsSegmentsRejectedByFilter() {
+        val wayOut = StepGeometry.fromPositions(listOf(Position(13.4, 52.5), Position(13.4, 52.51)))
+        val wayBack = StepGeometry.fromPositions(listOf(Position(13.4005, 52.51), Position(13.4005, 52.5)))
+        val segmentIndex = RouteSegmentIndex(listOf(LegGeometry(listOf(wayOut, wayBack), 0.0, 0.0)))
+        val position = Position(longitude = 13.4001, latitude = 52.505)
+
+        val southbound = segmentIndex.nearestSegment(position, 100.0) { _, _, bearing -> bearing in 135.0..225.0 }
+
+        assertEquals(0, segmentIndex.nearestSegment(position, 100.0)?.stepIndex)
+        assertNotNull(southbound)
+        assertEquals(1, southbound.stepIndex)
+        assertNull(segmentIndex.nearestSegment(position, 100.0) { _, _, _ -> false })
+    }
+
+    private fun scanAllSteps(routeGeometryIndex: RouteGeometryIndex, position: Position): Double {
+        return routeGeometryIndex.legs
+            .flatMap(LegGeometry::steps)
+            .mapNotNull { step -> ProjectionCursor().project(step, position)?.distanceFromLine }
+            .min()
+    }
+
+    private fun middleOf(start: Position, end: Position): Position {
+        return Position(
+            longitude = (start.longitude + end.longitude) / 2,
+            latitude = (start.latitude + end.latitude) / 2
+        )
+    }
+}
@@ -1,8 +1,15 @@
 package org.maplibre.navigation.core.location.replay
 
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.test.TestScope
+import kotlinx.coroutines.test.advanceTimeBy
+import kotlinx.coroutines.test.runCurrent
 import org.maplibre.navigation.core.location.Location
 import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
 
+@OptIn(ExperimentalCoroutinesApi::class)
 class ReplayLocationDispatcherTest {
 
     @Test(expected = IllegalArgumentException::class)
@@ -24,4 +31,53 @@ class ReplayLocationDispatcherTest {
 
         theReplayLocationDispatcher.update(empty)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun start_withPlaybackRate_dispatchesFasterWithOriginalTimestamps() {
+        val testScope = TestScope()
+        val dispatchedLocations = mutableListOf<Location>()
+        val dispatcher = ReplayLocationDispatcher(buildLocations(), testScope, playbackRate = 10.0)
+        dispatcher.addReplayLocationListener { location -> dispatchedLocations.add(location) }
+
+        dispatcher.start()
+        testScope.runCurrent()
+        assertEquals(1, dispatchedLocations.size)
+
+        // One second between the locations, replayed in 100 milliseconds
+        testScope.advanceTimeBy(101)
+        assertEquals(2, dispatchedLocations.size)
+        testScope.advanceTimeBy(100)
+        assertEquals(listOf(1_000L, 2_000L, 3_000L), dispatchedLocations.map { location -> location.timeMilliseconds })
+    }
+
+    @Test
+    fun start_asFastAsPossible_dispatchesWithoutWaiting() {
+        val testScope = TestScope()
+        val dispatchedLocations = mutableListOf<Location>()
+        val dispatcher = ReplayLocationDispatcher(
+            buildLocations(),
+            testScope,
+            playbackRate = ReplayLocationDispatcher.PLAYBACK_RATE_AS_FAST_AS_POSSIBLE
+        )
+        dispatcher.addReplayLocationListener { location -> dispatchedLocations.add(location) }
+
+        dispatcher.start()
+        testScope.runCurrent()
+
+        assertEquals(3, dispatchedLocations.size)
+        assertEquals(0L, testScope.testScheduler.currentTime)
+    }
+
+    @Test
+    fun updatePlaybackRate_rejectsNonPositiveRates() {
+        val dispatcher = ReplayLocationDispatcher(buildLocations(), TestScope())
+
+        assertFailsWith<IllegalArgumentException> { dispatcher.updatePlaybackRate(0.0) }
+    }
+
+    private fun buildLocations(): List<Location> {
+        return (0..3).map { index ->
+            Location(latitude = 0.0, longitude = index * 0.0001, timeMilliseconds = index * 1_000L)
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.maplibre.navigation.core.location.replay
+
+import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.utils.Constants
+import org.maplibre.spatialk.geojson.LineString
+import org.maplibre.spatialk.geojson.Position
+import org.maplibre.spatialk.polyline.PolylineEncoding
+import org.maplibre.spatialk.turf.measurement.distance
+import org.maplibre.spatialk.turf.measurement.length
+import org.maplibre.spatialk.units.extensions.inMeters
+import kotlin.math.ceil
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class ReplayRouteLocationConverterTest : BaseTest() {
+
+    @Test
+    fun sliceRoute_createsEvenlySpacedPoints() {
+        val converter = ReplayRouteLocationConverter(buildTestDirectionsRoute(), SPEED_KM_PER_HOUR, 1)
+        val lineString = LineString(
+            listOf(
+                Position(longitude = -122.4194, latitude = 37.7749),
+                Position(longitude = -122.4194, latitude = 37.7759),
+                Position(longitude = -122.4184, latitude = 37.7759)
+            )
+        )
+
+        val points = converter.sliceRoute(lineString)
+
+        val expectedCount = ceil(lineString.length().inMeters / INTERVAL_METERS).toInt()
+        assertEquals(expectedCount, points.size)
+        assertEquals(lineString.coordinates.first(), points.first().coordinates)
+        assertEquals(INTERVAL_METERS, distance(points[0].coordinates, points[1].coordinates).inMeters, 0.01)
+    }
+
+    @Test
+    fun toLocationSequence_coversWholeRoute() {
+        val route = buildTestDirectionsRoute()
+        val converter = ReplayRouteLocationConverter(route, SPEED_KM_PER_HOUR, 1)
+
+        val locations = converter.toLocationSequence().toList()
+
+        val routeLength = route.legs
+            .flatMap { leg -> leg.steps }
+            .map { step -> PolylineEncoding.decode(step.geometry, Constants.PRECISION_6) }
+            .filter { positions -> positions.size > 1 }
+            .sumOf { positions -> LineString(positions).length().inMeters }
+        val expectedCount = ceil(routeLength / INTERVAL_METERS).toInt()
+        assertTrue(locations.size in expectedCount - 1..expectedCount + 1, "${locations.size} locations")
+        locations.zipWithNext().forEach { (previous, next) ->
+            assertEquals(1000L, next.timeMilliseconds!! - previous.timeMilliseconds!!)
+            assertTrue(distance(previous.position, next.position).inMeters <= INTERVAL_METERS + 0.01)
+        }
+        assertTrue(locations.all { location -> location.bearing != null && location.speedMetersPerSeconds != null })
+    }
+
+    @Test
+    fun toLocationSequence_doesNotAdvanceSteps() {
+        val route = buildTestDirectionsRoute()
+        val converter = ReplayRouteLocationConverter(route, SPEED_KM_PER_HOUR, 1)
+
+        val firstLocation = converter.toLocationSequence().first()
+        val firstStepLocations = converter.toLocations()
+
+        assertEquals(firstStepLocations.first().position, firstLocation.position)
+    }
+
+    companion object {
+        private const val SPEED_KM_PER_HOUR = 100
+        private const val INTERVAL_METERS = SPEED_KM_PER_HOUR * 1000.0 / 3600
+    }
+}
@@ -0,0 +1,85 @@
+package org.maplibre.navigation.core.location.replay
+
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.test.TestScope
+import kotlinx.coroutines.test.advanceTimeBy
+import kotlinx.coroutines.test.runCurrent
+import org.maplibre.navigation.core.BaseTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNotEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
+
+@OptIn(ExperimentalCoroutinesApi::class)
+class ReplayRouteLocationEngineTest : BaseTest() {
+
+    @Test
+    fun assign_withDefaultPlaybackRate_replaysInRealTime() {
+        val testScope = TestScope()
+        val engine = ReplayRouteLocationEngine(testScope)
+
+        engine.assign(buildTestDirectionsRoute())
+        testScope.runCurrent()
+        val firstLocation = engine.lastLocation
+        testScope.advanceTimeBy(101)
+
+        assertNotNull(firstLocation)
+        assertEquals(firstLocation, engine.lastLocation)
+        engine.onStop()
+    }
+
+    @Test
+    fun updatePlaybackRate_replaysFaster() {
+        val testScope = TestScope()
+        val engine = ReplayRouteLocationEngine(testScope)
+        engine.updatePlaybackRate(10.0)
+
+        engine.assign(buildTestDirectionsRoute())
+        testScope.runCurrent()
+        val firstLocation = engine.lastLocation
+        // One second between the locations, replayed in 100 milliseconds
+        testScope.advanceTimeBy(101)
+
+        assertNotNull(firstLocation)
+        assertNotEquals(firstLocation, engine.lastLocation)
+        engine.onStop()
+    }
+
+    @Test
+    fun updatePlaybackRate_preparesFollowingStepInTime() {
+        val route = buildTestDirectionsRoute()
+        val converter = ReplayRouteLocationConverter(route, DEFAULT_SPEED, DEFAULT_DELAY)
+        val firstStepLocationCount = converter.toLocations().size
+        val secondStepLocations = converter.toLocations()
+        val testScope = TestScope()
+        val engine = ReplayRouteLocationEngine(testScope)
+        engine.updatePlaybackRate(10.0)
+
+        engine.assign(route)
+        testScope.runCurrent()
+        // Past the end of the first step, which would still wait for the next step in real time
+        testScope.advanceTimeBy(firstStepLocationCount * 100L + 150)
+
+        val lastLocation = assertNotNull(engine.lastLocation)
+        assertTrue(
+            secondStepLocations.any { location ->
+                location.latitude == lastLocation.latitude && location.longitude == lastLocation.longitude
+            }
+        )
+        engine.onStop()
+    }
+
+    @Test
+    fun updatePlaybackRate_rejectsNonPositiveRates() {
+        val engine = ReplayRouteLocationEngine(TestScope())
+
+        assertFailsWith<IllegalArgumentException> { engine.updatePlaybackRate(-1.0) }
+    }
+
+    companion object {
+        private const val DEFAULT_SPEED = 45
+        private const val DEFAULT_DELAY = 1
+    }
+}
@@ -0,0 +1,119 @@
+package org.maplibre.navigation.core.location.trace
+
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.test.StandardTestDispatcher
+import kotlinx.coroutines.test.runTest
+import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.location.engine.LocationEngine
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class TraceLocationEngineTest {
+
+    @Test
+    fun parseGpx_readsTrackPointsAcrossLines() {
+        val gpx = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <gpx version="1.1"><metadata><time>2020-01-01T00:00:00Z</time></metadata>
+            <trk><trkseg>
+            <trkpt lat="52.5200" lon="13.4050"><ele>34.5</ele><time>2024-05-01T10:00:00Z</time></trkpt><trkpt
+                lat="52.5201"
+                lon="13.4052">
+              <time>2024-05-01T10:00:01.500Z</time>
+              <speed>12.5</speed>
+            </trkpt>
+            <trkpt lat="52.5202" lon="13.4054"/>
+            </trkseg></trk></gpx>
+        """.trimIndent()
+
+        val locations = TraceFormat.GPX.parse(gpx.lineSequence()).toList()
+
+        assertEquals(3, locations.size)
+        assertEquals(52.52, locations[0].latitude)
+        assertEquals(13.405, locations[0].longitude)
+        assertEquals(34.5, locations[0].altitude)
+        assertEquals(1_714_557_600_000L, locations[0].timeMilliseconds)
+        assertEquals(1_714_557_601_500L, locations[1].timeMilliseconds)
+        assertEquals(12.5f, locations[1].speedMetersPerSeconds)
+        assertNull(locations[2].timeMilliseconds)
+    }
+
+    @Test
+    fun parseNmea_readsRmcWithAltitudeOfGga() {
+        val nmea = listOf(
+            withChecksum("GPGGA,100000.00,5231.200,N,01324.300,E,1,08,0.9,34.5,M,46.9,M,,"),
+            withChecksum("GPRMC,100000.00,A,5231.200,N,01324.300,E,10.0,90.0,010524,,,A"),
+            withChecksum("GPRMC,100001.00,V,5231.200,N,01324.300,E,10.0,90.0,010524,,,A"),
+            "\$GPRMC,100002.00,A,5231.200,N,01324.300,E,10.0,90.0,010524,,,A*00",
+            withChecksum("GPRMC,100003.50,A,3351.000,S,15112.000,W,0.0,,010524,,,A"),
+            withChecksum("GPGGA,100004.00,5231.200,N,01324.300,E,1,08,0.9,34.5,M,,M,,"),
+            withChecksum("GPRMC,100004.00,A,5231.200,N,01324.300,E,10.0,90.0,010524,,,A")
+        )
+
+        val locations = TraceFormat.NMEA.parse(nmea.asSequence()).toList()
+
+        assertEquals(3, locations.size)
+        assertEquals(52.52, locations[0].latitude, 0.000001)
+        assertEquals(13.405, locations[0].longitude, 0.000001)
+        assertEquals(34.5, locations[0].mslAltitude)
+        assertEquals(81.4, locations[0].altitude!!, 0.000001)
+        assertEquals(5.14444f, locations[0].speedMetersPerSeconds!!, 0.0001f)
+        assertEquals(90f, locations[0].bearing)
+        assertEquals(1_714_557_600_000L, locations[0].timeMilliseconds)
+        assertEquals(-33.85, locations[1].latitude, 0.000001)
+        assertEquals(-151.2, locations[1].longitude, 0.000001)
+        assertNull(locations[1].altitude)
+        assertNull(locations[1].mslAltitude)
+        assertEquals(1_714_557_603_500L, locations[1].timeMilliseconds)
+        // Without geoid separation, the altitude above the ellipsoid is unknown
+        assertNull(locations[2].altitude)
+        assertEquals(34.5, locations[2].mslAltitude)
+    }
+
+    @Test
+    fun jsonLines_roundTripsLocations() {
+        val location = Location(
+            latitude = 52.52,
+            longitude = 13.405,
+            accuracyMeters = 4f,
+            altitude = 81.4,
+            altitudeAccuracyMeters = 3f,
+            mslAltitude = 34.5,
+            mslAltitudeAccuracyMeters = 3.5f,
+            speedMetersPerSeconds = 13.9f,
+            bearing = 92.5f,
+            timeMilliseconds = 1_700_000_000_000L,
+            provider = "test"
+        )
+        val lines = sequenceOf(LocationJsonLines.encode(location), "", "no json", LocationJsonLines.encode(location))
+
+        val locations = TraceFormat.JSON_LINES.parse(lines).toList()
+
+        assertEquals(listOf(location, location), locations)
+    }
+
+    @Test
+    fun listenToLocation_replaysWithPlaybackRate() = runTest {
+        val locations = (0 until 3).map { index ->
+            Location(latitude = 52.52, longitude = 13.405, timeMilliseconds = index * 1_000L)
+        }
+        val engine = TraceLocationEngine(
+            source = TraceSource.fromText(locations.joinToString("\n", transform = LocationJsonLines::encode)),
+            format = TraceFormat.JSON_LINES,
+            playbackRate = 4.0,
+            dispatcher = StandardTestDispatcher(testScheduler)
+        )
+
+        val replayedLocations = engine.listenToLocation(LocationEngine.Request()).toList()
+
+        assertEquals(locations, replayedLocations)
+        assertEquals(500L, testScheduler.currentTime)
+        assertEquals(locations.last(), engine.getLastLocation())
+    }
+
+    private fun withChecksum(sentence: String): String {
+        val checksum = sentence.fold(0) { checksum, char -> checksum xor char.code }
+        return "\$$sentence*${checksum.toString(16).uppercase().padStart(2, '0')}"
+    }
+}
@@ -0,0 +1,60 @@
+package org.maplibre.navigation.core.metrics
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.microseconds
+import kotlin.time.Duration.Companion.milliseconds
+
+class StageHistogramTest {
+
+    @Test
+    fun percentile_withoutRecordedDurations_isZero() {
+        val histogram = StageHistogramRecorder().snapshot()
+
+        assertEquals(0, histogram.count)
+        assertEquals(Duration.ZERO, histogram.p50)
+        assertEquals(Duration.ZERO, histogram.p99)
+    }
+
+    @Test
+    fun percentile_isWithinBucketPrecision() {
+        val recorder = StageHistogramRecorder()
+        repeat(90) { recorder.record(100.microseconds.inWholeNanoseconds) }
+        repeat(10) { recorder.record(10.milliseconds.inWholeNanoseconds) }
+
+        val histogram = recorder.snapshot()
+
+        assertEquals(100, histogram.count)
+        assertEquals(10.milliseconds, histogram.max)
+        assertInBucket(100.microseconds, histogram.p50)
+        assertInBucket(10.milliseconds, histogram.p95)
+        assertEquals(10.milliseconds, histogram.p99)
+    }
+
+    @Test
+    fun snapshot_isNotChangedByLaterRecords() {
+        val recorder = StageHistogramRecorder()
+        recorder.record(1_000L)
+        val histogram = recorder.snapshot()
+
+        recorder.record(1_000_000L)
+
+        assertEquals(1, histogram.count)
+        assertEquals(1.microseconds, histogram.max)
+    }
+
+    @Test
+    fun bucketIndex_isClampedToBucketRange() {
+        assertEquals(0, StageHistogram.bucketIndex(0L))
+        assertEquals(0, StageHistogram.bucketIndex(999L))
+        assertEquals(StageHistogram.BUCKET_COUNT - 1, StageHistogram.bucketIndex(Long.MAX_VALUE))
+        assertEquals(Duration.INFINITE, StageHistogram.bucketUpperBound(StageHistogram.BUCKET_COUNT - 1))
+    }
+
+    private fun assertInBucket(expected: Duration, actual: Duration) {
+        assertTrue(actual >= expected, "$actual should be at least $expected")
+        assertTrue(actual <= expected * 1.19, "$actual should be at most 19% above $expected")
+    }
+}
@@ -0,0 +1,66 @@
+package org.maplibre.navigation.core.milestone
+
+import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
+import org.maplibre.navigation.core.utils.RouteUtils
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class InstructionCursorTest : BaseTest() {
+
+    @Test
+    fun find_matchesRouteUtilsWhileTravellingAlongSteps() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+        val routeUtils = RouteUtils()
+        val bannerCursor = InstructionCursor()
+        val voiceCursor = InstructionCursor()
+
+        route.legs.forEachIndexed { legIndex, leg ->
+            leg.steps.forEachIndexed { stepIndex, step ->
+                var stepDistanceRemaining = step.distance
+                while (stepDistanceRemaining >= 0.0) {
+                    assertEquals(
+                        routeUtils.findCurrentBannerInstructions(step, stepDistanceRemaining),
+                        bannerCursor.find(index.bannerInstructions(legIndex, stepIndex)!!, stepDistanceRemaining)
+                    )
+                    assertEquals(
+                        routeUtils.findCurrentVoiceInstructions(step, stepDistanceRemaining),
+                        voiceCursor.find(index.voiceInstructions(legIndex, stepIndex)!!, stepDistanceRemaining)
+                    )
+                    stepDistanceRemaining -= 10.0
+                }
+            }
+        }
+    }
+
+    @Test
+    fun find_matchesRouteUtilsWhenDistanceRemainingIncreases() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+        val routeUtils = RouteUtils()
+        val cursor = InstructionCursor()
+        val step = route.legs[0].steps[1]
+        val sortedInstructions = index.voiceInstructions(0, 1)!!
+
+        for (stepDistanceRemaining in listOf(0.0, step.distance, 10.0, step.distance / 2, step.distance + 100.0)) {
+            assertEquals(
+                routeUtils.findCurrentVoiceInstructions(step, stepDistanceRemaining),
+                cursor.find(sortedInstructions, stepDistanceRemaining)
+            )
+        }
+    }
+
+    @Test
+    fun find_withoutInstructionsReturnsNull() {
+        val route = buildTestDirectionsRoute()
+        val index = RouteGeometryIndex(route)
+        val lastLegIndex = route.legs.size - 1
+        val arrivalStepIndex = route.legs[lastLegIndex].steps.size - 1
+        val sortedInstructions = index.bannerInstructions(lastLegIndex, arrivalStepIndex)!!
+
+        assertEquals(0, sortedInstructions.size)
+        assertNull(InstructionCursor().find(sortedInstructions, 0.0))
+    }
+}
@@ -13,8 +13,12 @@ import org.maplibre.navigation.core.milestone.Trigger.none
 import org.maplibre.navigation.core.models.DirectionsResponse
 import org.maplibre.navigation.core.routeprogress.RouteProgress
 import kotlin.test.Test
-import kotlin.test.assertTrue
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
 import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
 
 class TriggerTest : BaseTest() {
 
@@ -309,6 +313,68 @@ class TriggerTest : BaseTest() {
         assertTrue(result)
     }
 
+    @Test
+    @Throws(Exception::class)
+    fun compiledStatements_matchSparseArrayEvaluation() {
+        val routeProgress = buildTriggerRouteProgress()
+        val sparseArray = TriggerProperty.getSparseArray(routeProgress, routeProgress)
+        val snapshot = TriggerSnapshot().apply { update(routeProgress, routeProgress) }
+        val statements = listOf(
+            gt(TriggerProperty.STEP_DISTANCE_TOTAL_METERS, 100.0),
+            gte(TriggerProperty.STEP_DURATION_REMAINING_SECONDS, 10),
+            lt(TriggerProperty.STEP_DISTANCE_REMAINING_METERS, 100.0),
+            lte(TriggerProperty.NEXT_STEP_DISTANCE_METERS, 500.0),
+            eq(TriggerProperty.STEP_INDEX, 1),
+            eq(TriggerProperty.STEP_INDEX, 1.0),
+            neq(TriggerProperty.STEP_INDEX, 1.0),
+            eq(TriggerProperty.NEW_STEP, TriggerProperty.FALSE_VALUE),
+            eq(TriggerProperty.FIRST_STEP, TriggerProperty.TRUE_VALUE),
+            gt(TriggerProperty.LAST_STEP, TriggerProperty.TRUE_VALUE),
+            eq(TriggerProperty.FIRST_LEG, TriggerProperty.TRUE_VALUE),
+            eq(TriggerProperty.LAST_LEG, TriggerProperty.TRUE_VALUE),
+            all(
+                gt(TriggerProperty.STEP_DISTANCE_TOTAL_METERS, 100.0),
+                none(eq(TriggerProperty.STEP_INDEX, 1))
+            ),
+            any(
+                lt(TriggerProperty.STEP_DISTANCE_TOTAL_METERS, 100.0),
+                eq(TriggerProperty.STEP_INDEX, 1)
+            )
+        )
+
+        for (statement in statements) {
+            val compiled = assertNotNull(statement.compile())
+            assertEquals(statement.isOccurring(sparseArray), compiled.isOccurring(snapshot))
+        }
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun compiledStatement_missingPropertyThrows() {
+        val routeProgress = buildTriggerRouteProgress()
+        val snapshot = TriggerSnapshot().apply { update(null, routeProgress) }
+        val compiled = assertNotNull(eq(TriggerProperty.NEW_STEP, TriggerProperty.TRUE_VALUE).compile())
+
+        assertFailsWith<NoSuchElementException> { compiled.isOccurring(snapshot) }
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun customStatement_isNotCompiledButEvaluated() {
+        val routeProgress = buildTriggerRouteProgress()
+        val customStatement = object : Trigger.Statement() {
+            override fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean {
+                return statementObjects.getValue(TriggerProperty.STEP_INDEX)[0] == 1
+            }
+        }
+        val milestone = StepMilestone(identifier = 42, trigger = all(customStatement))
+
+        val result = milestone.isOccurring(routeProgress, routeProgress)
+
+        assertNull(all(customStatement).compile())
+        assertTrue(result)
+    }
+
     @Throws(Exception::class)
     private fun buildTriggerRouteProgress(): RouteProgress {
         val body = loadJsonFixture(ROUTE_FIXTURE)
@@ -0,0 +1,72 @@
+package org.maplibre.navigation.core.models
+
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.encodeToString
+import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.json
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+class DirectionsResponseTest : BaseTest() {
+
+    @Test
+    fun fromJsonLazily_matchesFromJson() {
+        listOf(
+            "directions_v5_precision_6.json",
+            "directions_two_leg_route.json",
+            "directions_three_leg_single_step_route.json",
+            "directions_distance_congestion_annotation.json",
+        ).forEach { fixtureName ->
+            val jsonString = loadJsonFixture(fixtureName)
+
+            assertEquals(DirectionsResponse.fromJson(jsonString), DirectionsResponse.fromJsonLazily(jsonString))
+        }
+    }
+
+    @Test
+    fun fromJsonLazily_decodesAlternativesOnAccess() {
+        val route = DirectionsResponse.fromJson(loadJsonFixture("directions_two_leg_route.json")).routes[0]
+        val jsonString = """
+            {
+              "code": "Ok",
+              "message": "Escaped \" } ] characters",
+              "routes": [ ${route.toJson()}, {} ]
+            }
+        """.trimIndent()
+
+        val response = DirectionsResponse.fromJsonLazily(jsonString)
+
+        assertEquals("Ok", response.code)
+        assertEquals("Escaped \" } ] characters", response.message)
+        assertEquals(2, response.routes.size)
+        assertEquals(route, response.routes[0])
+        assertFailsWith<SerializationException> { response.routes[1] }
+    }
+
+    @Test
+    fun fromJsonLazily_decodesFollowingLegsOnAccess() {
+        val route = DirectionsResponse.fromJson(loadJsonFixture("directions_two_leg_route.json")).routes[0]
+        val routeJson = route.copy(legs = emptyList()).toJson()
+        val jsonString = """
+            {
+              "code": "Ok",
+              "routes": [ ${routeJson.replace("\"legs\":[]", "\"legs\":[${json.encodeToString(route.legs[0])},{\"steps\":[]}]")} ]
+            }
+        """.trimIndent()
+
+        val response = DirectionsResponse.fromJsonLazily(jsonString)
+        val legs = response.routes[0].legs
+
+        assertEquals(2, legs.size)
+        assertEquals(route.legs[0], legs[0])
+        assertFailsWith<SerializationException> { legs[1] }
+    }
+
+    @Test
+    fun fromJsonLazily_rejectsMalformedJson() {
+        assertFailsWith<SerializationException> {
+            DirectionsResponse.fromJsonLazily("""{"code": "Ok", "routes": [{"legs": [}""")
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.maplibre.navigation.core.models
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class LazyDecodedListTest {
+
+    @Test
+    fun decode_decodesDeferredElementsFromTheirOwnJson() {
+        val source = "[1,22,333]"
+        val decodedSources = mutableListOf<String>()
+
+        val list = LazyDecodedList.decode(source, listOf(1..1, 3..4, 6..8), eagerCount = 1) { json, range ->
+            decodedSources += json
+            json.substring(range.first, range.last + 1).toInt()
+        }
+
+        assertEquals(listOf(source), decodedSources)
+        assertEquals(333, list[2])
+        assertEquals(listOf(1, 22, 333), list)
+        assertEquals(listOf(source, "333", "22"), decodedSources)
+    }
+}
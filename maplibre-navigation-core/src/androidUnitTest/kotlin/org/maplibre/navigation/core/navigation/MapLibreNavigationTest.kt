@@ -28,6 +28,7 @@ import kotlin.test.assertNotNull
 import kotlin.test.assertEquals
 import kotlin.test.assertFailsWith
 import kotlin.test.assertNotSame
+import kotlin.test.assertSame
 
 @OptIn(ExperimentalCoroutinesApi::class, DelicateCoroutinesApi::class)
 class MapLibreNavigationTest : BaseTest() {
@@ -281,6 +282,32 @@ class MapLibreNavigationTest : BaseTest() {
         }
     }
 
+    @Test
+    @Throws(Exception::class)
+    fun startNavigation_buildsRouteGeometryIndex() {
+        val engineMock = mockk<MapLibreNavigationEngine>(relaxed = true)
+        val navigation = buildMapLibreNavigationWithEngine(engineMock)
+        val route = buildTestDirectionsRoute()
+
+        navigation.startNavigation(route)
+
+        assertSame(route, navigation.routeGeometryIndex?.directionsRoute)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun startNavigation_sameRouteReusesRouteGeometryIndex() {
+        val engineMock = mockk<MapLibreNavigationEngine>(relaxed = true)
+        val navigation = buildMapLibreNavigationWithEngine(engineMock)
+        val route = buildTestDirectionsRoute()
+
+        navigation.startNavigation(route)
+        val firstIndex = navigation.routeGeometryIndex
+        navigation.startNavigation(route)
+
+        assertSame(firstIndex, navigation.routeGeometryIndex)
+    }
+
     @Test
     @Throws(Exception::class)
     fun setSnapEngine_doesReplaceDefaultEngine() {
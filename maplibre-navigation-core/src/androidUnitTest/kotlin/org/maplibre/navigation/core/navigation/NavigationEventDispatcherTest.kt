@@ -2,26 +2,42 @@ package org.maplibre.navigation.core.navigation
 
 import io.mockk.mockk
 import io.mockk.verify
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.test.UnconfinedTestDispatcher
+import kotlinx.coroutines.test.runTest
 import org.maplibre.navigation.core.BaseTest
 import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.metrics.NavigationMetrics
+import org.maplibre.navigation.core.metrics.NavigationMetricsListener
 import org.maplibre.navigation.core.milestone.Milestone
+import org.maplibre.navigation.core.milestone.MilestoneEvent
 import org.maplibre.navigation.core.milestone.MilestoneEventListener
 import org.maplibre.navigation.core.models.DirectionsResponse
 import org.maplibre.navigation.core.models.DirectionsRoute
+import org.maplibre.navigation.core.offroute.OffRouteEvent
 import org.maplibre.navigation.core.offroute.OffRouteListener
 import org.maplibre.navigation.core.route.FasterRouteListener
 import org.maplibre.navigation.core.routeprogress.ProgressChangeListener
 import org.maplibre.navigation.core.routeprogress.RouteProgress
+import org.maplibre.navigation.core.routeprogress.RouteProgressEvent
 import kotlin.test.BeforeTest
 import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
 import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
 
+@OptIn(ExperimentalCoroutinesApi::class)
 class NavigationEventDispatcherTest : BaseTest() {
     private var milestoneEventListener: MilestoneEventListener = mockk(relaxed = true)
     private var progressChangeListener: ProgressChangeListener = mockk(relaxed = true)
     private var offRouteListener: OffRouteListener = mockk(relaxed = true)
     private var navigationEventListener: NavigationEventListener = mockk(relaxed = true)
     private var fasterRouteListener: FasterRouteListener = mockk(relaxed = true)
+    private var navigationMetricsListener: NavigationMetricsListener = mockk(relaxed = true)
     private var location: Location? = mockk(relaxed = true)
     private var milestone: Milestone? = mockk(relaxed = true)
     private var navigationEventDispatcher: NavigationEventDispatcher? = null
@@ -374,6 +390,86 @@ class NavigationEventDispatcherTest : BaseTest() {
         }
     }
 
+    @Test
+    @Throws(Exception::class)
+    fun addNavigationMetricsListener_didAddListener() {
+        val metrics = mockk<NavigationMetrics>()
+        assertFalse(navigationEventDispatcher!!.hasNavigationMetricsListeners)
+
+        navigation!!.addNavigationMetricsListener(navigationMetricsListener)
+        navigationEventDispatcher!!.onNavigationMetrics(metrics)
+
+        assertTrue(navigationEventDispatcher!!.hasNavigationMetricsListeners)
+        verify {
+            navigationMetricsListener.onLocationProcessed(metrics)
+        }
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun removeNavigationMetricsListener_nullRemovesAllListeners() {
+        val metrics = mockk<NavigationMetrics>()
+        navigation!!.addNavigationMetricsListener(navigationMetricsListener)
+        navigation!!.addNavigationMetricsListener(mockk(relaxed = true))
+
+        navigation!!.removeNavigationMetricsListener(null)
+        navigationEventDispatcher!!.onNavigationMetrics(metrics)
+
+        assertFalse(navigationEventDispatcher!!.hasNavigationMetricsListeners)
+        verify(exactly = 0) {
+            navigationMetricsListener.onLocationProcessed(metrics)
+        }
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun onProgressChange_updatesProgressFlow() {
+        assertNull(navigation!!.progress.value)
+
+        navigationEventDispatcher!!.onProgressChange(location!!, routeProgress!!)
+
+        assertEquals(RouteProgressEvent(location!!, routeProgress!!), navigation!!.progress.value)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun onNavigationEvent_stoppedResetsProgressFlow() {
+        navigationEventDispatcher!!.onProgressChange(location!!, routeProgress!!)
+
+        navigationEventDispatcher!!.onNavigationEvent(false)
+
+        assertNull(navigation!!.progress.value)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun onMilestoneEvent_emitsToCollectingFlows() = runTest(UnconfinedTestDispatcher()) {
+        val milestoneEvents = mutableListOf<MilestoneEvent>()
+        val collectJob = launch { navigation!!.milestoneEvents.toList(milestoneEvents) }
+
+        navigationEventDispatcher!!.onMilestoneEvent(routeProgress!!, "instruction", milestone!!)
+        collectJob.cancel()
+        navigationEventDispatcher!!.onMilestoneEvent(routeProgress!!, "ignored", milestone!!)
+
+        assertEquals(listOf(MilestoneEvent(routeProgress!!, "instruction", milestone!!)), milestoneEvents)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun onUserOffRoute_dropsOldestEventsForSlowCollectors() = runTest {
+        val dispatcher = NavigationEventDispatcher(eventBufferCapacity = 2)
+        val offRouteEvents = mutableListOf<OffRouteEvent>()
+        val locations = List(4) { mockk<Location>(relaxed = true) }
+        val collectJob = launch { dispatcher.offRouteEvents.toList(offRouteEvents) }
+        testScheduler.runCurrent()
+
+        locations.forEach(dispatcher::onUserOffRoute)
+        testScheduler.runCurrent()
+        collectJob.cancel()
+
+        assertEquals(locations.takeLast(2).map(::OffRouteEvent), offRouteEvents)
+    }
+
 //    // TODO this test fails, we need to investigate why it fails.
 //    @Ignore
 //    fun onArrivalDuringLastLeg_offRouteListenerIsRemoved() {
@@ -7,6 +7,7 @@ import org.maplibre.navigation.core.BaseTest
 import org.maplibre.navigation.core.milestone.StepMilestone
 import org.maplibre.navigation.core.milestone.Trigger.eq
 import org.maplibre.navigation.core.milestone.TriggerProperty
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
 import org.maplibre.navigation.core.models.DirectionsResponse
 import org.maplibre.navigation.core.models.DirectionsRoute
 import org.maplibre.navigation.core.models.LegAnnotation
@@ -16,8 +17,10 @@ import org.maplibre.navigation.core.models.StepIntersection
 import org.maplibre.navigation.core.navigation.NavigationHelper.checkMilestones
 import org.maplibre.navigation.core.navigation.NavigationHelper.createCurrentAnnotation
 import org.maplibre.navigation.core.navigation.NavigationHelper.createDistancesToIntersections
+import org.maplibre.navigation.core.navigation.NavigationHelper.createIntersectionDistances
 import org.maplibre.navigation.core.navigation.NavigationHelper.createIntersectionsList
 import org.maplibre.navigation.core.navigation.NavigationHelper.findCurrentIntersection
+import org.maplibre.navigation.core.navigation.NavigationHelper.findCurrentIntersectionIndex
 import org.maplibre.navigation.core.navigation.NavigationHelper.findUpcomingIntersection
 import org.maplibre.navigation.core.navigation.NavigationHelper.increaseIndex
 import org.maplibre.navigation.core.navigation.NavigationHelper.isUserOffRoute
@@ -28,14 +31,19 @@ import org.maplibre.navigation.core.routeprogress.RouteLegProgress
 import org.maplibre.navigation.core.routeprogress.RouteProgress
 import org.maplibre.navigation.core.routeprogress.RouteStepProgress
 import org.maplibre.navigation.core.utils.Constants
+import org.maplibre.spatialk.geojson.LineString
 import org.maplibre.spatialk.geojson.Point
 import org.maplibre.spatialk.geojson.Position
 import org.maplibre.spatialk.polyline.PolylineEncoding
+import org.maplibre.spatialk.turf.measurement.length
+import org.maplibre.spatialk.turf.misc.slice
+import org.maplibre.spatialk.units.extensions.inMeters
 import java.io.IOException
 import kotlin.test.Test
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 import kotlin.test.assertNotSame
+import kotlin.test.assertSame
 import kotlin.test.assertTrue
 
 class NavigationHelperTest : BaseTest() {
@@ -332,6 +340,73 @@ class NavigationHelperTest : BaseTest() {
         assertTrue(intersectionDistances.isEmpty())
     }
 
+    @Test
+    @Throws(Exception::class)
+    fun createIntersectionDistances_matchesSlicedStepLength() {
+        val route = buildTestDirectionsRoute()
+
+        for (leg in route.legs) {
+            for (step in leg.steps) {
+                val stepPoints = PolylineEncoding.decode(step.geometry, Constants.PRECISION_6)
+                val intersections = step.intersections ?: continue
+                if (stepPoints.size < 2) continue
+
+                val intersectionDistances = createIntersectionDistances(stepPoints, intersections)
+
+                assertEquals(intersections.size, intersectionDistances.size)
+                intersections.forEachIndexed { index, intersection ->
+                    val expected = if (stepPoints.first() == intersection.location) {
+                        0.0
+                    } else {
+                        LineString(stepPoints).slice(stepPoints.first(), intersection.location)
+                            .length().inMeters
+                    }
+                    assertEquals(expected, intersectionDistances[index], 1E-6)
+                }
+            }
+        }
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun findCurrentIntersectionIndex_matchesFindCurrentIntersection() {
+        val route = buildTestDirectionsRoute()
+
+        for (leg in route.legs) {
+            leg.steps.forEachIndexed { stepIndex, step ->
+                val stepPoints = PolylineEncoding.decode(step.geometry, Constants.PRECISION_6)
+                val intersections = createIntersectionsList(step, leg.steps.getOrNull(stepIndex + 1))
+                val intersectionDistances = createIntersectionDistances(stepPoints, intersections)
+                if (intersectionDistances.isEmpty()) return@forEachIndexed
+                val measuredIntersections = createDistancesToIntersections(stepPoints, intersections)
+
+                var stepDistanceTraveled = 0.0
+                while (stepDistanceTraveled <= step.distance + 10.0) {
+                    val expected = findCurrentIntersection(
+                        intersections, measuredIntersections, stepDistanceTraveled
+                    )
+                    val currentIntersectionIndex = findCurrentIntersectionIndex(
+                        intersectionDistances, stepDistanceTraveled
+                    )
+                    assertEquals(expected, intersections[currentIntersectionIndex])
+                    stepDistanceTraveled += 5.0
+                }
+            }
+        }
+    }
+
+    @Test
+    fun findCurrentIntersectionIndex_exactIntersectionDistanceReturnsFirstIntersection() {
+        val intersectionDistances = doubleArrayOf(0.0, 10.0, 20.0, 30.0)
+
+        assertEquals(0, findCurrentIntersectionIndex(intersectionDistances, 0.0))
+        assertEquals(0, findCurrentIntersectionIndex(intersectionDistances, 5.0))
+        assertEquals(0, findCurrentIntersectionIndex(intersectionDistances, 20.0))
+        assertEquals(2, findCurrentIntersectionIndex(intersectionDistances, 25.0))
+        assertEquals(3, findCurrentIntersectionIndex(intersectionDistances, 35.0))
+        assertEquals(0, findCurrentIntersectionIndex(DoubleArray(0), 35.0))
+    }
+
     @Test
     @Throws(Exception::class)
     fun findCurrentIntersection_beginningOfStepReturnsFirstIntersection() {
@@ -508,6 +583,49 @@ class NavigationHelperTest : BaseTest() {
         assertEquals(11, newLegAnnotation!!.index)
     }
 
+    @Test
+    @Throws(Exception::class)
+    fun createCurrentAnnotation_annotationDistanceSumsMatchLinearSearch() {
+        val routeProgress = buildDistanceCongestionAnnotationRouteProgress(0.0, 0.0, 0.0, 0, 0)
+        val leg = routeProgress.currentLeg
+        val annotationDistanceSums = RouteGeometryIndex(routeProgress.directionsRoute)
+            .annotationDistanceSums(0)!!
+        var expectedAnnotation: CurrentLegAnnotation? = null
+        var currentAnnotation: CurrentLegAnnotation? = null
+
+        var legDistanceRemaining = leg.distance
+        while (legDistanceRemaining >= 0.0) {
+            expectedAnnotation = createCurrentAnnotation(expectedAnnotation, leg, legDistanceRemaining)
+            currentAnnotation = createCurrentAnnotation(
+                currentAnnotation, leg, legDistanceRemaining, annotationDistanceSums
+            )
+
+            assertEquals(expectedAnnotation!!.index, currentAnnotation!!.index)
+            assertEquals(expectedAnnotation.distanceToAnnotation, currentAnnotation.distanceToAnnotation, 1E-6)
+            assertEquals(expectedAnnotation.congestion, currentAnnotation.congestion)
+            legDistanceRemaining -= 7.5
+        }
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun createCurrentAnnotation_unchangedAnnotationIsReused() {
+        val routeProgress = buildDistanceCongestionAnnotationRouteProgress(0.0, 0.0, 0.0, 0, 0)
+        val leg = routeProgress.currentLeg
+        val annotationDistanceSums = RouteGeometryIndex(routeProgress.directionsRoute)
+            .annotationDistanceSums(0)!!
+        val legDistanceRemaining = leg.distance / 2
+
+        val currentAnnotation = createCurrentAnnotation(
+            null, leg, legDistanceRemaining, annotationDistanceSums
+        )
+        val newAnnotation = createCurrentAnnotation(
+            currentAnnotation, leg, legDistanceRemaining - 0.1, annotationDistanceSums
+        )
+
+        assertSame(currentAnnotation, newAnnotation)
+    }
+
     @Throws(Exception::class)
     private fun buildMultiLegRouteProgress(
         stepDistanceRemaining: Double, legDistanceRemaining: Double,
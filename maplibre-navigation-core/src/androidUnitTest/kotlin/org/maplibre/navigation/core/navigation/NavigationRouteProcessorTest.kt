@@ -13,6 +13,7 @@ import kotlin.test.assertTrue
 import kotlin.test.assertNotNull
 import kotlin.test.assertEquals
 import kotlin.test.assertNotEquals
+import kotlin.test.assertSame
 
 class NavigationRouteProcessorTest : BaseTest() {
     private var routeProcessor: NavigationRouteProcessor? = null
@@ -260,6 +261,26 @@ class NavigationRouteProcessorTest : BaseTest() {
         assertTrue(firstProgressIndex != secondProgressIndex)
     }
 
+    @Test
+    @Throws(Exception::class)
+    fun onLocationOnRoute_routeProjectionIsShared() {
+        val firstProgress =
+            routeProcessor!!.buildNewRouteProgress(navigation!!, mockk(relaxed = true))
+        val coordinates = createCoordinatesFromCurrentStep(firstProgress)
+        val rawLocation = buildDefaultLocationUpdate(
+            coordinates[1].longitude,
+            coordinates[1].latitude
+        )
+
+        val progress = routeProcessor!!.buildNewRouteProgress(navigation!!, rawLocation)
+
+        val routeProjection = progress.routeProjection
+        assertNotNull(routeProjection)
+        assertTrue(routeProjection.isProjectionOf(rawLocation.position))
+        assertEquals(0.0, routeProjection.distanceFromLine, LARGE_DELTA)
+        assertSame(navigation!!.routeGeometryIndex, progress.routeGeometryIndex)
+    }
+
     @Test
     @Throws(Exception::class)
     fun setIndex_setsTargetIndices() {
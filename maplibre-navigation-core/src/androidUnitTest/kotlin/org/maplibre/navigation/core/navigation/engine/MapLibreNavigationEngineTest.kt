@@ -3,10 +3,13 @@ package org.maplibre.navigation.core.navigation.engine
 import io.mockk.coEvery
 import io.mockk.every
 import io.mockk.mockk
+import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.DelicateCoroutinesApi
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.ExperimentalCoroutinesApi
 import kotlinx.coroutines.cancel
+import kotlinx.coroutines.flow.emptyFlow
+import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.test.*
 import org.junit.After
 import org.junit.Before
@@ -14,14 +17,22 @@ import org.maplibre.navigation.core.BaseTest
 import org.maplibre.navigation.core.location.Location
 import org.maplibre.navigation.core.location.LocationValidator
 import org.maplibre.navigation.core.location.engine.LocationEngine
+import org.maplibre.navigation.core.metrics.NavigationMetrics
+import org.maplibre.navigation.core.metrics.NavigationStage
 import org.maplibre.navigation.core.navigation.MapLibreNavigation
 import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions
+import org.maplibre.navigation.core.recording.NavigationRecord
+import org.maplibre.navigation.core.recording.NavigationRecordReader
+import org.maplibre.navigation.core.recording.NavigationRecordSink
+import org.maplibre.navigation.core.recording.NavigationSessionRecorder
 import org.maplibre.navigation.core.routeprogress.ProgressChangeListener
 import org.maplibre.navigation.core.routeprogress.RouteProgress
 import org.maplibre.navigation.core.utils.RouteUtils
 import kotlin.test.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertIs
 import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
 
 @OptIn(ExperimentalCoroutinesApi::class, DelicateCoroutinesApi::class)
 class MapLibreNavigationEngineTest : BaseTest() {
@@ -107,4 +118,282 @@ class MapLibreNavigationEngineTest : BaseTest() {
         assertEquals(initialStepIndex, resultProgress?.stepIndex, "Step index should be preserved after location update")
         assertEquals(initialLegIndex, resultProgress?.legIndex, "Leg index should be preserved after location update")
     }
-}
\ No newline at end of file
+
+    @Test
+    @Throws(Exception::class)
+    fun processLocationAndIndexUpdate_withMetricsListener_reportsStageDurations() = testScope.runTest {
+        val location = buildDefaultLocationUpdate(-77.034043, 38.900205)
+        every { mockLocationValidator.isValidUpdate(any()) } returns true
+
+        val navigation = buildNavigationWithoutEngine(MapLibreNavigationOptions())
+        val engine = buildEngine(navigation)
+        val reportedMetrics = mutableListOf<NavigationMetrics>()
+        navigation.addNavigationMetricsListener { metrics -> reportedMetrics.add(metrics) }
+        navigation.startNavigation(buildTestDirectionsRoute())
+
+        engine.processLocationAndIndexUpdate(location)
+        testScheduler.advanceUntilIdle()
+
+        assertEquals(1, reportedMetrics.size)
+        val metrics = reportedMetrics.single()
+        NavigationStage.entries.forEach { stage ->
+            assertEquals(1, metrics.histogram(stage).count, "Histogram of $stage")
+        }
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun processLocationAndIndexUpdate_withInvalidLocation_reportsNoMetrics() = testScope.runTest {
+        val location = buildDefaultLocationUpdate(-77.034043, 38.900205)
+        every { mockLocationValidator.isValidUpdate(any()) } returns false
+
+        val reportedMetrics = mutableListOf<NavigationMetrics>()
+        mapLibreNavigation.addNavigationMetricsListener { metrics -> reportedMetrics.add(metrics) }
+
+        navigationEngine.processLocationAndIndexUpdate(location)
+        testScheduler.advanceUntilIdle()
+
+        assertTrue(reportedMetrics.isEmpty())
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun startNavigation_withConflatedProcessing_dropsStaleLocations() = testScope.runTest {
+        val locations = (0 until 5).map { index ->
+            buildDefaultLocationUpdate(-122.418498, 37.772399 + index * 0.00001)
+        }
+        coEvery { mockLocationEngine.getLastLocation() } returns null
+        every { mockLocationEngine.listenToLocation(any()) } returns flowOf(*locations.toTypedArray())
+        every { mockLocationValidator.isValidUpdate(any()) } returns true
+
+        val options = MapLibreNavigationOptions(
+            locationProcessingMode = MapLibreNavigationOptions.LocationProcessingMode.CONFLATED
+        )
+        val navigation = buildNavigationWithoutEngine(options)
+        val engine = buildEngine(navigation)
+        var progressCount = 0
+        navigation.addProgressChangeListener { _, _ -> progressCount++ }
+        val route = buildTestDirectionsRoute()
+        navigation.startNavigation(route)
+
+        engine.startNavigation(route)
+        testScheduler.advanceUntilIdle()
+
+        // First progress belongs to the start location of the route
+        val processedLocationCount = progressCount - 1
+        assertTrue(engine.droppedLocationCount > 0)
+        assertEquals(locations.size.toLong(), processedLocationCount + engine.droppedLocationCount)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun startNavigation_resetsDroppedLocationCount() = testScope.runTest {
+        val locations = (0 until 5).map { index ->
+            buildDefaultLocationUpdate(-122.418498, 37.772399 + index * 0.00001)
+        }
+        coEvery { mockLocationEngine.getLastLocation() } returns null
+        every { mockLocationEngine.listenToLocation(any()) } returns flowOf(*locations.toTypedArray())
+        every { mockLocationValidator.isValidUpdate(any()) } returns true
+
+        val options = MapLibreNavigationOptions(
+            locationProcessingMode = MapLibreNavigationOptions.LocationProcessingMode.CONFLATED
+        )
+        val navigation = buildNavigationWithoutEngine(options)
+        val engine = buildEngine(navigation)
+        val route = buildTestDirectionsRoute()
+        navigation.startNavigation(route)
+        engine.startNavigation(route)
+        testScheduler.advanceUntilIdle()
+        assertTrue(engine.droppedLocationCount > 0)
+
+        every { mockLocationEngine.listenToLocation(any()) } returns emptyFlow()
+        engine.startNavigation(route)
+        testScheduler.advanceUntilIdle()
+
+        assertEquals(0L, engine.droppedLocationCount)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun startNavigation_withSequentialProcessing_processesAllLocations() = testScope.runTest {
+        val locations = (0 until 5).map { index ->
+            buildDefaultLocationUpdate(-122.418498, 37.772399 + index * 0.00001)
+        }
+        coEvery { mockLocationEngine.getLastLocation() } returns null
+        every { mockLocationEngine.listenToLocation(any()) } returns flowOf(*locations.toTypedArray())
+        every { mockLocationValidator.isValidUpdate(any()) } returns true
+
+        val navigation = buildNavigationWithoutEngine(MapLibreNavigationOptions())
+        val engine = buildEngine(navigation)
+        var progressCount = 0
+        navigation.addProgressChangeListener { _, _ -> progressCount++ }
+        val route = buildTestDirectionsRoute()
+        navigation.startNavigation(route)
+
+        engine.startNavigation(route)
+        testScheduler.advanceUntilIdle()
+
+        assertEquals(locations.size + 1, progressCount)
+        assertEquals(0L, engine.droppedLocationCount)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun processLocationAndIndexUpdate_withImmediateDispatch_dispatchesWithoutMainThread() = testScope.runTest {
+        val location = buildDefaultLocationUpdate(-122.418498, 37.772399)
+        every { mockLocationValidator.isValidUpdate(any()) } returns true
+
+        val navigation = buildNavigationWithoutEngine(
+            MapLibreNavigationOptions(dispatchStrategy = DispatchStrategy.Immediate)
+        )
+        val engine = buildEngine(navigation)
+        var progressCount = 0
+        navigation.addProgressChangeListener { _, _ -> progressCount++ }
+        navigation.startNavigation(buildTestDirectionsRoute())
+
+        engine.processLocationAndIndexUpdate(location)
+
+        assertEquals(1, progressCount)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun processLocationAndIndexUpdate_withPostedDispatchWithoutDispatcher_usesMainScope() = testScope.runTest {
+        val location = buildDefaultLocationUpdate(-122.418498, 37.772399)
+        every { mockLocationValidator.isValidUpdate(any()) } returns true
+
+        val navigation = buildNavigationWithoutEngine(
+            MapLibreNavigationOptions(dispatchStrategy = DispatchStrategy.Posted())
+        )
+        val engine = buildEngine(navigation, mainScope = CoroutineScope(UnconfinedTestDispatcher(testScheduler)))
+        var progressCount = 0
+        navigation.addProgressChangeListener { _, _ -> progressCount++ }
+        navigation.startNavigation(buildTestDirectionsRoute())
+
+        // Main scope delivers without advancing the main dispatcher
+        engine.processLocationAndIndexUpdate(location)
+
+        assertEquals(1, progressCount)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun processLocationAndIndexUpdate_withConflatedDispatch_onlyDispatchesLatestProgress() = testScope.runTest {
+        val locations = (0 until 3).map { index ->
+            buildDefaultLocationUpdate(-122.418498, 37.772399 + index * 0.00001)
+        }
+        every { mockLocationValidator.isValidUpdate(any()) } returns true
+
+        val navigation = buildNavigationWithoutEngine(
+            MapLibreNavigationOptions(dispatchStrategy = DispatchStrategy.Conflated(dispatcher))
+        )
+        val engine = buildEngine(navigation)
+        val progressLocations = mutableListOf<Location>()
+        navigation.addProgressChangeListener { location, _ -> progressLocations.add(location) }
+        navigation.startNavigation(buildTestDirectionsRoute())
+
+        // Dispatcher is busy with the test, so all updates are pending
+        locations.forEach { location -> engine.processLocationAndIndexUpdate(location) }
+        testScheduler.advanceUntilIdle()
+
+        assertEquals(1, progressLocations.size)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun stopNavigation_withConflatedDispatch_dropsPendingUpdates() = testScope.runTest {
+        val location = buildDefaultLocationUpdate(-122.418498, 37.772399)
+        every { mockLocationValidator.isValidUpdate(any()) } returns true
+
+        val navigation = buildNavigationWithoutEngine(
+            MapLibreNavigationOptions(dispatchStrategy = DispatchStrategy.Conflated(dispatcher))
+        )
+        val engine = buildEngine(navigation)
+        var progressCount = 0
+        navigation.addProgressChangeListener { _, _ -> progressCount++ }
+        navigation.startNavigation(buildTestDirectionsRoute())
+
+        engine.processLocationAndIndexUpdate(location)
+        engine.stopNavigation()
+        testScheduler.advanceUntilIdle()
+
+        assertEquals(0, progressCount)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun processLocationAndIndexUpdate_withSessionRecorder_recordsUpdate() = testScope.runTest {
+        val location = buildDefaultLocationUpdate(-122.418498, 37.772399)
+        every { mockLocationValidator.isValidUpdate(any()) } returns true
+
+        val navigation = buildNavigationWithoutEngine(
+            MapLibreNavigationOptions(dispatchStrategy = DispatchStrategy.Immediate)
+        )
+        val engine = buildEngine(navigation)
+        val sink = ByteArrayRecordSink()
+        val recorder = NavigationSessionRecorder(sink, scope = backgroundScope)
+        navigation.sessionRecorder = recorder
+        var resultProgress: RouteProgress? = null
+        navigation.addProgressChangeListener { _, routeProgress -> resultProgress = routeProgress }
+        navigation.startNavigation(buildTestDirectionsRoute())
+
+        engine.processLocationAndIndexUpdate(location)
+        recorder.close()
+
+        val routeProgress = assertNotNull(resultProgress)
+        val records = NavigationRecordReader.read(sink.toByteArray())
+        val locationRecord = assertIs<NavigationRecord.LocationRecord>(records[0])
+        assertEquals(location.latitude, locationRecord.location.latitude)
+        assertEquals(location.longitude, locationRecord.location.longitude)
+        assertEquals(
+            NavigationRecord.ProgressRecord(
+                location.timeMilliseconds,
+                routeProgress.legIndex,
+                routeProgress.stepIndex,
+                routeProgress.distanceRemaining,
+                routeProgress.legDistanceRemaining,
+                routeProgress.stepDistanceRemaining
+            ),
+            records[1]
+        )
+        assertTrue(records.drop(2).all { record -> record is NavigationRecord.MilestoneRecord })
+    }
+
+    private fun buildNavigationWithoutEngine(options: MapLibreNavigationOptions): MapLibreNavigation {
+        // Started navigation must not process locations by itself, only the engine under test does
+        return MapLibreNavigation(
+            options = options,
+            locationEngine = mockLocationEngine,
+            mapLibreNavigationEngine = mockk(relaxed = true)
+        )
+    }
+
+    private fun buildEngine(
+        navigation: MapLibreNavigation,
+        mainScope: CoroutineScope = CoroutineScope(Dispatchers.Main)
+    ): MapLibreNavigationEngine {
+        return MapLibreNavigationEngine(
+            mapLibreNavigation = navigation,
+            routeUtils = RouteUtils(),
+            locationValidator = mockLocationValidator,
+            backgroundScope = testScope,
+            mainScope = mainScope
+        )
+    }
+
+    private class ByteArrayRecordSink : NavigationRecordSink {
+        private val bytes = mutableListOf<Byte>()
+
+        override fun write(bytes: ByteArray, offset: Int, length: Int) {
+            for (index in offset until offset + length) {
+                this.bytes.add(bytes[index])
+            }
+        }
+
+        override fun flush() = Unit
+
+        override fun close() = Unit
+
+        fun toByteArray() = bytes.toByteArray()
+    }
+}
@@ -4,14 +4,21 @@ import io.mockk.every
 import io.mockk.mockk
 import io.mockk.verify
 import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
+import org.maplibre.navigation.core.geometry.StepGeometry
 import org.maplibre.navigation.core.location.Location
 import org.maplibre.navigation.core.models.LegStep
+import org.maplibre.navigation.core.models.StepIntersection
 import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions
 import org.maplibre.navigation.core.routeprogress.RouteProgress
 import org.maplibre.navigation.core.utils.Constants
+import org.maplibre.navigation.core.utils.MeasurementUtils.userTrueDistanceFromStep
 import org.maplibre.spatialk.geojson.Point
 import org.maplibre.spatialk.geojson.Position
 import org.maplibre.spatialk.polyline.PolylineEncoding
+import org.maplibre.spatialk.turf.measurement.bearingTo
+import org.maplibre.spatialk.units.Bearing
+import org.maplibre.spatialk.units.extensions.inDegrees
 import kotlin.test.Test
 import kotlin.test.assertFalse
 import kotlin.test.assertTrue
@@ -495,4 +502,178 @@ class OffRouteDetectorTest : BaseTest() {
 
         assertTrue(isOffRoute)
     }
+
+    @Test
+    fun isUserOffRoute_AssertFalseWhenOnOtherStepOfRoute() {
+        val (routeProgress, targetStepIndex) = buildRouteProgressWithDistantStep()
+        val options = MapLibreNavigationOptions(enableRouteReacquisition = true)
+        val callback = mockk<OffRouteCallback>(relaxed = true)
+        val offRouteDetector = OffRouteDetector(callback)
+        val firstUpdate = buildDefaultLocationUpdate(-77.0339782574523, 38.89993519985637)
+        offRouteDetector.isUserOffRoute(firstUpdate, routeProgress, options)
+
+        val targetStep = routeProgress.routeGeometryIndex!!.legs[0].steps[targetStepIndex]
+        val targetPoint = firstSegmentMiddleOf(targetStep)
+        val secondUpdate = buildDefaultLocationUpdate(targetPoint.longitude, targetPoint.latitude)
+            .copy(bearing = firstSegmentBearingOf(targetStep))
+        val isUserOffRoute = offRouteDetector.isUserOffRoute(secondUpdate, routeProgress, options)
+
+        assertFalse(isUserOffRoute)
+        verify {
+            callback.onShouldUpdateToIndex(0, targetStepIndex)
+        }
+    }
+
+    @Test
+    fun isUserOffRoute_AssertTrueWhenOnOtherStepOfRouteAndReacquisitionDisabled() {
+        val (routeProgress, targetStepIndex) = buildRouteProgressWithDistantStep()
+        val options = MapLibreNavigationOptions(enableRouteReacquisition = false)
+        val callback = mockk<OffRouteCallback>(relaxed = true)
+        val offRouteDetector = OffRouteDetector(callback)
+        val firstUpdate = buildDefaultLocationUpdate(-77.0339782574523, 38.89993519985637)
+        offRouteDetector.isUserOffRoute(firstUpdate, routeProgress, options)
+
+        val targetPoint = firstSegmentMiddleOf(routeProgress.routeGeometryIndex!!.legs[0].steps[targetStepIndex])
+        val secondUpdate = buildDefaultLocationUpdate(targetPoint.longitude, targetPoint.latitude)
+        val isUserOffRoute = offRouteDetector.isUserOffRoute(secondUpdate, routeProgress, options)
+
+        assertTrue(isUserOffRoute)
+        verify(exactly = 0) {
+            callback.onShouldUpdateToIndex(any(), any())
+        }
+    }
+
+    @Test
+    fun isUserOffRoute_AssertTrueWhenOnOtherStepOfRouteWithDefaultOptions() {
+        val (routeProgress, targetStepIndex) = buildRouteProgressWithDistantStep()
+        val callback = mockk<OffRouteCallback>(relaxed = true)
+        val offRouteDetector = OffRouteDetector(callback)
+        val firstUpdate = buildDefaultLocationUpdate(-77.0339782574523, 38.89993519985637)
+        offRouteDetector.isUserOffRoute(firstUpdate, routeProgress, defaultOptions)
+
+        val targetStep = routeProgress.routeGeometryIndex!!.legs[0].steps[targetStepIndex]
+        val targetPoint = firstSegmentMiddleOf(targetStep)
+        val secondUpdate = buildDefaultLocationUpdate(targetPoint.longitude, targetPoint.latitude)
+            .copy(bearing = firstSegmentBearingOf(targetStep))
+        val isUserOffRoute = offRouteDetector.isUserOffRoute(secondUpdate, routeProgress, defaultOptions)
+
+        assertTrue(isUserOffRoute)
+        verify(exactly = 0) {
+            callback.onShouldUpdateToIndex(any(), any())
+        }
+    }
+
+    @Test
+    fun isUserOffRoute_AssertTrueWhenOnOtherStepOfRouteWithoutBearing() {
+        val (routeProgress, targetStepIndex) = buildRouteProgressWithDistantStep()
+        val options = MapLibreNavigationOptions(enableRouteReacquisition = true)
+        val callback = mockk<OffRouteCallback>(relaxed = true)
+        val offRouteDetector = OffRouteDetector(callback)
+        val firstUpdate = buildDefaultLocationUpdate(-77.0339782574523, 38.89993519985637)
+        offRouteDetector.isUserOffRoute(firstUpdate, routeProgress, options)
+
+        val targetPoint = firstSegmentMiddleOf(routeProgress.routeGeometryIndex!!.legs[0].steps[targetStepIndex])
+        val secondUpdate = buildDefaultLocationUpdate(targetPoint.longitude, targetPoint.latitude)
+        val isUserOffRoute = offRouteDetector.isUserOffRoute(secondUpdate, routeProgress, options)
+
+        assertTrue(isUserOffRoute)
+        verify(exactly = 0) {
+            callback.onShouldUpdateToIndex(any(), any())
+        }
+    }
+
+    @Test
+    fun isUserOffRoute_ReacquiresStepInDirectionOfBearingOnOutAndBackRoute() {
+        val routeProgress = buildOutAndBackRouteProgress()
+        val options = MapLibreNavigationOptions(enableRouteReacquisition = true)
+        // Between the way out and the way back, both are within the off-route radius
+        val jumpedPoint = Position(longitude = 13.4001, latitude = 52.506)
+
+        listOf(0f to 2, 180f to 4).forEach { (bearing, expectedStepIndex) ->
+            val callback = mockk<OffRouteCallback>(relaxed = true)
+            val offRouteDetector = OffRouteDetector(callback)
+            offRouteDetector.isUserOffRoute(buildDefaultLocationUpdate(13.4, 52.5), routeProgress, options)
+
+            val jumpedUpdate = buildDefaultLocationUpdate(jumpedPoint.longitude, jumpedPoint.latitude)
+                .copy(bearing = bearing)
+            val isUserOffRoute = offRouteDetector.isUserOffRoute(jumpedUpdate, routeProgress, options)
+
+            assertFalse(isUserOffRoute)
+            verify(exactly = 1) {
+                callback.onShouldUpdateToIndex(any(), any())
+            }
+            verify {
+                callback.onShouldUpdateToIndex(0, expectedStepIndex)
+            }
+        }
+    }
+
+    /**
+     * Builds a route progress on the first step, with the index of a later step which is far away
+     * from the current and the upcoming step.
+     */
+    private fun buildRouteProgressWithDistantStep(): Pair<RouteProgress, Int> {
+        val routeProgress = buildDefaultTestRouteProgress().let { routeProgress ->
+            routeProgress.toBuilder()
+                .withRouteGeometryIndex(RouteGeometryIndex(routeProgress.directionsRoute))
+                .build()
+        }
+        val steps = routeProgress.routeGeometryIndex!!.legs[0].steps
+        val targetStepIndex = (2 until steps.size).first { stepIndex ->
+            val targetPoint = firstSegmentMiddleOf(steps[stepIndex])
+            userTrueDistanceFromStep(targetPoint, steps[0].positions) > 500.0 &&
+                    userTrueDistanceFromStep(targetPoint, steps[1].positions) > 500.0
+        }
+        return routeProgress to targetStepIndex
+    }
+
+    private fun firstSegmentMiddleOf(step: StepGeometry): Position {
+        val start = step.positions.first()
+        val end = step.positions.getOrElse(1) { start }
+        return Position(
+            longitude = (start.longitude + end.longitude) / 2,
+            latitude = (start.latitude + end.latitude) / 2
+        )
+    }
+
+    private fun firstSegmentBearingOf(step: StepGeometry): Float {
+        val start = step.positions.first()
+        val end = step.positions[1]
+        return Bearing.North.clockwiseRotationTo(Point(start).bearingTo(Point(end))).inDegrees.toFloat()
+    }
+
+    /**
+     * Builds a route progress on the first step of a route, which goes north, turns and comes back
+     * on a parallel road about 34 meters east of the way out.
+     */
+    private fun buildOutAndBackRouteProgress(): RouteProgress {
+        val stepPositions = listOf(
+            listOf(Position(13.4, 52.5), Position(13.4, 52.502)),
+            listOf(Position(13.4, 52.502), Position(13.4, 52.503)),
+            listOf(Position(13.4, 52.503), Position(13.4, 52.51)),
+            listOf(Position(13.4, 52.51), Position(13.4005, 52.51)),
+            listOf(Position(13.4005, 52.51), Position(13.4005, 52.5)),
+            listOf(Position(13.4005, 52.5), Position(13.4005, 52.5)),
+        )
+        val route = buildTestDirectionsRoute().let { route ->
+            val leg = route.legs[0]
+            route.copy(
+                legs = listOf(
+                    leg.copy(
+                        steps = stepPositions.mapIndexed { stepIndex, positions ->
+                            leg.steps[stepIndex].copy(
+                                geometry = PolylineEncoding.encode(positions, Constants.PRECISION_6),
+                                intersections = listOf(StepIntersection(location = positions.first()))
+                            )
+                        }
+                    )
+                )
+            )
+        }
+
+        return buildTestRouteProgress(route, 100.0, 1000.0, 1000.0, 0, 0)
+            .toBuilder()
+            .withRouteGeometryIndex(RouteGeometryIndex(route))
+            .build()
+    }
 }
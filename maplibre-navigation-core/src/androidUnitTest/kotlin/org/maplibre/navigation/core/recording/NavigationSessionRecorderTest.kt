@@ -0,0 +1,117 @@
+package org.maplibre.navigation.core.recording
+
+import io.mockk.every
+import io.mockk.mockk
+import kotlinx.coroutines.test.runTest
+import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.milestone.Milestone
+import org.maplibre.navigation.core.routeprogress.RouteProgress
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertIs
+import kotlin.test.assertNull
+
+class NavigationSessionRecorderTest {
+
+    @Test
+    fun close_writesReadableRecording() = runTest {
+        val sink = ByteArrayRecordSink()
+        val recorder = NavigationSessionRecorder(sink, scope = backgroundScope)
+        val routeProgress = mockk<RouteProgress> {
+            every { legIndex } returns 1
+            every { stepIndex } returns 4
+            every { distanceRemaining } returns 1200.5
+            every { legDistanceRemaining } returns 800.25
+            every { stepDistanceRemaining } returns 50.0
+        }
+        val milestone = mockk<Milestone> {
+            every { identifier } returns 42
+        }
+
+        recorder.recordLocation(
+            Location(
+                latitude = 52.52,
+                longitude = 13.405,
+                accuracyMeters = 4f,
+                bearing = 92.5f,
+                timeMilliseconds = 1_000L
+            )
+        )
+        recorder.recordProgress(1_000L, routeProgress)
+        recorder.recordMilestone(1_000L, milestone)
+        recorder.recordOffRoute(null)
+        recorder.close()
+
+        val records = NavigationRecordReader.read(sink.toByteArray())
+        assertEquals(4, records.size)
+        val location = assertIs<NavigationRecord.LocationRecord>(records[0]).location
+        assertEquals(52.52, location.latitude)
+        assertEquals(13.405, location.longitude)
+        assertEquals(4f, location.accuracyMeters)
+        assertEquals(92.5f, location.bearing)
+        assertNull(location.altitude)
+        assertNull(location.speedMetersPerSeconds)
+        assertEquals(1_000L, location.timeMilliseconds)
+        assertEquals(
+            NavigationRecord.ProgressRecord(1_000L, 1, 4, 1200.5, 800.25, 50.0),
+            records[1]
+        )
+        assertEquals(NavigationRecord.MilestoneRecord(1_000L, 42), records[2])
+        assertEquals(NavigationRecord.OffRouteRecord(null), records[3])
+        assertEquals(true, sink.closed)
+    }
+
+    @Test
+    fun record_dropsRecordsWhileBufferIsFull() = runTest {
+        val sink = ByteArrayRecordSink()
+        val recorder = NavigationSessionRecorder(sink, capacityBytes = 90, scope = backgroundScope)
+
+        // The flush coroutine doesn't get to run in between
+        repeat(3) { recorder.recordLocation(Location(latitude = 1.0, longitude = it.toDouble())) }
+        recorder.close()
+
+        assertEquals(1, recorder.droppedRecordCount)
+        assertEquals(2, NavigationRecordReader.read(sink.toByteArray()).size)
+    }
+
+    @Test
+    fun read_ignoresIncompleteLastRecord() = runTest {
+        val sink = ByteArrayRecordSink()
+        val recorder = NavigationSessionRecorder(sink, scope = backgroundScope)
+        recorder.recordOffRoute(1L)
+        recorder.recordOffRoute(2L)
+        recorder.close()
+        val bytes = sink.toByteArray()
+
+        val records = NavigationRecordReader.read(bytes.copyOf(bytes.size - 3))
+
+        assertEquals(listOf<NavigationRecord>(NavigationRecord.OffRouteRecord(1L)), records)
+    }
+
+    @Test
+    fun read_rejectsUnknownFormat() {
+        assertFailsWith<IllegalArgumentException> {
+            NavigationRecordReader.read("<gpx>".encodeToByteArray())
+        }
+    }
+
+    private class ByteArrayRecordSink : NavigationRecordSink {
+        private val bytes = mutableListOf<Byte>()
+        var closed = false
+
+        override fun write(bytes: ByteArray, offset: Int, length: Int) {
+            for (index in offset until offset + length) {
+                this.bytes.add(bytes[index])
+            }
+        }
+
+        override fun flush() = Unit
+
+        override fun close() {
+            closed = true
+        }
+
+        fun toByteArray() = bytes.toByteArray()
+    }
+}
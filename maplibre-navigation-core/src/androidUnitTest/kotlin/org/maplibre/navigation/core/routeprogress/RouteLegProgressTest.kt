@@ -9,6 +9,7 @@ import kotlin.test.assertTrue
 import kotlin.test.assertNotNull
 import kotlin.test.assertEquals
 import kotlin.test.assertNotSame
+import kotlin.test.assertSame
 import kotlin.test.assertNull
 
 class RouteLegProgressTest : BaseTest() {
@@ -262,6 +263,15 @@ class RouteLegProgressTest : BaseTest() {
         assertNull(routeProgress.currentLegProgress.followOnStep)
     }
 
+    @Test
+    @Throws(Exception::class)
+    fun currentStepProgress_isCreatedOnce() {
+        val routeProgress = buildBeginningOfLegRouteProgress()
+        val currentLegProgress = routeProgress.currentLegProgress
+
+        assertSame(currentLegProgress.currentStepProgress, currentLegProgress.currentStepProgress)
+    }
+
     @Throws(Exception::class)
     private fun buildBeginningOfLegRouteProgress(): RouteProgress {
         val route = buildTestDirectionsRoute()
@@ -2,6 +2,7 @@ package org.maplibre.navigation.core.routeprogress
 
 import org.maplibre.navigation.core.json
 import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
 import org.maplibre.navigation.core.models.DirectionsResponse
 import org.maplibre.navigation.core.models.DirectionsRoute
 import org.maplibre.navigation.core.models.LegStep
@@ -10,6 +11,7 @@ import kotlin.test.Test
 import kotlin.test.assertTrue
 import kotlin.test.assertNotNull
 import kotlin.test.assertEquals
+import kotlin.test.assertSame
 
 class RouteProgressTest : BaseTest() {
 
@@ -284,6 +286,29 @@ class RouteProgressTest : BaseTest() {
         assertEquals(2, routeProgress.remainingWaypoints)
     }
 
+    @Test
+    @Throws(Exception::class)
+    fun currentLegProgress_isCreatedOnce() {
+        val route = buildTestDirectionsRoute()
+        val beginningRouteProgress = buildBeginningOfLegRouteProgress(route)
+
+        assertSame(beginningRouteProgress.currentLegProgress, beginningRouteProgress.currentLegProgress)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun equals_ignoresRouteGeometryIndex() {
+        val route = buildTestDirectionsRoute()
+        val routeProgress = buildBeginningOfLegRouteProgress(route)
+        val indexedRouteProgress = routeProgress.toBuilder()
+            .withRouteGeometryIndex(RouteGeometryIndex(route))
+            .build()
+
+        assertEquals(routeProgress, indexedRouteProgress)
+        assertEquals(routeProgress.hashCode(), indexedRouteProgress.hashCode())
+        assertNotNull(indexedRouteProgress.toBuilder().build().routeGeometryIndex)
+    }
+
     @Throws(Exception::class)
     private fun buildMultipleLegRoute(): DirectionsRoute {
         val fixtureJsonString = loadJsonFixture(MULTI_LEG_ROUTE_FIXTURE)
@@ -0,0 +1,54 @@
+package org.maplibre.navigation.core.simulation
+
+import kotlinx.coroutines.test.runTest
+import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.location.replay.ReplayRouteLocationConverter
+import org.maplibre.navigation.core.milestone.VoiceInstructionMilestone
+import org.maplibre.navigation.core.models.DirectionsRoute
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class NavigationSimulatorTest : BaseTest() {
+
+    @Test
+    fun simulate_processesWholeRoute() = runTest {
+        val route = buildTestDirectionsRoute()
+        val locations = buildRouteLocations(route)
+
+        val result = NavigationSimulator().simulate(route, locations)
+
+        assertEquals(locations.size, result.processedLocationCount)
+        assertTrue(result.offRouteEvents.isEmpty())
+        assertTrue(result.milestoneEvents.any { event -> event.milestone is VoiceInstructionMilestone })
+
+        // Replayed locations are 28 meters apart, the last one is close to the destination
+        val lastProgress = result.progressEvents.last().routeProgress
+        assertTrue(lastProgress.distanceRemaining < 100.0, "Remaining ${lastProgress.distanceRemaining} m")
+    }
+
+    @Test
+    fun simulate_isRepeatable() = runTest {
+        val route = buildTestDirectionsRoute()
+        val locations = buildRouteLocations(route)
+        val simulator = NavigationSimulator()
+
+        val firstResult = simulator.simulate(route, locations)
+        val secondResult = simulator.simulate(route, locations)
+
+        assertEquals(
+            firstResult.progressEvents.map { event -> event.routeProgress.distanceRemaining },
+            secondResult.progressEvents.map { event -> event.routeProgress.distanceRemaining }
+        )
+        assertEquals(firstResult.milestoneEvents.size, secondResult.milestoneEvents.size)
+    }
+
+    private fun buildRouteLocations(route: DirectionsRoute): List<Location> {
+        val converter = ReplayRouteLocationConverter(route, 100, 1)
+        val stepCount = route.legs.sumOf { leg -> leg.steps.size }
+        return buildList {
+            repeat(stepCount) { addAll(converter.toLocations()) }
+        }
+    }
+}
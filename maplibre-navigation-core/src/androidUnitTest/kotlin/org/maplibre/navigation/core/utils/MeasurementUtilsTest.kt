@@ -1,10 +1,15 @@
 package org.maplibre.navigation.core.utils
 
 import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.geometry.PackedPositions
 import org.maplibre.navigation.core.models.LegStep
 import org.maplibre.navigation.core.models.StepManeuver
+import org.maplibre.spatialk.geojson.LineString
 import org.maplibre.spatialk.geojson.Position
 import org.maplibre.spatialk.polyline.PolylineEncoding
+import org.maplibre.spatialk.turf.measurement.distance
+import org.maplibre.spatialk.turf.misc.nearestPointTo
+import org.maplibre.spatialk.units.extensions.inMeters
 import kotlin.test.Test
 import kotlin.test.assertEquals
 
@@ -47,6 +52,24 @@ class MeasurementUtilsTest : BaseTest() {
         assertEquals(0.04, distance, LARGE_DELTA)
     }
 
+    @Test
+    fun userTrueDistanceFromStep_packedPositionsMatchNearestPointOnLineString() {
+        val step = buildTestDirectionsRoute().legs[0].steps[1]
+        val positions = PackedPositions.decode(step.geometry, Constants.PRECISION_6)
+        val lineString = LineString(positions)
+
+        for (i in 0 until positions.size - 1) {
+            for (distanceAway in listOf(0.0, 5.0, 50.0)) {
+                val position = buildPointAwayFromPoint(positions[i], distanceAway, 45.0).coordinates
+                val expected = distance(position, lineString.nearestPointTo(position).geometry.coordinates).inMeters
+                val tolerance = expected * 0.01 + 0.1
+
+                assertEquals(expected, MeasurementUtils.userTrueDistanceFromStep(position, positions), tolerance)
+                assertEquals(expected, MeasurementUtils.userTrueDistanceFromStep(position, step), tolerance)
+            }
+        }
+    }
+
     private fun getLegStep(location: Position, geometryPoints: List<Position>): LegStep {
         return LegStep(
             geometry = PolylineEncoding.encode(geometryPoints, Constants.PRECISION_6),
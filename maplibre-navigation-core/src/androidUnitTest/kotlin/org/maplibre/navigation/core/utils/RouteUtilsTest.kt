@@ -53,6 +53,18 @@ class RouteUtilsTest : BaseTest() {
         assertTrue(isNewRoute)
     }
 
+    @Test
+    fun isNewRoute_returnsFalseForCopiedRouteWithSameGeometry() {
+        val previousRouteProgress = buildDefaultTestRouteProgress()
+        val copiedRoute = previousRouteProgress.directionsRoute.copy(
+            geometry = String(previousRouteProgress.directionsRoute.geometry.toCharArray())
+        )
+
+        val isNewRoute = routeUtils.isNewRoute(previousRouteProgress, copiedRoute)
+
+        assertFalse(isNewRoute)
+    }
+
     @Test
     fun isArrivalEvent_returnsTrueWhenManeuverTypeIsArrival_andIsLastInstruction() {
         val route = buildTestDirectionsRoute()
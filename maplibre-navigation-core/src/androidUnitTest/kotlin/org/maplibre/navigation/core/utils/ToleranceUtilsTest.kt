@@ -1,6 +1,8 @@
 package org.maplibre.navigation.core.utils
 
 import org.maplibre.navigation.core.BaseTest
+import org.maplibre.navigation.core.geometry.ProjectionCursor
+import org.maplibre.navigation.core.geometry.StepGeometry
 import org.maplibre.navigation.core.models.StepIntersection
 import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions
 import org.maplibre.spatialk.geojson.LineString
@@ -94,4 +96,34 @@ class ToleranceUtilsTest : BaseTest() {
 
         assertEquals(50.0, tolerance, DELTA)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun dynamicRerouteDistanceTolerance_curvedStepMeasuresDistanceToIntersections() {
+        // Step leaves the first intersection, comes back close to it and ends at the second one
+        val start = Position(0.0, 0.0)
+        val closePoint = Position(0.0005, 0.0001)
+        val end = Position(0.001, 0.0)
+        val stepPositions = listOf(start, Position(0.0, 0.01), closePoint, Position(0.001, 0.01), end)
+        val stepGeometry = StepGeometry.fromPositions(stepPositions)
+        val intersections = listOf(StepIntersection(location = start), StepIntersection(location = end))
+        val routeProgress = buildDefaultTestRouteProgress().copy(
+            currentStepPoints = stepPositions,
+            intersections = intersections,
+            intersectionDistancesAlongStep = mapOf(
+                intersections[0] to 0.0,
+                intersections[1] to stepGeometry.length
+            )
+        ).toBuilder()
+            .withRouteProjection(ProjectionCursor().project(stepGeometry, closePoint))
+            .build()
+
+        val tolerance = ToleranceUtils.dynamicOffRouteRadiusTolerance(
+            closePoint,
+            routeProgress,
+            MapLibreNavigationOptions()
+        )
+
+        // Far away from both intersections along the step, but only 11 meters from their connection
+        assertEquals(25.0, tolerance, DELTA)
+    }
+}
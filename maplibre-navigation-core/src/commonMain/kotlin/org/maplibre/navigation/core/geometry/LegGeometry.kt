@@ -0,0 +1,26 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.navigation.core.models.RouteLeg
+
+/**
+ * Decoded geometries of all steps of a [RouteLeg].
+ *
+ * @since 5.0.0
+ */
+class LegGeometry internal constructor(
+    /**
+     * Geometries of the steps of this leg, in the same order as [RouteLeg.steps].
+     */
+    val steps: List<StepGeometry>,
+
+    /**
+     * Length of the leg in meters, measured along the decoded step geometries.
+     */
+    val length: Double,
+
+    /**
+     * Distance in meters from the start of the route to the start of this leg, measured along the
+     * decoded step geometries.
+     */
+    val distanceAlongRoute: Double,
+)
@@ -0,0 +1,134 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.spatialk.geojson.Position
+import kotlin.math.PI
+import kotlin.math.cos
+import kotlin.math.max
+import kotlin.math.min
+import kotlin.math.sqrt
+
+/**
+ * Local tangent plane of a [StepGeometry], to measure positions close to the step with plain 2D
+ * math instead of great-circle formulas. The plane is an equirectangular projection centered on
+ * the step, in meters east and north of the center. The step positions are projected once, when
+ * the step is indexed; a position searched afterwards only needs two multiplications to be
+ * projected, and no trigonometric function at all.
+ *
+ * Error bounds, relative to the haversine distance on the same sphere: the east-west scale is
+ * exact at the latitude of the center and deviates by about `|Δφ| * tan(|φ0|)` at a latitude
+ * difference of `Δφ` (in radians) from the center latitude `φ0`. The curvature of the earth adds
+ * less than `(d / R)²` for a distance `d`. For a step reaching up to 2 km north or south of its
+ * center, distances are therefore accurate to 0.1% up to 70° latitude, below 1 m per kilometer.
+ * Distances along the step are taken from [StepGeometry.cumulativeDistances] and only the position
+ * within a single segment is measured in the plane, so they stay exact at every step position.
+ *
+ * @since 5.0.0
+ */
+class LocalTangentPlane internal constructor(positions: PackedPositions) {
+
+    /**
+     * Longitude of the center of the plane, in degrees.
+     */
+    val originLongitude: Double
+
+    /**
+     * Latitude of the center of the plane, in degrees.
+     */
+    val originLatitude: Double
+
+    private val metersPerDegreeLongitude: Double
+
+    /**
+     * Positions of the step in meters east of the center, in the same order as the step positions.
+     */
+    internal val xs: DoubleArray
+
+    /**
+     * Positions of the step in meters north of the center, in the same order as the step positions.
+     */
+    internal val ys: DoubleArray
+
+    init {
+        var minLongitude = Double.MAX_VALUE
+        var maxLongitude = -Double.MAX_VALUE
+        var minLatitude = Double.MAX_VALUE
+        var maxLatitude = -Double.MAX_VALUE
+        for (i in 0 until positions.size) {
+            minLongitude = min(minLongitude, positions.longitude(i))
+            maxLongitude = max(maxLongitude, positions.longitude(i))
+            minLatitude = min(minLatitude, positions.latitude(i))
+            maxLatitude = max(maxLatitude, positions.latitude(i))
+        }
+        originLongitude = if (positions.isEmpty()) 0.0 else (minLongitude + maxLongitude) / 2
+        originLatitude = if (positions.isEmpty()) 0.0 else (minLatitude + maxLatitude) / 2
+        metersPerDegreeLongitude = METERS_PER_DEGREE * cos(originLatitude * PI / 180.0)
+
+        xs = DoubleArray(positions.size) { i -> x(positions.longitude(i)) }
+        ys = DoubleArray(positions.size) { i -> y(positions.latitude(i)) }
+    }
+
+    /**
+     * Distance in meters east of the center of the plane.
+     */
+    fun x(longitude: Double): Double = (longitude - originLongitude) * metersPerDegreeLongitude
+
+    /**
+     * Distance in meters north of the center of the plane.
+     */
+    fun y(latitude: Double): Double = (latitude - originLatitude) * METERS_PER_DEGREE
+
+    /**
+     * Measures the distance between two positions in the plane.
+     *
+     * @return distance in meters
+     */
+    fun distance(from: Position, to: Position): Double {
+        val deltaX = (to.longitude - from.longitude) * metersPerDegreeLongitude
+        val deltaY = (to.latitude - from.latitude) * METERS_PER_DEGREE
+        return sqrt(deltaX * deltaX + deltaY * deltaY)
+    }
+
+    /**
+     * Measures the distance from the given position to the closest point of the step.
+     *
+     * @param position position to measure from
+     * @return distance in meters, or [Double.MAX_VALUE] if the step has no positions
+     */
+    fun distanceFromLine(position: Position): Double {
+        if (xs.isEmpty()) {
+            return Double.MAX_VALUE
+        }
+        if (xs.size == 1) {
+            return distance(position, Position(longitude = originLongitude, latitude = originLatitude))
+        }
+
+        val x = x(position.longitude)
+        val y = y(position.latitude)
+        var bestDistanceSquared = Double.MAX_VALUE
+        for (i in 0 until xs.size - 1) {
+            val startX = xs[i] - x
+            val startY = ys[i] - y
+            val deltaX = xs[i + 1] - xs[i]
+            val deltaY = ys[i + 1] - ys[i]
+            val lengthSquared = deltaX * deltaX + deltaY * deltaY
+            val fraction = if (lengthSquared > 0.0) {
+                (-(startX * deltaX + startY * deltaY) / lengthSquared).coerceIn(0.0, 1.0)
+            } else {
+                0.0
+            }
+
+            val projectedX = startX + fraction * deltaX
+            val projectedY = startY + fraction * deltaY
+            bestDistanceSquared = min(bestDistanceSquared, projectedX * projectedX + projectedY * projectedY)
+        }
+        return sqrt(bestDistanceSquared)
+    }
+
+    private companion object {
+        /**
+         * Mean earth radius in meters, the same as used by the haversine distance.
+         */
+        const val EARTH_RADIUS_METERS = 6_371_008.8
+        const val METERS_PER_DEGREE = EARTH_RADIUS_METERS * PI / 180.0
+    }
+}
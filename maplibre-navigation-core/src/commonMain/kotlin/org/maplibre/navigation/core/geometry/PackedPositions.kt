@@ -0,0 +1,94 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.spatialk.geojson.Position
+import kotlin.jvm.JvmOverloads
+
+/**
+ * Positions stored as longitude and latitude pairs in a single [DoubleArray], instead of one
+ * [Position] object per vertex. Multiple instances can share the same array as views with their
+ * own [offset] and [size], for example the steps of a route.
+ *
+ * For compatibility, the positions are also exposed as [List] of [Position]. Every access through
+ * the list creates a new [Position] though, so code running on every location update should read
+ * the coordinates with [longitude] and [latitude] instead. Altitudes are not stored.
+ *
+ * @param coordinates longitude and latitude of every position, one after the other
+ * @param offset index of the first position of this view in [coordinates]
+ * @param size number of positions of this view
+ *
+ * @since 5.0.0
+ */
+class PackedPositions @JvmOverloads constructor(
+    private val coordinates: DoubleArray,
+    val offset: Int = 0,
+    override val size: Int = coordinates.size / 2 - offset
+) : AbstractList<Position>(), RandomAccess {
+
+    init {
+        require(offset >= 0 && size >= 0 && (offset + size) * 2 <= coordinates.size) {
+            "View of $size positions at offset $offset exceeds ${coordinates.size / 2} positions"
+        }
+    }
+
+    /**
+     * Longitude of the position with the given index, in degrees.
+     */
+    fun longitude(index: Int): Double = coordinates[(offset + index) * 2]
+
+    /**
+     * Latitude of the position with the given index, in degrees.
+     */
+    fun latitude(index: Int): Double = coordinates[(offset + index) * 2 + 1]
+
+    override fun get(index: Int): Position {
+        if (index < 0 || index >= size) {
+            throw IndexOutOfBoundsException("Index $index is out of bounds for $size positions")
+        }
+        return Position(longitude = longitude(index), latitude = latitude(index))
+    }
+
+    /**
+     * Returns a view of the given range, sharing the coordinates with this instance.
+     */
+    override fun subList(fromIndex: Int, toIndex: Int): PackedPositions {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw IndexOutOfBoundsException("Range $fromIndex until $toIndex is out of bounds for $size positions")
+        }
+        return PackedPositions(coordinates, offset + fromIndex, toIndex - fromIndex)
+    }
+
+    companion object {
+
+        /**
+         * Packs the given positions. Returns the positions itself, if they are already packed.
+         */
+        fun of(positions: List<Position>): PackedPositions {
+            if (positions is PackedPositions) {
+                return positions
+            }
+
+            val coordinates = DoubleArray(positions.size * 2)
+            positions.forEachIndexed { index, position ->
+                coordinates[index * 2] = position.longitude
+                coordinates[index * 2 + 1] = position.latitude
+            }
+            return PackedPositions(coordinates)
+        }
+
+        /**
+         * Decodes an encoded polyline directly into packed positions. Use a [PolylineDecoder] to
+         * decode multiple polylines into a reusable buffer or to decode only the first positions.
+         *
+         * @param encoded the encoded polyline
+         * @param precision number of decimal places of the encoded coordinates, usually 5 or 6
+         * @return the decoded positions
+         * @throws IllegalArgumentException if the polyline ends within a coordinate
+         */
+        fun decode(encoded: String, precision: Int): PackedPositions {
+            val decoder = PolylineDecoder(PolylineDecoder.countPositions(encoded))
+            decoder.reset(encoded, precision)
+            decoder.decodeAll()
+            return decoder.toPackedPositions()
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.spatialk.geojson.Position
+import kotlin.jvm.JvmOverloads
+import kotlin.jvm.JvmStatic
+import kotlin.math.pow
+
+/**
+ * Decodes encoded polylines into a reusable [DoubleArray] buffer, without creating a [Position]
+ * per vertex. The buffer only grows and is kept between polylines, so decoding many polylines with
+ * the same instance allocates nothing once the buffer is large enough.
+ *
+ * Decoding is lazy: after [reset], positions are only decoded on request with [decodeUntil], which
+ * allows reading the first positions of a long polyline without decoding the remaining ones.
+ *
+ * This class is not thread safe.
+ *
+ * @param initialCapacity number of positions the buffer can hold before it needs to grow
+ * @since 5.0.0
+ */
+class PolylineDecoder @JvmOverloads constructor(initialCapacity: Int = DEFAULT_CAPACITY) {
+
+    private var coordinates: DoubleArray = DoubleArray(initialCapacity.coerceAtLeast(1) * 2)
+    private var encoded: String = ""
+    private var factor: Double = 1.0
+    private var index: Int = 0
+    private var latitude: Int = 0
+    private var longitude: Int = 0
+
+    /**
+     * Number of positions decoded so far.
+     */
+    var size: Int = 0
+        private set
+
+    /**
+     * True if the whole polyline was decoded.
+     */
+    val isComplete: Boolean
+        get() = index >= encoded.length
+
+    /**
+     * Starts decoding a new polyline. Positions of the previous polyline are discarded, but the
+     * buffer is reused.
+     *
+     * @param encoded the encoded polyline
+     * @param precision number of decimal places of the encoded coordinates, usually 5 or 6
+     */
+    fun reset(encoded: String, precision: Int) {
+        this.encoded = encoded
+        factor = 10.0.pow(precision)
+        index = 0
+        latitude = 0
+        longitude = 0
+        size = 0
+    }
+
+    /**
+     * Decodes positions until the given number of positions is available or the polyline ends.
+     *
+     * @param positionCount number of positions, that should be available after this call
+     * @return number of decoded positions, less than [positionCount] if the polyline is shorter
+     * @throws IllegalArgumentException if the polyline ends within a coordinate
+     */
+    fun decodeUntil(positionCount: Int): Int {
+        while (size < positionCount && index < encoded.length) {
+            latitude += nextValue()
+            longitude += nextValue()
+
+            if (size * 2 == coordinates.size) {
+                coordinates = coordinates.copyOf(coordinates.size * 2)
+            }
+            coordinates[size * 2] = longitude / factor
+            coordinates[size * 2 + 1] = latitude / factor
+            size++
+        }
+        return size
+    }
+
+    /**
+     * Decodes all remaining positions of the polyline.
+     *
+     * @return number of decoded positions
+     * @throws IllegalArgumentException if the polyline ends within a coordinate
+     */
+    fun decodeAll(): Int = decodeUntil(Int.MAX_VALUE)
+
+    /**
+     * Longitude of the decoded position with the given index, in degrees.
+     */
+    fun longitude(index: Int): Double {
+        checkIndex(index)
+        return coordinates[index * 2]
+    }
+
+    /**
+     * Latitude of the decoded position with the given index, in degrees.
+     */
+    fun latitude(index: Int): Double {
+        checkIndex(index)
+        return coordinates[index * 2 + 1]
+    }
+
+    /**
+     * Copies the decoded positions of the given range into new [PackedPositions], which stay valid
+     * after this decoder is reused.
+     *
+     * @param fromIndex index of the first position, inclusive
+     * @param toIndex index of the last position, exclusive
+     * @return copy of the decoded positions
+     */
+    @JvmOverloads
+    fun toPackedPositions(fromIndex: Int = 0, toIndex: Int = size): PackedPositions {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw IndexOutOfBoundsException("Range $fromIndex until $toIndex is out of bounds for $size positions")
+        }
+        return PackedPositions(coordinates.copyOfRange(fromIndex * 2, toIndex * 2))
+    }
+
+    /**
+     * Checks if the decoded positions of the whole polyline equal the positions of the given
+     * range, without decoding the polyline any further than the first difference.
+     *
+     * Both polylines need the same precision, so equal positions are decoded to exactly the same
+     * values.
+     *
+     * @param positions positions to compare with
+     * @param fromIndex index in [positions] of the position, which should equal the first position
+     * of the polyline
+     * @return true if the polyline has at least one position and all of them equal the positions
+     * starting at [fromIndex]
+     */
+    fun matches(positions: PackedPositions, fromIndex: Int): Boolean {
+        var positionIndex = 0
+        while (decodeUntil(positionIndex + 1) > positionIndex) {
+            val otherIndex = fromIndex + positionIndex
+            if (otherIndex >= positions.size
+                || coordinates[positionIndex * 2] != positions.longitude(otherIndex)
+                || coordinates[positionIndex * 2 + 1] != positions.latitude(otherIndex)
+            ) {
+                return false
+            }
+            positionIndex++
+        }
+        return positionIndex > 0
+    }
+
+    private fun nextValue(): Int {
+        var result = 0
+        var shift = 0
+        var value: Int
+        do {
+            require(index < encoded.length) { "Polyline ends within a coordinate" }
+            value = encoded[index++].code - 63
+            result = result or ((value and 0x1f) shl shift)
+            shift += 5
+        } while (value >= 0x20)
+        return if ((result and 1) != 0) (result shr 1).inv() else result shr 1
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= size) {
+            throw IndexOutOfBoundsException("Index $index is out of bounds for $size decoded positions")
+        }
+    }
+
+    companion object {
+        private const val DEFAULT_CAPACITY = 64
+
+        /**
+         * Counts the positions of an encoded polyline without decoding them.
+         *
+         * @param encoded the encoded polyline
+         * @return number of positions
+         */
+        @JvmStatic
+        fun countPositions(encoded: String): Int {
+            var values = 0
+            for (char in encoded) {
+                // Every value ends with a chunk without continuation bit
+                if (char.code - 63 < 0x20) {
+                    values++
+                }
+            }
+            return values / 2
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.spatialk.geojson.Position
+import org.maplibre.spatialk.turf.measurement.distance
+import org.maplibre.spatialk.units.extensions.inMeters
+import kotlin.jvm.JvmOverloads
+import kotlin.math.PI
+import kotlin.math.cos
+import kotlin.math.max
+import kotlin.math.min
+
+/**
+ * Projects locations onto a [StepGeometry] and remembers the last matched segment.
+ *
+ * Consecutive location updates are usually close to each other, so the next projection only
+ * searches a bounded window of segments around the last match. The whole step is only scanned
+ * when the step changes, or when the windowed match is not trustworthy: the nearest segment is at
+ * the border of the window or the location is further away from the line than
+ * [fullScanDistanceThreshold].
+ *
+ * Each segment is measured in a local equirectangular frame centered at the projected location,
+ * which is accurate to far below a meter for the segment lengths found in route geometries. The
+ * resulting distances are measured with the haversine formula. If the step geometry has a
+ * [LocalTangentPlane], its already projected positions are used instead and all distances are
+ * measured in the plane.
+ *
+ * This class is not thread safe. Use one instance per navigation session.
+ *
+ * @param segmentsAhead number of segments after the last match to search
+ * @param segmentsBehind number of segments before the last match to search
+ * @param fullScanDistanceThreshold distance in meters from the line, above which the whole step
+ * is scanned
+ * @since 5.0.0
+ */
+class ProjectionCursor @JvmOverloads constructor(
+    private val segmentsAhead: Int = DEFAULT_SEGMENTS_AHEAD,
+    private val segmentsBehind: Int = DEFAULT_SEGMENTS_BEHIND,
+    private val fullScanDistanceThreshold: Double = DEFAULT_FULL_SCAN_DISTANCE_THRESHOLD,
+) {
+    private var stepGeometry: StepGeometry? = null
+    private var segmentIndex = 0
+    private var segmentFraction = 0.0
+
+    /**
+     * Projects the given position onto the step geometry.
+     *
+     * @param stepGeometry geometry to project on
+     * @param position position to project
+     * @return projection or null if the geometry has less than two positions
+     */
+    fun project(stepGeometry: StepGeometry, position: Position): RouteProjection? {
+        val positions = stepGeometry.positions
+        if (positions.size < 2) {
+            return null
+        }
+
+        val lastSegmentIndex = positions.size - 2
+        if (this.stepGeometry !== stepGeometry) {
+            this.stepGeometry = stepGeometry
+            findNearestSegment(stepGeometry, position, 0, lastSegmentIndex)
+            return createProjection(stepGeometry, position)
+        }
+
+        val windowStart = max(0, segmentIndex - segmentsBehind)
+        val windowEnd = min(lastSegmentIndex, segmentIndex + segmentsAhead)
+        findNearestSegment(stepGeometry, position, windowStart, windowEnd)
+        val projection = createProjection(stepGeometry, position)
+
+        val coversWholeStep = windowStart == 0 && windowEnd == lastSegmentIndex
+        val atWindowBorder = (segmentIndex == windowStart && windowStart > 0)
+                || (segmentIndex == windowEnd && windowEnd < lastSegmentIndex)
+        if (coversWholeStep || (!atWindowBorder && projection.distanceFromLine <= fullScanDistanceThreshold)) {
+            return projection
+        }
+
+        findNearestSegment(stepGeometry, position, 0, lastSegmentIndex)
+        return createProjection(stepGeometry, position)
+    }
+
+    /**
+     * Forgets the last match. The next projection scans the whole step.
+     */
+    fun reset() {
+        stepGeometry = null
+        segmentIndex = 0
+        segmentFraction = 0.0
+    }
+
+    /**
+     * Finds the segment closest to the given position in the range of segments and stores it
+     * together with the fraction along the segment.
+     */
+    private fun findNearestSegment(
+        stepGeometry: StepGeometry,
+        position: Position,
+        fromSegment: Int,
+        toSegment: Int
+    ) {
+        val plane = stepGeometry.localTangentPlane
+        if (plane != null) {
+            val x = plane.x(position.longitude)
+            val y = plane.y(position.latitude)
+            findNearestSegment(fromSegment, toSegment, { i -> plane.xs[i] - x }, { i -> plane.ys[i] - y })
+            return
+        }
+
+        val positions = stepGeometry.positions
+        val longitudeScale = cos(position.latitude * PI / 180.0)
+        findNearestSegment(
+            fromSegment,
+            toSegment,
+            { i -> (positions.longitude(i) - position.longitude) * longitudeScale },
+            { i -> positions.latitude(i) - position.latitude }
+        )
+    }
+
+    /**
+     * Finds the segment closest to the origin of a local frame, in which the step positions are
+     * given by [xOf] and [yOf].
+     */
+    private inline fun findNearestSegment(
+        fromSegment: Int,
+        toSegment: Int,
+        xOf: (Int) -> Double,
+        yOf: (Int) -> Double
+    ) {
+        var bestDistanceSquared = Double.MAX_VALUE
+
+        var startX = xOf(fromSegment)
+        var startY = yOf(fromSegment)
+        for (i in fromSegment..toSegment) {
+            val endX = xOf(i + 1)
+            val endY = yOf(i + 1)
+
+            val deltaX = endX - startX
+            val deltaY = endY - startY
+            val lengthSquared = deltaX * deltaX + deltaY * deltaY
+            val fraction = if (lengthSquared > 0.0) {
+                (-(startX * deltaX + startY * deltaY) / lengthSquared).coerceIn(0.0, 1.0)
+            } else {
+                0.0
+            }
+
+            val projectedX = startX + fraction * deltaX
+            val projectedY = startY + fraction * deltaY
+            val distanceSquared = projectedX * projectedX + projectedY * projectedY
+            if (distanceSquared < bestDistanceSquared) {
+                bestDistanceSquared = distanceSquared
+                segmentIndex = i
+                segmentFraction = fraction
+            }
+
+            startX = endX
+            startY = endY
+        }
+    }
+
+    private fun createProjection(stepGeometry: StepGeometry, position: Position): RouteProjection {
+        val positions = stepGeometry.positions
+        val projectedPosition = when {
+            segmentFraction <= 0.0 -> positions[segmentIndex]
+            segmentFraction >= 1.0 -> positions[segmentIndex + 1]
+            else -> Position(
+                longitude = positions.longitude(segmentIndex) +
+                        segmentFraction * (positions.longitude(segmentIndex + 1) - positions.longitude(segmentIndex)),
+                latitude = positions.latitude(segmentIndex) +
+                        segmentFraction * (positions.latitude(segmentIndex + 1) - positions.latitude(segmentIndex)),
+            )
+        }
+
+        val plane = stepGeometry.localTangentPlane
+        val segmentLength = stepGeometry.cumulativeDistances[segmentIndex + 1] -
+                stepGeometry.cumulativeDistances[segmentIndex]
+        val distanceAlongSegment = when {
+            segmentFraction <= 0.0 -> 0.0
+            segmentFraction >= 1.0 -> segmentLength
+            plane != null -> segmentFraction * segmentLength
+            else -> distance(positions[segmentIndex], projectedPosition).inMeters
+        }
+        val distanceFromLine = plane?.distance(position, projectedPosition)
+            ?: distance(position, projectedPosition).inMeters
+
+        return RouteProjection(
+            position = projectedPosition,
+            segmentIndex = segmentIndex,
+            distanceAlongStep = stepGeometry.cumulativeDistances[segmentIndex] + distanceAlongSegment,
+            distanceFromLine = distanceFromLine,
+            rawPosition = position,
+        )
+    }
+
+    companion object {
+        const val DEFAULT_SEGMENTS_AHEAD = 64
+        const val DEFAULT_SEGMENTS_BEHIND = 16
+        const val DEFAULT_FULL_SCAN_DISTANCE_THRESHOLD = 50.0
+    }
+}
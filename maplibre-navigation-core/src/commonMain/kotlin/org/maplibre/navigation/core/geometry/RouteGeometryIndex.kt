@@ -0,0 +1,277 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.navigation.core.models.BannerInstructions
+import org.maplibre.navigation.core.models.DirectionsRoute
+import org.maplibre.navigation.core.models.LegStep
+import org.maplibre.navigation.core.models.RouteLeg
+import org.maplibre.navigation.core.models.VoiceInstructions
+import org.maplibre.navigation.core.navigation.MapLibreNavigation
+import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions.GeometryKernel
+import org.maplibre.navigation.core.utils.Constants
+import org.maplibre.spatialk.geojson.Position
+import kotlin.jvm.JvmOverloads
+
+/**
+ * Holds the decoded geometries of a [DirectionsRoute]. The overview geometry and every step
+ * geometry are decoded exactly once into [PackedPositions], when the index is created, together
+ * with the cumulative distances along them. Step geometries which are part of the overview
+ * geometry are stored as ranges of it, so their coordinates are only kept once. Additionally,
+ * suffix sums of the step and leg distances and durations are stored, to look up the remaining
+ * distance or duration without iterating the steps. The banner and voice instructions of every
+ * step are sorted by their distance along the step once as well, and the distance annotations of
+ * every leg are summed up for looking up the current annotation.
+ *
+ * A new index is created by [MapLibreNavigation] every time a new route is started. All
+ * consumers which need route geometry during a navigation session should read it from here
+ * instead of decoding polylines on every location update.
+ *
+ * @param directionsRoute the route to index
+ * @param geometryKernel the kernel used for measurements along the step geometries
+ * @since 5.0.0
+ */
+class RouteGeometryIndex @JvmOverloads constructor(
+    /**
+     * The route this index was built for.
+     */
+    val directionsRoute: DirectionsRoute,
+
+    /**
+     * Geometry kernel used for measurements along the step geometries. With
+     * [GeometryKernel.LOCAL_TANGENT_PLANE], every step is projected into its [LocalTangentPlane]
+     * while the index is created.
+     */
+    val geometryKernel: GeometryKernel = GeometryKernel.GEODESIC
+) {
+
+    /**
+     * Decoded overview geometry of the route.
+     */
+    val routeGeometry: StepGeometry = StepGeometry.fromPositions(decode(directionsRoute.geometry))
+
+    /**
+     * Decoded geometries of all legs of the route.
+     */
+    val legs: List<LegGeometry> = buildLegs()
+
+    /**
+     * Suffix sums of [LegStep.distance] per leg. Entry `[legIndex][stepIndex]` holds the summed
+     * distance of all steps starting at `stepIndex` until the end of the leg.
+     */
+    private val stepDistanceSuffixSums: Array<DoubleArray> = Array(directionsRoute.legs.size) { legIndex ->
+        suffixSums(directionsRoute.legs[legIndex].steps, LegStep::distance)
+    }
+
+    /**
+     * Suffix sums of [LegStep.duration] per leg, with the same layout as [stepDistanceSuffixSums].
+     */
+    private val stepDurationSuffixSums: Array<DoubleArray> = Array(directionsRoute.legs.size) { legIndex ->
+        suffixSums(directionsRoute.legs[legIndex].steps, LegStep::duration)
+    }
+
+    /**
+     * Suffix sums of [RouteLeg.distance]. Entry `[legIndex]` holds the summed distance of all legs
+     * starting at `legIndex` until the end of the route.
+     */
+    private val legDistanceSuffixSums: DoubleArray = suffixSums(directionsRoute.legs, RouteLeg::distance)
+
+    /**
+     * Suffix sums of [RouteLeg.duration], with the same layout as [legDistanceSuffixSums].
+     */
+    private val legDurationSuffixSums: DoubleArray = suffixSums(directionsRoute.legs, RouteLeg::duration)
+
+    /**
+     * Banner instructions per leg and step, sorted by their distance along the step geometry.
+     */
+    private val sortedBannerInstructions: List<List<SortedInstructions<BannerInstructions>>> =
+        directionsRoute.legs.map { leg ->
+            leg.steps.map { step ->
+                SortedInstructions.create(step.bannerInstructions, BannerInstructions::distanceAlongGeometry)
+            }
+        }
+
+    /**
+     * Voice instructions per leg and step, sorted by their distance along the step geometry.
+     */
+    private val sortedVoiceInstructions: List<List<SortedInstructions<VoiceInstructions>>> =
+        directionsRoute.legs.map { leg ->
+            leg.steps.map { step ->
+                SortedInstructions.create(step.voiceInstructions, VoiceInstructions::distanceAlongGeometry)
+            }
+        }
+
+    /**
+     * Prefix sums of the distance annotations per leg, or null for legs without distance
+     * annotations. Entry `[legIndex][i]` holds the summed distance of the first `i` annotations.
+     */
+    private val annotationDistanceSums: List<DoubleArray?> = directionsRoute.legs.map { leg ->
+        leg.annotation?.distance?.let { distances -> prefixSums(distances) }
+    }
+
+    /**
+     * Spatial index over all segments of the step geometries, to find the closest step anywhere on
+     * the route. Built on first access, which usually only happens after the user left the current
+     * step.
+     */
+    val segmentIndex: RouteSegmentIndex by lazy { RouteSegmentIndex(legs) }
+
+    /**
+     * Length of the route in meters, measured along the decoded step geometries.
+     */
+    val length: Double
+        get() = legs.lastOrNull()?.let { leg -> leg.distanceAlongRoute + leg.length } ?: 0.0
+
+    /**
+     * First position of the route. This is the first position of the first step, or the first
+     * position of the overview geometry if no step is available.
+     */
+    val firstPosition: Position?
+        get() = legs.firstOrNull()?.steps?.firstOrNull()?.positions?.firstOrNull()
+            ?: routeGeometry.positions.firstOrNull()
+
+    /**
+     * Returns the geometry of the step with the given indices.
+     *
+     * @param legIndex index of the leg
+     * @param stepIndex index of the step in the leg
+     * @return step geometry or null if no step exists for the given indices
+     */
+    fun stepGeometry(legIndex: Int, stepIndex: Int): StepGeometry? {
+        return legs.getOrNull(legIndex)?.steps?.getOrNull(stepIndex)
+    }
+
+    /**
+     * Returns the banner instructions of the step with the given indices, sorted by their distance
+     * along the step geometry.
+     *
+     * @param legIndex index of the leg
+     * @param stepIndex index of the step in the leg
+     * @return sorted banner instructions or null if no step exists for the given indices
+     */
+    fun bannerInstructions(legIndex: Int, stepIndex: Int): SortedInstructions<BannerInstructions>? {
+        return sortedBannerInstructions.getOrNull(legIndex)?.getOrNull(stepIndex)
+    }
+
+    /**
+     * Returns the voice instructions of the step with the given indices, sorted by their distance
+     * along the step geometry.
+     *
+     * @param legIndex index of the leg
+     * @param stepIndex index of the step in the leg
+     * @return sorted voice instructions or null if no step exists for the given indices
+     */
+    fun voiceInstructions(legIndex: Int, stepIndex: Int): SortedInstructions<VoiceInstructions>? {
+        return sortedVoiceInstructions.getOrNull(legIndex)?.getOrNull(stepIndex)
+    }
+
+    /**
+     * Returns the prefix sums of the distance annotations of the given leg. The array has one more
+     * entry than the annotations, the entry at index `i` holds the summed distance of all annotations
+     * before index `i`.
+     *
+     * @param legIndex index of the leg
+     * @return prefix sums or null if the leg doesn't exist or has no distance annotations
+     */
+    fun annotationDistanceSums(legIndex: Int): DoubleArray? {
+        return annotationDistanceSums.getOrNull(legIndex)
+    }
+
+    /**
+     * Summed distance in meters of all steps after the given step, until the end of the leg.
+     *
+     * @param legIndex index of the leg
+     * @param stepIndex index of the step in the leg
+     * @return distance of the following steps in the leg
+     */
+    fun stepDistanceAfter(legIndex: Int, stepIndex: Int): Double {
+        return suffixSumAfter(stepDistanceSuffixSums[legIndex], stepIndex)
+    }
+
+    /**
+     * Summed duration in seconds of all steps after the given step, until the end of the leg.
+     *
+     * @param legIndex index of the leg
+     * @param stepIndex index of the step in the leg
+     * @return duration of the following steps in the leg
+     */
+    fun stepDurationAfter(legIndex: Int, stepIndex: Int): Double {
+        return suffixSumAfter(stepDurationSuffixSums[legIndex], stepIndex)
+    }
+
+    /**
+     * Summed distance in meters of all legs after the given leg, until the end of the route.
+     *
+     * @param legIndex index of the leg
+     * @return distance of the following legs in the route
+     */
+    fun legDistanceAfter(legIndex: Int): Double {
+        return suffixSumAfter(legDistanceSuffixSums, legIndex)
+    }
+
+    /**
+     * Summed duration in seconds of all legs after the given leg, until the end of the route.
+     *
+     * @param legIndex index of the leg
+     * @return duration of the following legs in the route
+     */
+    fun legDurationAfter(legIndex: Int): Double {
+        return suffixSumAfter(legDurationSuffixSums, legIndex)
+    }
+
+    private fun suffixSumAfter(suffixSums: DoubleArray, index: Int): Double {
+        return suffixSums[(index + 1).coerceIn(0, suffixSums.size - 1)]
+    }
+
+    private fun <T> suffixSums(items: List<T>, selector: (T) -> Double): DoubleArray {
+        val suffixSums = DoubleArray(items.size + 1)
+        for (i in items.size - 1 downTo 0) {
+            suffixSums[i] = suffixSums[i + 1] + selector(items[i])
+        }
+        return suffixSums
+    }
+
+    private fun prefixSums(values: List<Double>): DoubleArray {
+        val prefixSums = DoubleArray(values.size + 1)
+        for (i in values.indices) {
+            prefixSums[i + 1] = prefixSums[i] + values[i]
+        }
+        return prefixSums
+    }
+
+    private fun buildLegs(): List<LegGeometry> {
+        val decoder = PolylineDecoder()
+        var overviewIndex = 0
+        var distanceAlongRoute = 0.0
+        return directionsRoute.legs.map { leg ->
+            var distanceAlongLeg = 0.0
+            val steps = leg.steps.map { step ->
+                decoder.reset(step.geometry, Constants.PRECISION_6)
+                val positions = if (decoder.matches(routeGeometry.positions, overviewIndex)) {
+                    // Consecutive steps share their first and last position
+                    routeGeometry.positions.subList(overviewIndex, overviewIndex + decoder.size)
+                        .also { overviewIndex += decoder.size - 1 }
+                } else {
+                    // Overview is simplified or steps are not connected, keep a copy of the step
+                    decoder.decodeAll()
+                    decoder.toPackedPositions()
+                }
+
+                StepGeometry.fromPositions(
+                    positions = positions,
+                    distanceAlongLeg = distanceAlongLeg,
+                    distanceAlongRoute = distanceAlongRoute + distanceAlongLeg,
+                    withLocalTangentPlane = geometryKernel == GeometryKernel.LOCAL_TANGENT_PLANE
+                ).also { stepGeometry -> distanceAlongLeg += stepGeometry.length }
+            }
+
+            LegGeometry(
+                steps = steps,
+                length = distanceAlongLeg,
+                distanceAlongRoute = distanceAlongRoute
+            ).also { legGeometry -> distanceAlongRoute += legGeometry.length }
+        }
+    }
+
+    private fun decode(geometry: String): PackedPositions {
+        return PackedPositions.decode(encoded = geometry, precision = Constants.PRECISION_6)
+    }
+}
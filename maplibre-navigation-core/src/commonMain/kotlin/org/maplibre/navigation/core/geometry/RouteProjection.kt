@@ -0,0 +1,48 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.spatialk.geojson.Position
+
+/**
+ * Result of projecting a location onto a [StepGeometry].
+ *
+ * @since 5.0.0
+ */
+data class RouteProjection(
+    /**
+     * Closest position on the step geometry.
+     */
+    val position: Position,
+
+    /**
+     * Index of the segment holding [position]. Segment `i` spans from `positions[i]` to
+     * `positions[i + 1]` of the step geometry.
+     */
+    val segmentIndex: Int,
+
+    /**
+     * Distance in meters from the start of the step geometry to [position].
+     */
+    val distanceAlongStep: Double,
+
+    /**
+     * Distance in meters from the projected location to [position].
+     */
+    val distanceFromLine: Double,
+
+    /**
+     * The position which was projected.
+     */
+    val rawPosition: Position,
+) {
+
+    /**
+     * Checks whether this projection was calculated for the given position. Only longitude and
+     * latitude are compared.
+     *
+     * @param position position to check
+     * @return true if the given position was projected, otherwise false
+     */
+    fun isProjectionOf(position: Position): Boolean {
+        return rawPosition.longitude == position.longitude && rawPosition.latitude == position.latitude
+    }
+}
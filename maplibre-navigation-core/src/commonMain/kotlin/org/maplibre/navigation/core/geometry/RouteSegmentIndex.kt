@@ -0,0 +1,314 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.spatialk.geojson.Position
+import org.maplibre.spatialk.turf.measurement.distance
+import org.maplibre.spatialk.units.extensions.inMeters
+import kotlin.jvm.JvmOverloads
+import kotlin.math.PI
+import kotlin.math.abs
+import kotlin.math.atan2
+import kotlin.math.cos
+import kotlin.math.floor
+import kotlin.math.max
+import kotlin.math.min
+import kotlin.math.sqrt
+
+/**
+ * Spatial index over the segments of all step geometries of a route, to find the closest segment
+ * anywhere on the route without scanning every step. Used to re-acquire the route after the
+ * location jumped away from the current step, for example when leaving a tunnel.
+ *
+ * The segments are sorted into a uniform grid, stored as two flat arrays: the segment indices of
+ * all cells one after the other and the start offset of every cell. A search only visits the cells
+ * around the searched position, ring by ring, until no closer segment can be found anymore.
+ *
+ * Grid coordinates are longitude, scaled with the cosine of the latitude furthest from the
+ * equator, and latitude. Distances in the grid therefore never exceed the real distances, which
+ * keeps the search exact for every latitude of the route.
+ *
+ * Instances are immutable and created once per route by [RouteGeometryIndex].
+ *
+ * @since 5.0.0
+ */
+class RouteSegmentIndex internal constructor(
+    legs: List<LegGeometry>,
+    cellSizeMeters: Double = DEFAULT_CELL_SIZE_METERS
+) {
+
+    /**
+     * Leg, step and segment index of every indexed segment.
+     */
+    private val segmentLegIndices: IntArray
+    private val segmentStepIndices: IntArray
+    private val segmentPositionIndices: IntArray
+
+    /**
+     * Longitude and latitude of the start and end of every segment, four values per segment.
+     */
+    private val segmentCoordinates: DoubleArray
+
+    private val longitudeScale: Double
+    private val minX: Double
+    private val minY: Double
+    private val cellSize: Double
+    private val columns: Int
+    private val rows: Int
+
+    /**
+     * Offset of the first segment of every cell in [cellSegments]. Has one more entry than cells,
+     * the segments of cell `i` are stored from `cellStarts[i]` until `cellStarts[i + 1]`.
+     */
+    private val cellStarts: IntArray
+    private val cellSegments: IntArray
+
+    init {
+        val segmentCount = legs.sumOf { leg -> leg.steps.sumOf { step -> max(0, step.positions.size - 1) } }
+        segmentLegIndices = IntArray(segmentCount)
+        segmentStepIndices = IntArray(segmentCount)
+        segmentPositionIndices = IntArray(segmentCount)
+        segmentCoordinates = DoubleArray(segmentCount * 4)
+
+        var maxAbsoluteLatitude = 0.0
+        var segment = 0
+        legs.forEachIndexed { legIndex, leg ->
+            leg.steps.forEachIndexed { stepIndex, step ->
+                val positions = step.positions
+                for (i in 0 until positions.size - 1) {
+                    segmentLegIndices[segment] = legIndex
+                    segmentStepIndices[segment] = stepIndex
+                    segmentPositionIndices[segment] = i
+                    segmentCoordinates[segment * 4] = positions.longitude(i)
+                    segmentCoordinates[segment * 4 + 1] = positions.latitude(i)
+                    segmentCoordinates[segment * 4 + 2] = positions.longitude(i + 1)
+                    segmentCoordinates[segment * 4 + 3] = positions.latitude(i + 1)
+                    maxAbsoluteLatitude = max(maxAbsoluteLatitude, max(abs(positions.latitude(i)), abs(positions.latitude(i + 1))))
+                    segment++
+                }
+            }
+        }
+        longitudeScale = max(cos(maxAbsoluteLatitude * PI / 180.0), MIN_LONGITUDE_SCALE)
+
+        var minX = Double.MAX_VALUE
+        var minY = Double.MAX_VALUE
+        var maxX = -Double.MAX_VALUE
+        var maxY = -Double.MAX_VALUE
+        for (i in 0 until segmentCount * 2) {
+            val x = segmentCoordinates[i * 2] * longitudeScale
+            val y = segmentCoordinates[i * 2 + 1]
+            minX = min(minX, x)
+            minY = min(minY, y)
+            maxX = max(maxX, x)
+            maxY = max(maxY, y)
+        }
+        if (segmentCount == 0) {
+            minX = 0.0
+            minY = 0.0
+            maxX = 0.0
+            maxY = 0.0
+        }
+        this.minX = minX
+        this.minY = minY
+
+        // Long routes get larger cells, to keep the number of cells in the order of the segments
+        val width = maxX - minX
+        val height = maxY - minY
+        cellSize = max(
+            cellSizeMeters / METERS_PER_DEGREE,
+            sqrt(width * height / max(1, segmentCount * MAX_CELLS_PER_SEGMENT))
+        )
+        columns = (width / cellSize).toInt() + 1
+        rows = (height / cellSize).toInt() + 1
+
+        // Count the segments per cell first, to store all cells in one array
+        cellStarts = IntArray(columns * rows + 1)
+        forEachCoveredCell(segmentCount) { _, cell -> cellStarts[cell + 1]++ }
+        for (cell in 1 until cellStarts.size) {
+            cellStarts[cell] += cellStarts[cell - 1]
+        }
+        cellSegments = IntArray(cellStarts.last())
+        val cellFill = cellStarts.copyOf(columns * rows)
+        forEachCoveredCell(segmentCount) { segmentIndex, cell -> cellSegments[cellFill[cell]++] = segmentIndex }
+    }
+
+    /**
+     * Number of indexed segments.
+     */
+    val segmentCount: Int
+        get() = segmentLegIndices.size
+
+    /**
+     * Finds the segment of the route closest to the given position.
+     *
+     * @param position position to search from
+     * @param maxDistanceMeters maximum distance of the segment to the position
+     * @param filter decides which segments may be returned, all segments if null
+     * @return closest accepted segment or null if no accepted segment is within the maximum distance
+     */
+    @JvmOverloads
+    fun nearestSegment(
+        position: Position,
+        maxDistanceMeters: Double,
+        filter: SegmentFilter? = null
+    ): RouteSegmentMatch? {
+        if (segmentCount == 0) {
+            return null
+        }
+
+        val x = position.longitude * longitudeScale
+        val y = position.latitude
+        val column = floor((x - minX) / cellSize).coerceIn(-1.0, columns.toDouble()).toInt()
+        val row = floor((y - minY) / cellSize).coerceIn(-1.0, rows.toDouble()).toInt()
+
+        // Local frame at the searched position, the same as used by ProjectionCursor
+        val localLongitudeScale = cos(position.latitude * PI / 180.0)
+        // Grid distances are shrunk, if the position is further away from the equator than the route
+        val ringScale = min(1.0, localLongitudeScale / longitudeScale)
+        val maxDistance = maxDistanceMeters / METERS_PER_DEGREE
+        var bestDistanceSquared = maxDistance * maxDistance
+        var bestSegment = -1
+        var bestFraction = 0.0
+
+        val maxRing = max(columns, rows) + 1
+        for (ring in 0..maxRing) {
+            // All cells of this ring are at least (ring - 1) cells away from the position
+            val ringDistance = (ring - 1) * cellSize * ringScale
+            if (ring > 1 && ringDistance * ringDistance > bestDistanceSquared) {
+                break
+            }
+
+            forEachCellOfRing(column, row, ring) { cell ->
+                for (i in cellStarts[cell] until cellStarts[cell + 1]) {
+                    val segment = cellSegments[i]
+                    val startX = (segmentCoordinates[segment * 4] - position.longitude) * localLongitudeScale
+                    val startY = segmentCoordinates[segment * 4 + 1] - position.latitude
+                    val deltaX = (segmentCoordinates[segment * 4 + 2] - position.longitude) * localLongitudeScale - startX
+                    val deltaY = segmentCoordinates[segment * 4 + 3] - position.latitude - startY
+                    val lengthSquared = deltaX * deltaX + deltaY * deltaY
+                    val fraction = if (lengthSquared > 0.0) {
+                        (-(startX * deltaX + startY * deltaY) / lengthSquared).coerceIn(0.0, 1.0)
+                    } else {
+                        0.0
+                    }
+
+                    val projectedX = startX + fraction * deltaX
+                    val projectedY = startY + fraction * deltaY
+                    val distanceSquared = projectedX * projectedX + projectedY * projectedY
+                    if (distanceSquared < bestDistanceSquared &&
+                        (filter == null || filter.accepts(
+                            segmentLegIndices[segment],
+                            segmentStepIndices[segment],
+                            bearingOf(deltaX, deltaY)
+                        ))
+                    ) {
+                        bestDistanceSquared = distanceSquared
+                        bestSegment = segment
+                        bestFraction = fraction
+                    }
+                }
+            }
+        }
+
+        if (bestSegment < 0) {
+            return null
+        }
+
+        val startLongitude = segmentCoordinates[bestSegment * 4]
+        val startLatitude = segmentCoordinates[bestSegment * 4 + 1]
+        val projectedPosition = Position(
+            longitude = startLongitude + bestFraction * (segmentCoordinates[bestSegment * 4 + 2] - startLongitude),
+            latitude = startLatitude + bestFraction * (segmentCoordinates[bestSegment * 4 + 3] - startLatitude),
+        )
+        val distanceFromLine = distance(position, projectedPosition).inMeters
+        if (distanceFromLine > maxDistanceMeters) {
+            return null
+        }
+
+        return RouteSegmentMatch(
+            legIndex = segmentLegIndices[bestSegment],
+            stepIndex = segmentStepIndices[bestSegment],
+            segmentIndex = segmentPositionIndices[bestSegment],
+            position = projectedPosition,
+            distanceFromLine = distanceFromLine
+        )
+    }
+
+    /**
+     * Calls the action for every cell covered by the bounding box of every segment.
+     */
+    private inline fun forEachCoveredCell(segmentCount: Int, action: (segment: Int, cell: Int) -> Unit) {
+        for (segment in 0 until segmentCount) {
+            val startColumn = columnOf(segmentCoordinates[segment * 4])
+            val endColumn = columnOf(segmentCoordinates[segment * 4 + 2])
+            val startRow = rowOf(segmentCoordinates[segment * 4 + 1])
+            val endRow = rowOf(segmentCoordinates[segment * 4 + 3])
+            for (row in min(startRow, endRow)..max(startRow, endRow)) {
+                for (column in min(startColumn, endColumn)..max(startColumn, endColumn)) {
+                    action(segment, row * columns + column)
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls the action for every cell inside the grid, which has the given Chebyshev distance to
+     * the given cell.
+     */
+    private inline fun forEachCellOfRing(column: Int, row: Int, ring: Int, action: (cell: Int) -> Unit) {
+        for (ringRow in row - ring..row + ring) {
+            if (ringRow < 0 || ringRow >= rows) {
+                continue
+            }
+
+            val isBorderRow = ringRow == row - ring || ringRow == row + ring
+            val columnStep = if (isBorderRow) 1 else 2 * ring
+            var ringColumn = column - ring
+            while (ringColumn <= column + ring) {
+                if (ringColumn in 0 until columns) {
+                    action(ringRow * columns + ringColumn)
+                }
+                ringColumn += columnStep
+            }
+        }
+    }
+
+    /**
+     * Bearing of a segment in the local frame, in degrees clockwise from north.
+     */
+    private fun bearingOf(deltaX: Double, deltaY: Double): Double {
+        return (atan2(deltaX, deltaY) * 180.0 / PI + 360.0) % 360.0
+    }
+
+    private fun columnOf(longitude: Double): Int {
+        return ((longitude * longitudeScale - minX) / cellSize).toInt().coerceIn(0, columns - 1)
+    }
+
+    private fun rowOf(latitude: Double): Int {
+        return ((latitude - minY) / cellSize).toInt().coerceIn(0, rows - 1)
+    }
+
+    /**
+     * Decides which segments a search of [nearestSegment] may return.
+     */
+    fun interface SegmentFilter {
+
+        /**
+         * @param legIndex index of the leg holding the segment
+         * @param stepIndex index of the step in the leg holding the segment
+         * @param bearing direction of the segment from its start to its end, in degrees clockwise
+         * from north
+         * @return true if the segment may be returned
+         */
+        fun accepts(legIndex: Int, stepIndex: Int, bearing: Double): Boolean
+    }
+
+    companion object {
+        const val DEFAULT_CELL_SIZE_METERS = 250.0
+
+        /**
+         * Mean length of one degree of latitude in meters.
+         */
+        private const val METERS_PER_DEGREE = 111_195.0
+        private const val MAX_CELLS_PER_SEGMENT = 4
+        private const val MIN_LONGITUDE_SCALE = 0.01
+    }
+}
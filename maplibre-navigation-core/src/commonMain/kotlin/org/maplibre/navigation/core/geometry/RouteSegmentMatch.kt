@@ -0,0 +1,36 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.spatialk.geojson.Position
+
+/**
+ * Segment of a route closest to a position, found by [RouteSegmentIndex].
+ *
+ * @since 5.0.0
+ */
+data class RouteSegmentMatch(
+    /**
+     * Index of the leg holding the segment.
+     */
+    val legIndex: Int,
+
+    /**
+     * Index of the step in the leg holding the segment.
+     */
+    val stepIndex: Int,
+
+    /**
+     * Index of the segment in the step geometry. Segment `i` spans from `positions[i]` to
+     * `positions[i + 1]` of the step geometry.
+     */
+    val segmentIndex: Int,
+
+    /**
+     * Closest position on the segment.
+     */
+    val position: Position,
+
+    /**
+     * Distance in meters from the searched position to [position].
+     */
+    val distanceFromLine: Double,
+)
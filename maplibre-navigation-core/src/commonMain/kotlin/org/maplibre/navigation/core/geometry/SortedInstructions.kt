@@ -0,0 +1,41 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.navigation.core.models.BannerInstructions
+import org.maplibre.navigation.core.models.VoiceInstructions
+
+/**
+ * Banner or voice instructions of a single step, sorted ascending by their distance along the step
+ * geometry. Instances are created once per route by [RouteGeometryIndex].
+ *
+ * @param T either [BannerInstructions] or [VoiceInstructions]
+ * @since 5.0.0
+ */
+class SortedInstructions<T> internal constructor(
+    /**
+     * The instructions, sorted ascending by distance along the geometry.
+     */
+    val instructions: List<T>,
+
+    /**
+     * Distance along the geometry of the instruction with the same index, kept as primitives to
+     * compare them without unboxing.
+     */
+    val distancesAlongGeometry: DoubleArray
+) {
+
+    val size: Int
+        get() = instructions.size
+
+    internal companion object {
+
+        fun <T> create(instructions: List<T>?, distanceAlongGeometry: (T) -> Double): SortedInstructions<T> {
+            val sortedInstructions = instructions.orEmpty().sortedBy(distanceAlongGeometry)
+            return SortedInstructions(
+                instructions = sortedInstructions,
+                distancesAlongGeometry = DoubleArray(sortedInstructions.size) { index ->
+                    distanceAlongGeometry(sortedInstructions[index])
+                }
+            )
+        }
+    }
+}
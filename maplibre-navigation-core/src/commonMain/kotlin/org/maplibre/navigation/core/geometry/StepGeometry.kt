@@ -0,0 +1,193 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.navigation.core.models.LegStep
+import org.maplibre.spatialk.geojson.LineString
+import org.maplibre.spatialk.geojson.Point
+import org.maplibre.spatialk.geojson.Position
+import org.maplibre.spatialk.turf.measurement.distance
+import org.maplibre.spatialk.turf.measurement.locateAlong
+import org.maplibre.spatialk.units.extensions.inMeters
+import org.maplibre.spatialk.units.extensions.meters
+import kotlin.concurrent.Volatile
+
+/**
+ * Decoded geometry of a single [LegStep] (or of the route overview), together with the cumulative
+ * distances along it. Instances are created once per route by [RouteGeometryIndex] and their
+ * geometry never changes afterwards. The only mutable state is a single entry cache of the last
+ * [distanceAlong] result, which is replaced atomically, so instances can be shared between all
+ * consumers and threads of a navigation session.
+ *
+ * @since 5.0.0
+ */
+class StepGeometry internal constructor(
+    /**
+     * Decoded positions of the geometry.
+     */
+    val positions: PackedPositions,
+
+    /**
+     * Distance in meters from the first position to the position with the same index. The
+     * first value is always 0.0 and the array has the same size as [positions].
+     */
+    val cumulativeDistances: DoubleArray,
+
+    /**
+     * Distance in meters from the start of the leg to the start of this step, measured along the
+     * decoded step geometries.
+     */
+    val distanceAlongLeg: Double,
+
+    /**
+     * Distance in meters from the start of the route to the start of this step, measured along the
+     * decoded step geometries.
+     */
+    val distanceAlongRoute: Double,
+
+    /**
+     * Local tangent plane of the geometry, if the route was indexed with
+     * [org.maplibre.navigation.core.navigation.MapLibreNavigationOptions.GeometryKernel.LOCAL_TANGENT_PLANE].
+     * Used by all measurements of this step instead of great-circle formulas, if available.
+     */
+    val localTangentPlane: LocalTangentPlane? = null,
+) {
+
+    /**
+     * Length of the geometry in meters.
+     */
+    val length: Double
+        get() = cumulativeDistances.lastOrNull() ?: 0.0
+
+    /**
+     * Finds the point along the geometry with the given distance from the start.
+     *
+     * Unlike measuring along a full [LineString], the segment holding the point is found by a binary search
+     * over [cumulativeDistances] instead of measuring the whole line again.
+     *
+     * @param distance distance in meters from the start of the geometry
+     * @return point along the geometry, the last point if the distance exceeds the length or null if
+     * the geometry is empty
+     */
+    fun locateAlong(distance: Double): Point? {
+        if (positions.isEmpty()) {
+            return null
+        }
+        if (positions.size == 1 || distance <= 0.0) {
+            return Point(positions.first())
+        }
+        if (distance >= length) {
+            return Point(positions.last())
+        }
+
+        val segmentIndex = findSegmentIndex(distance)
+        if (localTangentPlane != null) {
+            // Straight lines in the plane are straight lines in longitude and latitude as well
+            val segmentLength = cumulativeDistances[segmentIndex + 1] - cumulativeDistances[segmentIndex]
+            val fraction = if (segmentLength > 0.0) {
+                ((distance - cumulativeDistances[segmentIndex]) / segmentLength).coerceIn(0.0, 1.0)
+            } else {
+                0.0
+            }
+            val startLongitude = positions.longitude(segmentIndex)
+            val startLatitude = positions.latitude(segmentIndex)
+            return Point(
+                Position(
+                    longitude = startLongitude + fraction * (positions.longitude(segmentIndex + 1) - startLongitude),
+                    latitude = startLatitude + fraction * (positions.latitude(segmentIndex + 1) - startLatitude),
+                )
+            )
+        }
+
+        return LineString(listOf(positions[segmentIndex], positions[segmentIndex + 1]))
+            .locateAlong((distance - cumulativeDistances[segmentIndex]).meters)
+    }
+
+    /**
+     * Distance along the geometry of the position projected onto it. The result of the last call is
+     * kept, so projecting the same position again, for example the next maneuver on every location
+     * update, does not scan the geometry again.
+     *
+     * @param position position to project onto the geometry
+     * @return distance in meters from the start of the geometry to the projected position or null if
+     * the geometry has less than 2 positions
+     */
+    fun distanceAlong(position: Position): Double? {
+        projectedDistance?.let { cached ->
+            if (cached.position == position) {
+                return cached.distance
+            }
+        }
+
+        val distance = ProjectionCursor().project(this, position)?.distanceAlongStep ?: return null
+        projectedDistance = ProjectedDistance(position, distance)
+        return distance
+    }
+
+    /**
+     * Index of the segment containing the given distance along the geometry. Segment `i` spans
+     * from `positions[i]` to `positions[i + 1]`.
+     *
+     * @param distance distance in meters from the start of the geometry
+     * @return index of the segment, clamped to the valid segment range
+     */
+    fun findSegmentIndex(distance: Double): Int {
+        val lastSegmentIndex = positions.size - 2
+        if (lastSegmentIndex <= 0) {
+            return 0
+        }
+
+        // Largest index with cumulativeDistances[index] <= distance
+        var low = 0
+        var high = lastSegmentIndex
+        while (low < high) {
+            val mid = (low + high + 1) ushr 1
+            if (cumulativeDistances[mid] <= distance) {
+                low = mid
+            } else {
+                high = mid - 1
+            }
+        }
+        return low
+    }
+
+    /**
+     * Last result of [distanceAlong]. Replaced as a whole, so concurrent readers never see a
+     * distance of another position.
+     */
+    @Volatile
+    private var projectedDistance: ProjectedDistance? = null
+
+    private class ProjectedDistance(val position: Position, val distance: Double)
+
+    companion object {
+
+        /**
+         * Measures the given positions and creates a [StepGeometry] out of them.
+         *
+         * @param positions decoded positions, which are packed if they aren't already
+         * @param distanceAlongLeg distance from the start of the leg to the start of the positions
+         * @param distanceAlongRoute distance from the start of the route to the start of the positions
+         * @param withLocalTangentPlane whether to project the positions into a [LocalTangentPlane]
+         */
+        internal fun fromPositions(
+            positions: List<Position>,
+            distanceAlongLeg: Double = 0.0,
+            distanceAlongRoute: Double = 0.0,
+            withLocalTangentPlane: Boolean = false
+        ): StepGeometry {
+            val packedPositions = PackedPositions.of(positions)
+            val cumulativeDistances = DoubleArray(positions.size)
+            for (i in 1 until positions.size) {
+                cumulativeDistances[i] = cumulativeDistances[i - 1] +
+                        distance(positions[i - 1], positions[i]).inMeters
+            }
+
+            return StepGeometry(
+                positions = packedPositions,
+                cumulativeDistances = cumulativeDistances,
+                distanceAlongLeg = distanceAlongLeg,
+                distanceAlongRoute = distanceAlongRoute,
+                localTangentPlane = if (withLocalTangentPlane) LocalTangentPlane(packedPositions) else null
+            )
+        }
+    }
+}
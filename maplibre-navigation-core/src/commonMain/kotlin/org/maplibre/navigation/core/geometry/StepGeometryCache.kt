@@ -0,0 +1,34 @@
+package org.maplibre.navigation.core.geometry
+
+import org.maplibre.spatialk.geojson.Position
+
+/**
+ * Remembers the [StepGeometry] created for the last step positions. Used by consumers of
+ * [org.maplibre.navigation.core.routeprogress.RouteProgress.currentStepPoints] without a
+ * [RouteGeometryIndex], so the positions are only measured once per step instead of on every
+ * location update.
+ *
+ * This class is not thread safe. Use one instance per navigation session.
+ */
+internal class StepGeometryCache {
+    private var positions: List<Position>? = null
+    private var stepGeometry: StepGeometry? = null
+
+    /**
+     * Returns the step geometry of the given positions. A new geometry is only created if other
+     * positions than on the last call are given.
+     *
+     * @param positions decoded step positions
+     * @return geometry of the positions
+     */
+    fun stepGeometryOf(positions: List<Position>): StepGeometry {
+        stepGeometry?.takeIf { this.positions === positions }?.let { stepGeometry ->
+            return stepGeometry
+        }
+
+        return StepGeometry.fromPositions(positions).also { stepGeometry ->
+            this.positions = positions
+            this.stepGeometry = stepGeometry
+        }
+    }
+}
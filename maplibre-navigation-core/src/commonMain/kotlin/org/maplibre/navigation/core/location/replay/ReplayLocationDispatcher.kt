@@ -9,15 +9,25 @@ import org.maplibre.navigation.core.location.Location
 
 open class ReplayLocationDispatcher(
     locationsToReplay: List<Location>,
-    private val coroutineScope: CoroutineScope = CoroutineScope(Dispatchers.Default)
+    private val coroutineScope: CoroutineScope = CoroutineScope(Dispatchers.Default),
+    playbackRate: Double = DEFAULT_PLAYBACK_RATE
 ) {
     private var locationsToReplay = locationsToReplay.toMutableList()
     private var current: Location? = null
     private val replayLocationListeners = mutableListOf<ReplayLocationListener>()
     private var currentDispatcherJob: Job? = null
 
+    /**
+     * Multiplier of the time between two dispatched locations. A rate of 10 dispatches locations
+     * ten times faster than their timestamps suggest, [PLAYBACK_RATE_AS_FAST_AS_POSSIBLE] doesn't
+     * wait at all. The timestamps of the locations are never changed.
+     */
+    var playbackRate: Double = playbackRate
+        private set
+
     init {
         checkValidInput(locationsToReplay)
+        checkValidPlaybackRate(playbackRate)
         initialize()
     }
 
@@ -45,6 +55,16 @@ open class ReplayLocationDispatcher(
         }
     }
 
+    /**
+     * Updates the [playbackRate], starting with the next scheduled location.
+     *
+     * @param playbackRate multiplier of the time between two locations, must be greater than 0
+     */
+    fun updatePlaybackRate(playbackRate: Double) {
+        checkValidPlaybackRate(playbackRate)
+        this.playbackRate = playbackRate
+    }
+
     fun addReplayLocationListener(listener: ReplayLocationListener) {
         replayLocationListeners.add(listener)
     }
@@ -58,6 +78,10 @@ open class ReplayLocationDispatcher(
         require(!isValidInput) { NON_NULL_AND_NON_EMPTY_LOCATION_LIST_REQUIRED }
     }
 
+    private fun checkValidPlaybackRate(playbackRate: Double) {
+        require(playbackRate > 0) { PLAYBACK_RATE_MUST_BE_GREATER_THAN_ZERO }
+    }
+
     private fun initialize() {
         current = locationsToReplay.removeFirstOrNull()
     }
@@ -89,7 +113,7 @@ open class ReplayLocationDispatcher(
                 dispatchLocation(current)
             }
 
-            delay(diff)
+            delay((diff / playbackRate).toLong())
             scheduleNextDispatch()
         }
     }
@@ -103,7 +127,11 @@ open class ReplayLocationDispatcher(
     }
 
     companion object {
+        const val DEFAULT_PLAYBACK_RATE = 1.0
+        const val PLAYBACK_RATE_AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY
         private const val NON_NULL_AND_NON_EMPTY_LOCATION_LIST_REQUIRED =
             "Non-null and non-empty location list required."
+        private const val PLAYBACK_RATE_MUST_BE_GREATER_THAN_ZERO =
+            "Playback rate must be greater than 0."
     }
 }
\ No newline at end of file
@@ -1,14 +1,15 @@
 package org.maplibre.navigation.core.location.replay
 
+import org.maplibre.navigation.core.geometry.PackedPositions
 import org.maplibre.navigation.core.location.Location
 import org.maplibre.navigation.core.models.DirectionsRoute
 import org.maplibre.navigation.core.utils.Constants
 import org.maplibre.spatialk.geojson.LineString
 import org.maplibre.spatialk.geojson.Point
-import org.maplibre.spatialk.polyline.PolylineEncoding
+import org.maplibre.spatialk.geojson.Position
 import org.maplibre.spatialk.turf.measurement.bearingTo
-import org.maplibre.spatialk.turf.measurement.length
-import org.maplibre.spatialk.turf.measurement.locateAlong
+import org.maplibre.spatialk.turf.measurement.distance
+import org.maplibre.spatialk.turf.measurement.offset
 import org.maplibre.spatialk.units.Bearing
 import org.maplibre.spatialk.units.extensions.inDegrees
 import org.maplibre.spatialk.units.extensions.inMeters
@@ -47,6 +48,38 @@ open class ReplayRouteLocationConverter(
         time = Clock.System.now().toEpochMilliseconds()
     }
 
+    /**
+     * Lazily creates locations along the whole route, evenly spaced by the distance travelled
+     * with the current speed during the current delay. The route geometry is decoded step by step
+     * and walked only once, so the first location is available immediately, also for very long
+     * routes.
+     *
+     * Unlike [toLocations], this doesn't advance the current step of the converter. Locations
+     * are timestamped from the time set by [initializeTime], in steps of the current delay.
+     *
+     * @return sequence of all locations along the route, with speed, bearing and time
+     */
+    fun toLocationSequence(): Sequence<Location> {
+        val startTime = time
+        val intervalMilliseconds = (delay * ONE_SECOND_IN_MILLISECONDS).toLong()
+        val routePositions = route.legs.asSequence()
+            .flatMap { leg -> leg.steps.asSequence() }
+            .flatMap { step ->
+                PackedPositions.decode(
+                    encoded = step.geometry,
+                    precision = Constants.PRECISION_6
+                ).asSequence()
+            }
+
+        return positionsAlong(routePositions, calculateDistancePerSec())
+            .mapIndexed { index, routePosition ->
+                createMockLocationFrom(
+                    Point(routePosition.position),
+                    startTime + index * intervalMilliseconds
+                ).copy(bearing = routePosition.bearing)
+            }
+    }
+
     /**
      * Interpolates the route into even points along the route and adds these to the points list.
      *
@@ -54,29 +87,15 @@ open class ReplayRouteLocationConverter(
      * @return list of sliced [Point]s.
      */
     fun sliceRoute(lineString: LineString): List<Point> {
-        if (lineString.coordinates.isEmpty()) {
-            return emptyList()
-        }
-
-        val distanceMeters = lineString.length().inMeters
-        if (distanceMeters <= 0) {
-            return emptyList()
-        }
-
-        val points: MutableList<Point> = ArrayList()
-        var i = 0.0
-        while (i < distanceMeters) {
-            val point = lineString.locateAlong(i.meters)
-            points.add(point)
-            i += distance
-        }
-        return points
+        return positionsAlong(lineString.coordinates.asSequence(), distance)
+            .map { routePosition -> Point(routePosition.position) }
+            .toList()
     }
 
     fun calculateMockLocations(points: List<Point>): MutableList<Location> {
         val mockedLocations: MutableList<Location> = ArrayList()
         for (i in points.indices) {
-            val mockedLocation = createMockLocationFrom(points[i])
+            val mockedLocation = createMockLocationFrom(points[i], time)
 
             mockedLocations.add(
                 if (i - 1 >= 0) {
@@ -113,7 +132,7 @@ open class ReplayRouteLocationConverter(
     }
 
     private fun calculateStepPoints(): List<Point> {
-        val positions = PolylineEncoding.decode(
+        val positions = PackedPositions.decode(
             encoded = route.legs[currentLeg].steps[currentStep].geometry,
             precision = Constants.PRECISION_6
         )
@@ -132,7 +151,7 @@ open class ReplayRouteLocationConverter(
         }
     }
 
-    private fun createMockLocationFrom(point: Point): Location {
+    private fun createMockLocationFrom(point: Point, timeMilliseconds: Long): Location {
         return Location(
             provider = PROVIDER_NAME,
             latitude = point.latitude,
@@ -140,7 +159,7 @@ open class ReplayRouteLocationConverter(
             altitude = point.altitude,
             speedMetersPerSeconds = ((speed * ONE_KM_IN_METERS) / ONE_HOUR_IN_SECONDS).toFloat(),
             accuracyMeters = 3f,
-            timeMilliseconds = time
+            timeMilliseconds = timeMilliseconds
         )
     }
 
@@ -149,5 +168,53 @@ open class ReplayRouteLocationConverter(
         private const val ONE_KM_IN_METERS = 1000.0
         private const val ONE_HOUR_IN_SECONDS = 3600
         const val PROVIDER_NAME = "ReplayRouteLocation"
+
+        /**
+         * Position along a route, with the bearing of the route at this position in degrees.
+         */
+        private class RoutePosition(val position: Position, val bearing: Float)
+
+        /**
+         * Walks once along the given positions and emits a position every [intervalMeters],
+         * starting with the first position. The last emitted position is less than
+         * [intervalMeters] before the end of the line.
+         */
+        private fun positionsAlong(
+            positions: Sequence<Position>,
+            intervalMeters: Double
+        ): Sequence<RoutePosition> = sequence {
+            require(intervalMeters > 0) { "Interval must be greater than 0 meters." }
+
+            val iterator = positions.iterator()
+            if (!iterator.hasNext()) {
+                return@sequence
+            }
+
+            var segmentStart = iterator.next()
+            var distanceIntoSegment = 0.0
+            while (iterator.hasNext()) {
+                val segmentEnd = iterator.next()
+                val segmentLength = distance(segmentStart, segmentEnd).inMeters
+                if (segmentLength > 0) {
+                    val bearing = Point(segmentStart).bearingTo(Point(segmentEnd))
+                    val bearingDegrees = Bearing.North.clockwiseRotationTo(bearing).inDegrees.toFloat()
+                    while (distanceIntoSegment < segmentLength) {
+                        yield(
+                            RoutePosition(
+                                position = if (distanceIntoSegment == 0.0) {
+                                    segmentStart
+                                } else {
+                                    segmentStart.offset(distanceIntoSegment.meters, bearing)
+                                },
+                                bearing = bearingDegrees
+                            )
+                        )
+                        distanceIntoSegment += intervalMeters
+                    }
+                    distanceIntoSegment -= segmentLength
+                }
+                segmentStart = segmentEnd
+            }
+        }
     }
 }
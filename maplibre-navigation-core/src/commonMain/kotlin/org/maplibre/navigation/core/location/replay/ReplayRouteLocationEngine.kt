@@ -23,6 +23,7 @@ open class ReplayRouteLocationEngine(
     private var converter: ReplayRouteLocationConverter? = null
     private var speed = DEFAULT_SPEED
     private var delay = DEFAULT_DELAY
+    private var playbackRate = ReplayLocationDispatcher.DEFAULT_PLAYBACK_RATE
     private var mockedLocations: MutableList<Location> = mutableListOf()
     private var dispatcher: ReplayLocationDispatcher? = null
 
@@ -66,6 +67,19 @@ open class ReplayRouteLocationEngine(
         this.delay = customDelayInSeconds
     }
 
+    /**
+     * Replays locations faster or slower than real time, without changing their timestamps. With
+     * a rate of 10, locations which are one second apart are replayed every 100 milliseconds.
+     *
+     * @param playbackRate multiplier of the replay speed, must be greater than 0. Use
+     * [ReplayLocationDispatcher.PLAYBACK_RATE_AS_FAST_AS_POSSIBLE] to replay without waiting.
+     */
+    fun updatePlaybackRate(playbackRate: Double) {
+        require(playbackRate > 0) { PLAYBACK_RATE_MUST_BE_GREATER_THAN_ZERO }
+        this.playbackRate = playbackRate
+        dispatcher?.updatePlaybackRate(playbackRate)
+    }
+
     private fun start(route: DirectionsRoute) {
         converter = ReplayRouteLocationConverter(route, speed, delay).apply {
             initializeTime()
@@ -83,7 +97,11 @@ open class ReplayRouteLocationEngine(
         dispatcher?.stop()
         dispatcher?.removeReplayLocationListener(replayLocationListener)
 
-        return ReplayLocationDispatcher(mockedLocations).also { dispatch ->
+        return ReplayLocationDispatcher(
+            locationsToReplay = mockedLocations,
+            coroutineScope = coroutineScope,
+            playbackRate = playbackRate
+        ).also { dispatch ->
             dispatch.addReplayLocationListener(replayLocationListener)
             dispatcher = dispatch
         }
@@ -112,13 +130,12 @@ open class ReplayRouteLocationEngine(
     private fun scheduleNextDispatch() {
         coroutineScope.launch {
             val currentMockedPoints = mockedLocations.size
-            delay(
-                when {
-                    currentMockedPoints == ZERO -> 0
-                    currentMockedPoints <= MOCKED_POINTS_LEFT_THRESHOLD -> ONE_SECOND_IN_MILLISECONDS
-                    else -> (currentMockedPoints - MOCKED_POINTS_LEFT_THRESHOLD) * ONE_SECOND_IN_MILLISECONDS
-                }
-            )
+            val delayMilliseconds: Long = when {
+                currentMockedPoints == ZERO -> 0
+                currentMockedPoints <= MOCKED_POINTS_LEFT_THRESHOLD -> ONE_SECOND_IN_MILLISECONDS
+                else -> (currentMockedPoints - MOCKED_POINTS_LEFT_THRESHOLD) * ONE_SECOND_IN_MILLISECONDS
+            }
+            delay((delayMilliseconds / playbackRate).toLong())
 
             playNextLeg()
         }
@@ -174,6 +191,8 @@ open class ReplayRouteLocationEngine(
             "Speed must be greater than 0 km/h."
         private const val DELAY_MUST_BE_GREATER_THAN_ZERO_SECONDS =
             "Delay must be greater than 0 seconds."
+        private const val PLAYBACK_RATE_MUST_BE_GREATER_THAN_ZERO =
+            "Playback rate must be greater than 0."
         private const val REPLAY_ROUTE = "ReplayRouteLocation"
     }
 
@@ -0,0 +1,94 @@
+package org.maplibre.navigation.core.location.trace
+
+import co.touchlab.kermit.Logger
+import org.maplibre.navigation.core.location.Location
+import kotlin.time.Instant
+
+/**
+ * Streaming parser of GPX track points. Lines are collected only until the current `trkpt`
+ * element is complete, so the size of the trace doesn't matter.
+ */
+internal object GpxTraceParser {
+    private const val TRACK_POINT_START = "<trkpt"
+    private const val TRACK_POINT_END = "</trkpt>"
+
+    private val latitudeRegex = attributeRegex("lat")
+    private val longitudeRegex = attributeRegex("lon")
+    private val elevationRegex = elementRegex("ele")
+    private val timeRegex = elementRegex("time")
+    private val speedRegex = elementRegex("speed")
+    private val courseRegex = elementRegex("course")
+
+    fun parse(lines: Sequence<String>): Sequence<Location> = sequence {
+        val buffer = StringBuilder()
+        for (line in lines) {
+            buffer.append(line).append('\n')
+
+            while (true) {
+                val start = buffer.indexOf(TRACK_POINT_START)
+                if (start < 0) {
+                    // Keep a possibly incomplete start tag at the end of the buffer
+                    buffer.deleteRange(0, maxOf(0, buffer.length - TRACK_POINT_START.length))
+                    break
+                }
+
+                val end = findTrackPointEnd(buffer, start)
+                if (end < 0) {
+                    buffer.deleteRange(0, start)
+                    break
+                }
+
+                parseTrackPoint(buffer.substring(start, end))?.let { location -> yield(location) }
+                buffer.deleteRange(0, end)
+            }
+        }
+    }
+
+    /**
+     * @return index after the end of the track point element, or -1 if it isn't complete yet
+     */
+    private fun findTrackPointEnd(buffer: StringBuilder, start: Int): Int {
+        val startTagEnd = buffer.indexOf(">", start)
+        if (startTagEnd < 0) {
+            return -1
+        }
+        if (buffer[startTagEnd - 1] == '/') {
+            return startTagEnd + 1
+        }
+
+        val end = buffer.indexOf(TRACK_POINT_END, startTagEnd)
+        return if (end < 0) -1 else end + TRACK_POINT_END.length
+    }
+
+    private fun parseTrackPoint(trackPoint: String): Location? {
+        val latitude = latitudeRegex.find(trackPoint)?.groupValues?.get(1)?.toDoubleOrNull()
+        val longitude = longitudeRegex.find(trackPoint)?.groupValues?.get(1)?.toDoubleOrNull()
+        if (latitude == null || longitude == null) {
+            Logger.w { "Skipping GPX track point without coordinates: $trackPoint" }
+            return null
+        }
+
+        return Location(
+            latitude = latitude,
+            longitude = longitude,
+            altitude = elevationRegex.find(trackPoint)?.groupValues?.get(1)?.toDoubleOrNull(),
+            speedMetersPerSeconds = speedRegex.find(trackPoint)?.groupValues?.get(1)?.toFloatOrNull(),
+            bearing = courseRegex.find(trackPoint)?.groupValues?.get(1)?.toFloatOrNull(),
+            timeMilliseconds = timeRegex.find(trackPoint)?.groupValues?.get(1)?.let(::parseTime),
+            provider = TraceLocationEngine.PROVIDER_NAME
+        )
+    }
+
+    private fun parseTime(time: String): Long? {
+        return try {
+            Instant.parse(time).toEpochMilliseconds()
+        } catch (e: IllegalArgumentException) {
+            Logger.w(e) { "Skipping invalid GPX time: $time" }
+            null
+        }
+    }
+
+    private fun attributeRegex(name: String) = Regex("""\s$name\s*=\s*["']([^"']+)["']""")
+
+    private fun elementRegex(name: String) = Regex("""<$name>\s*([^<]+?)\s*</$name>""")
+}
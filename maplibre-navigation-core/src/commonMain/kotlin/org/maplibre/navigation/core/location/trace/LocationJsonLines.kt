@@ -0,0 +1,106 @@
+package org.maplibre.navigation.core.location.trace
+
+import co.touchlab.kermit.Logger
+import kotlinx.serialization.SerialName
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.SerializationException
+import org.maplibre.navigation.core.json
+import org.maplibre.navigation.core.location.Location
+
+/**
+ * Compact JSON representation of a [Location], one location per line. Missing values are left
+ * out, for example:
+ *
+ * `{"lat":52.52,"lng":13.405,"t":1700000000000,"acc":4.0,"spd":13.9,"brg":92.5}`
+ *
+ * @since 5.0.0
+ */
+object LocationJsonLines {
+
+    /**
+     * Encodes the location to a single line, without a line terminator.
+     */
+    fun encode(location: Location): String {
+        return json.encodeToString(
+            TraceLocation.serializer(),
+            TraceLocation(
+                latitude = location.latitude,
+                longitude = location.longitude,
+                timeMilliseconds = location.timeMilliseconds,
+                accuracyMeters = location.accuracyMeters,
+                altitude = location.altitude,
+                altitudeAccuracyMeters = location.altitudeAccuracyMeters,
+                mslAltitude = location.mslAltitude,
+                mslAltitudeAccuracyMeters = location.mslAltitudeAccuracyMeters,
+                speedMetersPerSeconds = location.speedMetersPerSeconds,
+                bearing = location.bearing,
+                provider = location.provider
+            )
+        )
+    }
+
+    /**
+     * Decodes a single line, written by [encode].
+     *
+     * @throws SerializationException if the line is no valid location
+     */
+    fun decode(line: String): Location {
+        val traceLocation = json.decodeFromString(TraceLocation.serializer(), line)
+        return Location(
+            latitude = traceLocation.latitude,
+            longitude = traceLocation.longitude,
+            timeMilliseconds = traceLocation.timeMilliseconds,
+            accuracyMeters = traceLocation.accuracyMeters,
+            altitude = traceLocation.altitude,
+            altitudeAccuracyMeters = traceLocation.altitudeAccuracyMeters,
+            mslAltitude = traceLocation.mslAltitude,
+            mslAltitudeAccuracyMeters = traceLocation.mslAltitudeAccuracyMeters,
+            speedMetersPerSeconds = traceLocation.speedMetersPerSeconds,
+            bearing = traceLocation.bearing,
+            provider = traceLocation.provider
+        )
+    }
+
+    /**
+     * Decodes a single line, or returns null for blank and invalid lines.
+     */
+    internal fun decodeOrNull(line: String): Location? {
+        if (line.isBlank()) {
+            return null
+        }
+
+        // SerializationException is an IllegalArgumentException
+        return try {
+            decode(line)
+        } catch (e: IllegalArgumentException) {
+            Logger.w(e) { "Skipping invalid trace line: $line" }
+            null
+        }
+    }
+
+    @Serializable
+    private class TraceLocation(
+        @SerialName("lat")
+        val latitude: Double,
+        @SerialName("lng")
+        val longitude: Double,
+        @SerialName("t")
+        val timeMilliseconds: Long? = null,
+        @SerialName("acc")
+        val accuracyMeters: Float? = null,
+        @SerialName("alt")
+        val altitude: Double? = null,
+        @SerialName("altAcc")
+        val altitudeAccuracyMeters: Float? = null,
+        @SerialName("msl")
+        val mslAltitude: Double? = null,
+        @SerialName("mslAcc")
+        val mslAltitudeAccuracyMeters: Float? = null,
+        @SerialName("spd")
+        val speedMetersPerSeconds: Float? = null,
+        @SerialName("brg")
+        val bearing: Float? = null,
+        @SerialName("src")
+        val provider: String? = null,
+    )
+}
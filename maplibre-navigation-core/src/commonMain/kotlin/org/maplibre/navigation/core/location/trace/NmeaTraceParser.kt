@@ -0,0 +1,131 @@
+package org.maplibre.navigation.core.location.trace
+
+import co.touchlab.kermit.Logger
+import org.maplibre.navigation.core.location.Location
+import kotlin.time.Instant
+
+/**
+ * Streaming parser of NMEA 0183 sentences. Every valid `RMC` sentence creates a location, which
+ * gets the altitude of the last `GGA` sentence with the same time. The `GGA` altitude is above the
+ * mean sea level, the altitude above the ellipsoid is only set if the sentence holds the geoid
+ * separation. Sentences with an invalid checksum are skipped.
+ */
+internal object NmeaTraceParser {
+    private const val KNOTS_TO_METERS_PER_SECOND = 0.514444
+    private const val MINUTES_PER_DEGREE = 60.0
+
+    fun parse(lines: Sequence<String>): Sequence<Location> = sequence {
+        var lastFixTime: String? = null
+        var lastFixMslAltitude: Double? = null
+        var lastFixGeoidSeparation: Double? = null
+
+        for (line in lines) {
+            val fields = parseSentence(line.trim()) ?: continue
+            when (fields[0].takeLast(3)) {
+                // Fields: type, time, ..., altitude above mean sea level (9), unit, geoid separation (11)
+                "GGA" -> if (fields.size > 9) {
+                    lastFixTime = fields[1]
+                    lastFixMslAltitude = fields[9].toDoubleOrNull()
+                    lastFixGeoidSeparation = fields.getOrNull(11)?.toDoubleOrNull()
+                }
+
+                "RMC" -> parseRmc(fields)?.let { location ->
+                    yield(
+                        if (lastFixTime == fields[1]) {
+                            location.copy(
+                                altitude = lastFixGeoidSeparation?.let { geoidSeparation ->
+                                    lastFixMslAltitude?.plus(geoidSeparation)
+                                },
+                                mslAltitude = lastFixMslAltitude
+                            )
+                        } else {
+                            location
+                        }
+                    )
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a sentence into its fields, starting with the sentence type.
+     *
+     * @return the fields, or null if the line is no sentence or has an invalid checksum
+     */
+    private fun parseSentence(line: String): List<String>? {
+        if (!line.startsWith("$")) {
+            return null
+        }
+
+        val checksumStart = line.lastIndexOf('*')
+        val sentence = if (checksumStart >= 0) line.substring(1, checksumStart) else line.substring(1)
+        if (checksumStart >= 0) {
+            val expectedChecksum = line.substring(checksumStart + 1).toIntOrNull(16)
+            val checksum = sentence.fold(0) { checksum, char -> checksum xor char.code }
+            if (expectedChecksum != checksum) {
+                Logger.w { "Skipping NMEA sentence with invalid checksum: $line" }
+                return null
+            }
+        }
+        return sentence.split(',')
+    }
+
+    /**
+     * Fields: type, time, status, latitude, N/S, longitude, E/W, speed in knots, course, date.
+     */
+    private fun parseRmc(fields: List<String>): Location? {
+        if (fields.size < 10 || fields[2] != "A") {
+            return null
+        }
+
+        val latitude = parseCoordinate(fields[3], fields[4]) ?: return null
+        val longitude = parseCoordinate(fields[5], fields[6]) ?: return null
+        return Location(
+            latitude = latitude,
+            longitude = longitude,
+            speedMetersPerSeconds = fields[7].toDoubleOrNull()
+                ?.let { knots -> (knots * KNOTS_TO_METERS_PER_SECOND).toFloat() },
+            bearing = fields[8].toFloatOrNull(),
+            timeMilliseconds = parseTime(fields[1], fields[9]),
+            provider = TraceLocationEngine.PROVIDER_NAME
+        )
+    }
+
+    /**
+     * Parses a coordinate in the format `dddmm.mmmm`.
+     */
+    private fun parseCoordinate(value: String, hemisphere: String): Double? {
+        val pointIndex = value.indexOf('.').takeIf { index -> index >= 0 } ?: value.length
+        if (pointIndex < 2) {
+            return null
+        }
+
+        val degrees = value.substring(0, pointIndex - 2).toIntOrNull() ?: return null
+        val minutes = value.substring(pointIndex - 2).toDoubleOrNull() ?: return null
+        val coordinate = degrees + minutes / MINUTES_PER_DEGREE
+        return when (hemisphere) {
+            "N", "E" -> coordinate
+            "S", "W" -> -coordinate
+            else -> null
+        }
+    }
+
+    /**
+     * Parses the time `hhmmss.sss` and date `ddmmyy` of an RMC sentence.
+     */
+    private fun parseTime(time: String, date: String): Long? {
+        if (time.length < 6 || date.length != 6) {
+            return null
+        }
+
+        val fraction = time.substring(6).takeIf { fraction -> fraction.startsWith(".") } ?: ""
+        val isoTime = "20${date.substring(4, 6)}-${date.substring(2, 4)}-${date.substring(0, 2)}" +
+            "T${time.substring(0, 2)}:${time.substring(2, 4)}:${time.substring(4, 6)}${fraction}Z"
+        return try {
+            Instant.parse(isoTime).toEpochMilliseconds()
+        } catch (e: IllegalArgumentException) {
+            Logger.w(e) { "Skipping invalid NMEA time: $time $date" }
+            null
+        }
+    }
+}
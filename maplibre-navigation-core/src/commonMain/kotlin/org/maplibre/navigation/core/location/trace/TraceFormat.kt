@@ -0,0 +1,39 @@
+package org.maplibre.navigation.core.location.trace
+
+import org.maplibre.navigation.core.location.Location
+
+/**
+ * File formats of recorded location traces, which can be replayed by [TraceLocationEngine].
+ *
+ * @since 5.0.0
+ */
+enum class TraceFormat {
+    /**
+     * GPS Exchange Format. Every `trkpt` element is one location, with the optional `ele`, `time`,
+     * `speed` and `course` children.
+     */
+    GPX,
+
+    /**
+     * NMEA 0183 sentences. Every valid `RMC` sentence is one location, the altitude is taken from
+     * a preceding `GGA` sentence of the same time. All other sentences are ignored.
+     */
+    NMEA,
+
+    /**
+     * One JSON object per line, as written by [LocationJsonLines.encode].
+     */
+    JSON_LINES;
+
+    /**
+     * Lazily parses the given lines into locations. Only the lines of the location, which is
+     * currently parsed, are kept in memory.
+     */
+    internal fun parse(lines: Sequence<String>): Sequence<Location> {
+        return when (this) {
+            GPX -> GpxTraceParser.parse(lines)
+            NMEA -> NmeaTraceParser.parse(lines)
+            JSON_LINES -> lines.mapNotNull(LocationJsonLines::decodeOrNull)
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.maplibre.navigation.core.location.trace
+
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
+import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.location.engine.LocationEngine
+import org.maplibre.navigation.core.location.replay.ReplayLocationDispatcher
+import kotlin.concurrent.Volatile
+import kotlin.jvm.JvmOverloads
+
+/**
+ * Location engine, which replays a recorded trace. The trace is read and parsed while it is
+ * replayed, so only the current location is kept in memory, independent of the length of the
+ * recording.
+ *
+ * Locations are emitted with the time between their timestamps, divided by the [playbackRate].
+ * The requested intervals of [LocationEngine.Request] are ignored, the trace defines the
+ * intervals. Every call to [listenToLocation] replays the trace from the beginning.
+ *
+ * @param source source of the recorded trace
+ * @param format file format of the trace
+ * @param playbackRate multiplier of the replay speed, see [updatePlaybackRate]
+ * @param dispatcher dispatcher the trace is read on
+ *
+ * @since 5.0.0
+ */
+open class TraceLocationEngine @JvmOverloads constructor(
+    private val source: TraceSource,
+    private val format: TraceFormat,
+    playbackRate: Double = ReplayLocationDispatcher.DEFAULT_PLAYBACK_RATE,
+    private val dispatcher: CoroutineDispatcher = Dispatchers.Default
+) : LocationEngine {
+
+    /**
+     * Multiplier of the replay speed. The timestamps of the locations are never changed.
+     */
+    @Volatile
+    var playbackRate: Double = playbackRate
+        private set
+
+    /**
+     * Last replayed location, or null if nothing was replayed yet.
+     */
+    @Volatile
+    var lastLocation: Location? = null
+        private set
+
+    init {
+        require(playbackRate > 0) { PLAYBACK_RATE_MUST_BE_GREATER_THAN_ZERO }
+    }
+
+    /**
+     * Replays the trace faster or slower than real time, starting with the next location.
+     *
+     * @param playbackRate multiplier of the replay speed, must be greater than 0. Use
+     * [ReplayLocationDispatcher.PLAYBACK_RATE_AS_FAST_AS_POSSIBLE] to replay without waiting.
+     */
+    fun updatePlaybackRate(playbackRate: Double) {
+        require(playbackRate > 0) { PLAYBACK_RATE_MUST_BE_GREATER_THAN_ZERO }
+        this.playbackRate = playbackRate
+    }
+
+    override fun listenToLocation(request: LocationEngine.Request): Flow<Location> = flow {
+        source.open().use { reader ->
+            var previousTime: Long? = null
+            for (location in format.parse(generateSequence(reader::readLine))) {
+                val time = location.timeMilliseconds
+                if (previousTime != null && time != null && time > previousTime) {
+                    delay(((time - previousTime) / playbackRate).toLong())
+                }
+                previousTime = time ?: previousTime
+
+                lastLocation = location
+                emit(location)
+            }
+        }
+    }.flowOn(dispatcher)
+
+    override suspend fun getLastLocation(): Location? {
+        return lastLocation
+    }
+
+    companion object {
+        const val PROVIDER_NAME = "TraceLocation"
+        private const val PLAYBACK_RATE_MUST_BE_GREATER_THAN_ZERO =
+            "Playback rate must be greater than 0."
+    }
+}
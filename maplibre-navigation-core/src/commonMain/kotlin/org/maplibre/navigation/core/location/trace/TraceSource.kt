@@ -0,0 +1,48 @@
+package org.maplibre.navigation.core.location.trace
+
+/**
+ * Source of a recorded location trace, which is read line by line. Every call to [open] starts
+ * reading from the beginning of the trace.
+ *
+ * @since 5.0.0
+ */
+fun interface TraceSource {
+
+    /**
+     * Opens a new reader of the trace. The reader is closed, once the trace was replayed or the
+     * replay was cancelled.
+     */
+    fun open(): TraceReader
+
+    companion object {
+
+        /**
+         * Creates a source of an already loaded trace, for example for tests.
+         *
+         * @param text the whole trace
+         */
+        fun fromText(text: String): TraceSource = TraceSource {
+            val lines = text.lineSequence().iterator()
+            object : TraceReader {
+                override fun readLine(): String? = if (lines.hasNext()) lines.next() else null
+
+                override fun close() = Unit
+            }
+        }
+    }
+}
+
+/**
+ * Reader of a [TraceSource].
+ *
+ * @since 5.0.0
+ */
+interface TraceReader : AutoCloseable {
+
+    /**
+     * Reads the next line of the trace, without the line terminator.
+     *
+     * @return the next line, or null at the end of the trace
+     */
+    fun readLine(): String?
+}
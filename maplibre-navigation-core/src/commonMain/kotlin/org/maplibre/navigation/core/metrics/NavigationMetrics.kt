@@ -0,0 +1,48 @@
+package org.maplibre.navigation.core.metrics
+
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.nanoseconds
+
+/**
+ * Processing metrics of a single location update.
+ *
+ * @since 5.0.0
+ */
+class NavigationMetrics internal constructor(
+    private val stageDurationsNanos: LongArray,
+    private val stageHistograms: List<StageHistogram>,
+) {
+
+    /**
+     * Duration of the given stage while processing this location update.
+     *
+     * @param stage the processing stage
+     * @return duration of the stage
+     */
+    fun duration(stage: NavigationStage): Duration {
+        return stageDurationsNanos[stage.ordinal].nanoseconds
+    }
+
+    /**
+     * Histogram of the durations of the given stage, over all location updates recorded by the
+     * navigation engine.
+     *
+     * @param stage the processing stage
+     * @return histogram of the stage durations
+     */
+    fun histogram(stage: NavigationStage): StageHistogram {
+        return stageHistograms[stage.ordinal]
+    }
+
+    /**
+     * Summed duration of all stages while processing this location update.
+     */
+    val totalDuration: Duration
+        get() = stageDurationsNanos.sum().nanoseconds
+
+    override fun toString(): String {
+        return NavigationStage.entries.joinToString(prefix = "NavigationMetrics(", postfix = ")") { stage ->
+            "$stage=${duration(stage)}"
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.maplibre.navigation.core.metrics
+
+import org.maplibre.navigation.core.navigation.MapLibreNavigation
+import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions
+
+/**
+ * Receives processing metrics of every location update, see [NavigationMetrics]. Metrics are only
+ * recorded while at least one listener is added to [MapLibreNavigation].
+ */
+fun interface NavigationMetricsListener {
+
+    /**
+     * Called like all other listeners, as defined by [MapLibreNavigationOptions.dispatchStrategy],
+     * after all other listeners were informed about the location update.
+     *
+     * @param metrics the durations of the processed location update and the histograms of all
+     * location updates so far
+     */
+    fun onLocationProcessed(metrics: NavigationMetrics)
+}
@@ -0,0 +1,30 @@
+package org.maplibre.navigation.core.metrics
+
+/**
+ * Collects the stage durations of all location updates into histograms. Not thread safe, all
+ * durations need to be recorded sequentially.
+ */
+internal class NavigationMetricsRecorder {
+    private val stageHistograms = Array(NavigationStage.entries.size) { StageHistogramRecorder() }
+
+    /**
+     * Creates empty stage durations, to be filled while processing a location update.
+     */
+    fun createStageDurations(): LongArray = LongArray(NavigationStage.entries.size)
+
+    /**
+     * Records the stage durations of a processed location update.
+     *
+     * @param stageDurationsNanos durations of all stages in nanoseconds, indexed by [NavigationStage.ordinal]
+     * @return metrics of the location update
+     */
+    fun record(stageDurationsNanos: LongArray): NavigationMetrics {
+        for (stageIndex in stageHistograms.indices) {
+            stageHistograms[stageIndex].record(stageDurationsNanos[stageIndex])
+        }
+        return NavigationMetrics(
+            stageDurationsNanos = stageDurationsNanos,
+            stageHistograms = stageHistograms.map(StageHistogramRecorder::snapshot)
+        )
+    }
+}
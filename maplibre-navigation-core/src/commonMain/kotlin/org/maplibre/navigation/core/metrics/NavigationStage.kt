@@ -0,0 +1,39 @@
+package org.maplibre.navigation.core.metrics
+
+import org.maplibre.navigation.core.navigation.engine.MapLibreNavigationEngine
+
+/**
+ * The stages of processing a single location update in [MapLibreNavigationEngine].
+ */
+enum class NavigationStage {
+    /**
+     * Validating the accuracy and time of the location update.
+     */
+    LOCATION_VALIDATION,
+
+    /**
+     * Building the new route progress, including the projection onto the route.
+     */
+    ROUTE_PROGRESS,
+
+    /**
+     * Checking whether the user is off route.
+     */
+    OFF_ROUTE,
+
+    /**
+     * Checking all milestones for being triggered.
+     */
+    MILESTONES,
+
+    /**
+     * Snapping the location to the route.
+     */
+    SNAPPING,
+
+    /**
+     * Latency between handing the results to the main thread and the main thread starting to
+     * dispatch them to the listeners.
+     */
+    DISPATCH,
+}
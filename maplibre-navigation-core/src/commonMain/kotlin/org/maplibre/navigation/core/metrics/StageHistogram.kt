@@ -0,0 +1,121 @@
+package org.maplibre.navigation.core.metrics
+
+import kotlin.math.ceil
+import kotlin.math.floor
+import kotlin.math.log2
+import kotlin.math.pow
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.microseconds
+import kotlin.time.Duration.Companion.nanoseconds
+
+/**
+ * Histogram of the durations of a [NavigationStage]. Durations are counted in fixed buckets, which
+ * grow exponentially with four buckets per power of two microseconds. Percentiles are therefore
+ * accurate to about 19%, which is enough to tell microseconds from milliseconds.
+ *
+ * @since 5.0.0
+ */
+class StageHistogram internal constructor(
+    private val bucketCounts: IntArray,
+
+    /**
+     * Number of recorded durations.
+     */
+    val count: Int,
+
+    /**
+     * Longest recorded duration.
+     */
+    val max: Duration,
+) {
+
+    /**
+     * Median of the recorded durations.
+     */
+    val p50: Duration
+        get() = percentile(0.50)
+
+    /**
+     * 95th percentile of the recorded durations.
+     */
+    val p95: Duration
+        get() = percentile(0.95)
+
+    /**
+     * 99th percentile of the recorded durations.
+     */
+    val p99: Duration
+        get() = percentile(0.99)
+
+    /**
+     * Duration which the given fraction of recorded durations doesn't exceed, rounded up to the
+     * bucket bound and capped at [max].
+     *
+     * @param percentile fraction between 0.0 and 1.0
+     * @return the percentile, or [Duration.ZERO] if nothing was recorded
+     */
+    fun percentile(percentile: Double): Duration {
+        if (count == 0) {
+            return Duration.ZERO
+        }
+
+        val rank = ceil(percentile.coerceIn(0.0, 1.0) * count).toInt().coerceAtLeast(1)
+        var cumulativeCount = 0
+        for (bucketIndex in bucketCounts.indices) {
+            cumulativeCount += bucketCounts[bucketIndex]
+            if (cumulativeCount >= rank) {
+                return minOf(bucketUpperBound(bucketIndex), max)
+            }
+        }
+        return max
+    }
+
+    override fun toString(): String {
+        return "StageHistogram(count=$count, p50=$p50, p95=$p95, p99=$p99, max=$max)"
+    }
+
+    internal companion object {
+        private const val BUCKETS_PER_POWER_OF_TWO = 4
+        private const val POWERS_OF_TWO = 27
+        const val BUCKET_COUNT = BUCKETS_PER_POWER_OF_TWO * POWERS_OF_TWO + 1
+
+        /**
+         * Index of the bucket counting the given duration. Bucket 0 holds everything below one
+         * microsecond, the last bucket everything above about two minutes.
+         */
+        fun bucketIndex(durationNanos: Long): Int {
+            val micros = durationNanos / 1_000.0
+            if (micros < 1.0) {
+                return 0
+            }
+            val bucketIndex = floor(log2(micros) * BUCKETS_PER_POWER_OF_TWO).toInt() + 1
+            return bucketIndex.coerceAtMost(BUCKET_COUNT - 1)
+        }
+
+        fun bucketUpperBound(bucketIndex: Int): Duration {
+            if (bucketIndex == BUCKET_COUNT - 1) {
+                return Duration.INFINITE
+            }
+            return 2.0.pow(bucketIndex.toDouble() / BUCKETS_PER_POWER_OF_TWO).microseconds
+        }
+    }
+}
+
+/**
+ * Mutable counterpart of [StageHistogram], recording the durations of a single stage.
+ */
+internal class StageHistogramRecorder {
+    private val bucketCounts = IntArray(StageHistogram.BUCKET_COUNT)
+    private var count = 0
+    private var maxNanos = 0L
+
+    fun record(durationNanos: Long) {
+        bucketCounts[StageHistogram.bucketIndex(durationNanos)]++
+        count++
+        maxNanos = maxOf(maxNanos, durationNanos)
+    }
+
+    fun snapshot(): StageHistogram {
+        return StageHistogram(bucketCounts.copyOf(), count, maxNanos.nanoseconds)
+    }
+}
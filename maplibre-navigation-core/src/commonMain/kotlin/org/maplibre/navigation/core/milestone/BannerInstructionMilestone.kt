@@ -30,16 +30,15 @@ open class BannerInstructionMilestone(
     var bannerInstructions: BannerInstructions? = null
         private set
 
+    private val instructionCursor = InstructionCursor()
+
     override fun isOccurring(
         previousRouteProgress: RouteProgress?,
         routeProgress: RouteProgress
     ): Boolean {
         val stepDistanceRemaining =
             routeProgress.currentLegProgress.currentStepProgress.distanceRemaining
-        val instructions = routeUtils.findCurrentBannerInstructions(
-            routeProgress.currentLegProgress.currentStep,
-            stepDistanceRemaining
-        )
+        val instructions = findCurrentInstructions(routeProgress, stepDistanceRemaining)
 
         return if (shouldBeShown(instructions, stepDistanceRemaining)) {
             this.bannerInstructions = instructions
@@ -49,6 +48,23 @@ open class BannerInstructionMilestone(
         }
     }
 
+    /**
+     * Finds the current banner instructions, using the presorted instructions of the route geometry
+     * index if available.
+     */
+    private fun findCurrentInstructions(
+        routeProgress: RouteProgress,
+        stepDistanceRemaining: Double
+    ): BannerInstructions? {
+        return routeProgress.routeGeometryIndex
+            ?.bannerInstructions(routeProgress.legIndex, routeProgress.currentLegProgress.stepIndex)
+            ?.let { sortedInstructions -> instructionCursor.find(sortedInstructions, stepDistanceRemaining) }
+            ?: routeUtils.findCurrentBannerInstructions(
+                routeProgress.currentLegProgress.currentStep,
+                stepDistanceRemaining
+            )
+    }
+
     /**
      * Uses the current step distance remaining to check against banner instructions distance.
      *
@@ -0,0 +1,140 @@
+package org.maplibre.navigation.core.milestone
+
+/**
+ * Compiled form of a [Trigger.Statement], evaluated against a [TriggerSnapshot] instead of the
+ * boxed values of [TriggerProperty.getSparseArray]. Evaluating a compiled statement does not
+ * allocate, while producing the same results as [Trigger.Statement.isOccurring].
+ */
+internal abstract class CompiledStatement {
+
+    abstract fun isOccurring(snapshot: TriggerSnapshot): Boolean
+
+    /**
+     * All statements need to occur. Like [Trigger.all], every statement is evaluated.
+     */
+    class AllOf(private val statements: Array<CompiledStatement>) : CompiledStatement() {
+        override fun isOccurring(snapshot: TriggerSnapshot): Boolean {
+            var all = true
+            for (statement in statements) {
+                if (!statement.isOccurring(snapshot)) {
+                    all = false
+                }
+            }
+            return all
+        }
+    }
+
+    /**
+     * None of the statements may occur.
+     */
+    class NoneOf(private val statements: Array<CompiledStatement>) : CompiledStatement() {
+        override fun isOccurring(snapshot: TriggerSnapshot): Boolean {
+            for (statement in statements) {
+                if (statement.isOccurring(snapshot)) {
+                    return false
+                }
+            }
+            return true
+        }
+    }
+
+    /**
+     * At least one of the statements needs to occur.
+     */
+    class AnyOf(private val statements: Array<CompiledStatement>) : CompiledStatement() {
+        override fun isOccurring(snapshot: TriggerSnapshot): Boolean {
+            for (statement in statements) {
+                if (statement.isOccurring(snapshot)) {
+                    return true
+                }
+            }
+            return false
+        }
+    }
+
+    /**
+     * Compares a property against a fixed value, matching the semantics of [Operation].
+     *
+     * Equality follows the boxed number equality of [Operation.equal], so an integral property
+     * only equals an [Int] value and a decimal property only equals a [Double] value.
+     */
+    class Comparison private constructor(
+        private val key: Int,
+        private val operator: Operator,
+        comparedValue: Number
+    ) : CompiledStatement() {
+
+        private val value = comparedValue.toDouble()
+        private val isTrueValue = comparedValue == TriggerProperty.TRUE_VALUE
+        private val isIntValue = comparedValue is Int
+        private val isDoubleValue = comparedValue is Double
+
+        override fun isOccurring(snapshot: TriggerSnapshot): Boolean {
+            val valueCount = snapshot.valueCount(key)
+            val firstValue = snapshot.firstValue(key)
+
+            if (valueCount > 1) {
+                val secondValue = snapshot.secondValue(key)
+                val occurring = when (operator) {
+                    Operator.GREATER_THAN -> firstValue > secondValue
+                    Operator.GREATER_THAN_EQUAL -> firstValue >= secondValue
+                    Operator.LESS_THAN -> firstValue < secondValue
+                    Operator.LESS_THAN_EQUAL -> firstValue <= secondValue
+                    Operator.EQUAL -> firstValue == secondValue
+                    Operator.NOT_EQUAL -> firstValue != secondValue
+                }
+                return if (isTrueValue) occurring else !occurring
+            }
+
+            return when (operator) {
+                Operator.GREATER_THAN -> firstValue > value
+                Operator.GREATER_THAN_EQUAL -> firstValue >= value
+                Operator.LESS_THAN -> firstValue < value
+                Operator.LESS_THAN_EQUAL -> firstValue <= value
+                Operator.EQUAL -> isEqual(snapshot.isIntegral(key), firstValue)
+                Operator.NOT_EQUAL -> !isEqual(snapshot.isIntegral(key), firstValue)
+            }
+        }
+
+        private fun isEqual(isIntegral: Boolean, propertyValue: Double): Boolean {
+            val sameType = if (isIntegral) isIntValue else isDoubleValue
+            // compareTo matches boxed Double equality, including NaN and signed zero
+            return sameType && propertyValue.compareTo(value) == 0
+        }
+
+        companion object {
+
+            /**
+             * Creates the comparison, if the value can be compared at all. Other values fail
+             * on evaluation and are left to [Trigger.Statement.isOccurring].
+             */
+            fun create(key: Int, operator: Operator, value: Any?): Comparison? {
+                return (value as? Number)?.let { number -> Comparison(key, operator, number) }
+            }
+        }
+    }
+
+    enum class Operator {
+        GREATER_THAN,
+        GREATER_THAN_EQUAL,
+        LESS_THAN,
+        LESS_THAN_EQUAL,
+        EQUAL,
+        NOT_EQUAL
+    }
+
+    companion object {
+
+        /**
+         * Compiles all statements, or returns null if any of them can't be compiled.
+         */
+        fun compileAll(statements: Array<out Trigger.Statement>): Array<CompiledStatement>? {
+            val compiled = arrayOfNulls<CompiledStatement>(statements.size)
+            for (index in statements.indices) {
+                compiled[index] = statements[index].compile() ?: return null
+            }
+            @Suppress("UNCHECKED_CAST")
+            return compiled as Array<CompiledStatement>
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.maplibre.navigation.core.milestone
+
+import org.maplibre.navigation.core.geometry.SortedInstructions
+import org.maplibre.navigation.core.utils.RouteUtils
+
+/**
+ * Finds the current instruction of a step, like [RouteUtils.findCurrentBannerInstructions] and
+ * [RouteUtils.findCurrentVoiceInstructions], but on presorted [SortedInstructions].
+ *
+ * The cursor remembers the position of the last lookup. While travelling along a step the distance
+ * remaining only decreases, so the cursor moves at most a few instructions per location update. If
+ * the instructions change (new step or new route) the cursor starts over.
+ */
+internal class InstructionCursor {
+
+    private var sortedInstructions: SortedInstructions<*>? = null
+    private var index = 0
+
+    /**
+     * Finds the first instruction with a distance along the geometry of at least the step distance
+     * remaining, or the first instruction if there is none.
+     *
+     * @param sortedInstructions    the sorted instructions of the current step
+     * @param stepDistanceRemaining distance remaining along the current step
+     * @return current instruction or null if the step has no instructions
+     */
+    fun <T> find(sortedInstructions: SortedInstructions<T>, stepDistanceRemaining: Double): T? {
+        if (sortedInstructions.size == 0) {
+            return null
+        }
+        if (sortedInstructions !== this.sortedInstructions) {
+            this.sortedInstructions = sortedInstructions
+            index = 0
+        }
+
+        val distances = sortedInstructions.distancesAlongGeometry
+        while (index < distances.size && distances[index] < stepDistanceRemaining) {
+            index++
+        }
+        while (index > 0 && distances[index - 1] >= stepDistanceRemaining) {
+            index--
+        }
+
+        return sortedInstructions.instructions.getOrNull(index) ?: sortedInstructions.instructions.first()
+    }
+}
@@ -17,6 +17,14 @@ abstract class Milestone(
 
     private val internalInstruction = instruction
 
+    private val compiledTrigger: CompiledStatement? by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        trigger?.compile()
+    }
+
+    private val triggerSnapshot: TriggerSnapshot by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        TriggerSnapshot()
+    }
+
     /**
      * A milestone can either be passed in to the
      * [MapLibreNavigation] object
@@ -33,6 +41,26 @@ abstract class Milestone(
         routeProgress: RouteProgress
     ): Boolean
 
+    /**
+     * Evaluates the [trigger] for the given route progress. Triggers built with [Trigger] are
+     * evaluated against a reused snapshot of the [TriggerProperty] values, other statements
+     * against [TriggerProperty.getSparseArray].
+     *
+     * @param previousRouteProgress last locations generated [RouteProgress] object
+     * @param routeProgress         the current [RouteProgress]
+     * @return true if a trigger is set and occurring, else false
+     */
+    protected fun isTriggerOccurring(
+        previousRouteProgress: RouteProgress?,
+        routeProgress: RouteProgress
+    ): Boolean {
+        val trigger = trigger ?: return false
+        return compiledTrigger?.let { compiledTrigger ->
+            triggerSnapshot.update(previousRouteProgress, routeProgress)
+            compiledTrigger.isOccurring(triggerSnapshot)
+        } ?: trigger.isOccurring(TriggerProperty.getSparseArray(previousRouteProgress, routeProgress))
+    }
+
     open fun getInstruction(): Instruction? {
         return internalInstruction
     }
@@ -0,0 +1,19 @@
+package org.maplibre.navigation.core.milestone
+
+import org.maplibre.navigation.core.routeprogress.RouteProgress
+
+/**
+ * Triggered milestone, as emitted by
+ * [org.maplibre.navigation.core.navigation.MapLibreNavigation.milestoneEvents].
+ *
+ * @param routeProgress the progress along the route, which triggered the milestone
+ * @param instruction the instruction built by the milestone, if any
+ * @param milestone the triggered milestone
+ *
+ * @since 5.0.0
+ */
+data class MilestoneEvent(
+    val routeProgress: RouteProgress,
+    val instruction: String?,
+    val milestone: Milestone
+)
@@ -25,11 +25,7 @@ open class RouteMilestone(
             return false
         }
 
-        return trigger?.let { trigger ->
-            this@RouteMilestone.called = trigger.isOccurring(
-                TriggerProperty.getSparseArray(previousRouteProgress, routeProgress)
-            )
-            called
-        } ?: false
+        called = isTriggerOccurring(previousRouteProgress, routeProgress)
+        return called
     }
 }
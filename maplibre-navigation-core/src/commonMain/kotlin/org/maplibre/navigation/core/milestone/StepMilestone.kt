@@ -21,7 +21,7 @@ open class StepMilestone(
         previousRouteProgress: RouteProgress?,
         routeProgress: RouteProgress
     ): Boolean {
-        return trigger?.let { trigger ->
+        return trigger?.let {
             if (called) {
                 // Determine if the step index has changed and set called accordingly. This prevents multiple calls to
                 // onMilestoneEvent per Step.
@@ -34,11 +34,7 @@ open class StepMilestone(
                 }
             }
 
-            called = trigger.isOccurring(
-                TriggerProperty.getSparseArray(
-                    previousRouteProgress, routeProgress
-                )
-            )
+            called = isTriggerOccurring(previousRouteProgress, routeProgress)
 
             return@let called
         } ?: false
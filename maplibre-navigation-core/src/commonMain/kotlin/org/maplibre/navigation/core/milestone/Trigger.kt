@@ -140,6 +140,14 @@ object Trigger {
          * @since 0.4.0
          */
         abstract fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean
+
+        /**
+         * Compiles the statement for evaluation against a [TriggerSnapshot]. Statements created
+         * outside the SDK can't be compiled and are evaluated with [isOccurring].
+         *
+         * @return the compiled statement, or null if not supported
+         */
+        internal open fun compile(): CompiledStatement? = null
     }
 
     /*
@@ -151,6 +159,9 @@ object Trigger {
      * @since 0.4.0
      */
     private class AllStatement(vararg val statements: Statement) : Statement() {
+        override fun compile(): CompiledStatement? {
+            return CompiledStatement.compileAll(statements)?.let { CompiledStatement.AllOf(it) }
+        }
 
         override fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean {
             var all = true
@@ -169,6 +180,10 @@ object Trigger {
      * @since 0.4.0
      */
     private class NoneStatement(vararg val statements: Statement) : Statement() {
+        override fun compile(): CompiledStatement? {
+            return CompiledStatement.compileAll(statements)?.let { CompiledStatement.NoneOf(it) }
+        }
+
         override fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean {
             for (statement in statements) {
                 if (statement.isOccurring(statementObjects)) {
@@ -185,6 +200,10 @@ object Trigger {
      * @since 0.4.0
      */
     private class AnyStatement(vararg val statements: Statement) : Statement() {
+        override fun compile(): CompiledStatement? {
+            return CompiledStatement.compileAll(statements)?.let { CompiledStatement.AnyOf(it) }
+        }
+
         override fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean {
             for (statement in statements) {
                 if (statement.isOccurring(statementObjects)) {
@@ -206,6 +225,10 @@ object Trigger {
      */
     private class GreaterThanStatement(private val key: Int, private val value: Any?) :
         Statement() {
+        override fun compile(): CompiledStatement? {
+            return CompiledStatement.Comparison.create(key, CompiledStatement.Operator.GREATER_THAN, value)
+        }
+
         override fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean {
              return Operation.greaterThan(
                  statementObjects.getValue(key), value as Number
@@ -221,6 +244,10 @@ object Trigger {
      */
     private class GreaterThanEqualStatement(private val key: Int, private val value: Any?) :
         Statement() {
+        override fun compile(): CompiledStatement? {
+            return CompiledStatement.Comparison.create(key, CompiledStatement.Operator.GREATER_THAN_EQUAL, value)
+        }
+
         override fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean {
             return Operation.greaterThanEqual(
                 statementObjects.getValue(key), value as Number
@@ -234,6 +261,10 @@ object Trigger {
      * @since 0.4.0
      */
     private class LessThanStatement(private val key: Int, private val value: Any?) : Statement() {
+        override fun compile(): CompiledStatement? {
+            return CompiledStatement.Comparison.create(key, CompiledStatement.Operator.LESS_THAN, value)
+        }
+
         override fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean {
             return Operation.lessThan(
                 statementObjects.getValue(key), value as Number
@@ -249,6 +280,10 @@ object Trigger {
      */
     private class LessThanEqualStatement(private val key: Int, private val value: Any?) :
         Statement() {
+        override fun compile(): CompiledStatement? {
+            return CompiledStatement.Comparison.create(key, CompiledStatement.Operator.LESS_THAN_EQUAL, value)
+        }
+
         override fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean {
             return Operation.lessThanEqual(
                 statementObjects.getValue(key), value as Number
@@ -262,6 +297,10 @@ object Trigger {
      * @since 0.4.0
      */
     private class NotEqualStatement(private val key: Int, private val value: Any) : Statement() {
+        override fun compile(): CompiledStatement? {
+            return CompiledStatement.Comparison.create(key, CompiledStatement.Operator.NOT_EQUAL, value)
+        }
+
         override fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean {
             return Operation.notEqual(
                 statementObjects.getValue(key), value as Number
@@ -275,6 +314,10 @@ object Trigger {
      * @since 0.4.0
      */
     private class EqualStatement(private val key: Int, private val value: Any) : Statement() {
+        override fun compile(): CompiledStatement? {
+            return CompiledStatement.Comparison.create(key, CompiledStatement.Operator.EQUAL, value)
+        }
+
         override fun isOccurring(statementObjects: HashMap<Int, Array<Number>>): Boolean {
             return Operation.equal(
                 statementObjects.getValue(key), value as Number
@@ -0,0 +1,101 @@
+package org.maplibre.navigation.core.milestone
+
+import org.maplibre.navigation.core.routeprogress.RouteProgress
+
+/**
+ * Reusable primitive representation of all [TriggerProperty] values of a location update.
+ *
+ * This is the allocation free counterpart of [TriggerProperty.getSparseArray]. Values are stored
+ * by their property id, together with the number of values (one, or two for pair properties) and
+ * whether they were integral numbers. A property without values is missing, like a missing key of
+ * the map.
+ */
+internal class TriggerSnapshot {
+    private val valueCounts = IntArray(PROPERTY_COUNT)
+    private val integralValues = BooleanArray(PROPERTY_COUNT)
+    private val firstValues = DoubleArray(PROPERTY_COUNT)
+    private val secondValues = DoubleArray(PROPERTY_COUNT)
+
+    /**
+     * Updates all values for the given route progress. The properties are written in the same
+     * order as [TriggerProperty.getSparseArray] does, so properties sharing the same id resolve
+     * to the same value.
+     *
+     * @param previousRouteProgress route progress of the last location update
+     * @param routeProgress current route progress
+     */
+    fun update(previousRouteProgress: RouteProgress?, routeProgress: RouteProgress) {
+        valueCounts.fill(0)
+
+        val currentLegProgress = routeProgress.currentLegProgress
+        val currentStep = currentLegProgress.currentStep
+        val currentStepProgress = currentLegProgress.currentStepProgress
+
+        put(TriggerProperty.STEP_DISTANCE_TOTAL_METERS, currentStep.distance)
+        put(TriggerProperty.STEP_DURATION_TOTAL_SECONDS, currentStep.duration)
+        put(TriggerProperty.STEP_DISTANCE_REMAINING_METERS, currentStepProgress.distanceRemaining)
+        put(TriggerProperty.STEP_DURATION_REMAINING_SECONDS, currentStepProgress.durationRemaining)
+        put(TriggerProperty.STEP_DISTANCE_TRAVELED_METERS, currentStepProgress.distanceTraveled)
+        put(TriggerProperty.STEP_INDEX, currentLegProgress.stepIndex)
+
+        previousRouteProgress?.currentLegProgress?.let { previousLegProgress ->
+            put(TriggerProperty.NEW_STEP, previousLegProgress.stepIndex, currentLegProgress.stepIndex)
+        }
+
+        put(TriggerProperty.LAST_STEP, currentLegProgress.stepIndex, routeProgress.currentLeg.steps.size - 2)
+        put(TriggerProperty.FIRST_STEP, currentLegProgress.stepIndex, 0)
+
+        currentLegProgress.upComingStep?.let { upComingStep ->
+            put(TriggerProperty.NEXT_STEP_DURATION_SECONDS, upComingStep.duration)
+            put(TriggerProperty.NEXT_STEP_DISTANCE_METERS, upComingStep.distance)
+        }
+
+        put(TriggerProperty.FIRST_LEG, routeProgress.legIndex, 0)
+        put(TriggerProperty.LAST_LEG, routeProgress.legIndex, routeProgress.directionsRoute.legs.size - 1)
+    }
+
+    /**
+     * Number of values of the property.
+     *
+     * @param key the property id
+     * @return 1 for single value properties, 2 for pair properties
+     * @throws NoSuchElementException if the property is missing, same as reading a missing key of
+     * [TriggerProperty.getSparseArray]
+     */
+    fun valueCount(key: Int): Int {
+        val valueCount = valueCounts.getOrNull(key) ?: 0
+        if (valueCount == 0) {
+            throw NoSuchElementException("Key $key is missing in the map.")
+        }
+        return valueCount
+    }
+
+    fun isIntegral(key: Int): Boolean = integralValues[key]
+
+    fun firstValue(key: Int): Double = firstValues[key]
+
+    fun secondValue(key: Int): Double = secondValues[key]
+
+    private fun put(key: Int, value: Double) {
+        valueCounts[key] = 1
+        integralValues[key] = false
+        firstValues[key] = value
+    }
+
+    private fun put(key: Int, value: Int) {
+        valueCounts[key] = 1
+        integralValues[key] = true
+        firstValues[key] = value.toDouble()
+    }
+
+    private fun put(key: Int, firstValue: Int, secondValue: Int) {
+        valueCounts[key] = 2
+        integralValues[key] = true
+        firstValues[key] = firstValue.toDouble()
+        secondValues[key] = secondValue.toDouble()
+    }
+
+    companion object {
+        private const val PROPERTY_COUNT = TriggerProperty.NEXT_STEP_DURATION_SECONDS + 1
+    }
+}
@@ -20,6 +20,7 @@ open class VoiceInstructionMilestone(
 ) : Milestone(identifier, instruction, trigger) {
 
     private var instructions: VoiceInstructions? = null
+    private val instructionCursor = InstructionCursor()
 
     override fun isOccurring(
         previousRouteProgress: RouteProgress?,
@@ -28,10 +29,7 @@ open class VoiceInstructionMilestone(
         val stepDistanceRemaining = routeProgress.currentLegProgress
             .currentStepProgress
             .distanceRemaining
-        val instructions = routeUtils.findCurrentVoiceInstructions(
-            routeProgress.currentLegProgress.currentStep,
-            stepDistanceRemaining
-        )
+        val instructions = findCurrentInstructions(routeProgress, stepDistanceRemaining)
 
         return if (shouldBeVoiced(instructions, stepDistanceRemaining)) {
             this.instructions = instructions
@@ -41,6 +39,23 @@ open class VoiceInstructionMilestone(
         }
     }
 
+    /**
+     * Finds the current voice instructions, using the presorted instructions of the route geometry
+     * index if available.
+     */
+    private fun findCurrentInstructions(
+        routeProgress: RouteProgress,
+        stepDistanceRemaining: Double
+    ): VoiceInstructions? {
+        return routeProgress.routeGeometryIndex
+            ?.voiceInstructions(routeProgress.legIndex, routeProgress.currentLegProgress.stepIndex)
+            ?.let { sortedInstructions -> instructionCursor.find(sortedInstructions, stepDistanceRemaining) }
+            ?: routeUtils.findCurrentVoiceInstructions(
+                routeProgress.currentLegProgress.currentStep,
+                stepDistanceRemaining
+            )
+    }
+
     override fun getInstruction(): Instruction {
         return Instruction { routeProgress ->
             instructions?.announcement
@@ -1,6 +1,7 @@
 package org.maplibre.navigation.core.models
 
 import kotlinx.serialization.Serializable
+import kotlinx.serialization.SerializationException
 import kotlinx.serialization.encodeToString
 import org.maplibre.navigation.core.json
 import kotlin.jvm.JvmStatic
@@ -87,6 +88,42 @@ data class DirectionsResponse(
 
         @JvmStatic
         fun fromJson(jsonString: String): DirectionsResponse = json.decodeFromString(jsonString)
+
+        /**
+         * Decodes a response lazily, so guidance can start before a large response is decoded
+         * completely. Only the first leg of the primary route is decoded immediately. The
+         * alternative routes and the other legs of the primary route are decoded on their first
+         * access and kept afterwards.
+         *
+         * Unlike [fromJson], only the structure of the deferred parts is checked here. If they
+         * can't be decoded, the exception is thrown when they are accessed for the first time.
+         *
+         * The response doesn't keep [jsonString]. Instead, the JSON of every deferred route and
+         * leg is copied and kept until it is decoded, so up to the size of the deferred parts
+         * stays in memory additionally to the decoded response, until all parts were accessed.
+         *
+         * @param jsonString JSON string of the response
+         * @return the response with lazily decoded routes and legs
+         * @throws SerializationException if the response or the first leg can't be decoded
+         * @since 5.0.0
+         */
+        @JvmStatic
+        fun fromJsonLazily(jsonString: String): DirectionsResponse {
+            val members = JsonRanges.members(jsonString, 0)
+            val routesMember = members.lastOrNull { member -> member.name == "routes" }
+                ?.takeIf { member -> member.isArray(jsonString) }
+                ?: return fromJson(jsonString)
+
+            val routes = JsonRanges.elements(jsonString, routesMember.valueStart)
+            val response = json.decodeFromString<DirectionsResponse>(
+                JsonRanges.withEmptyArray(jsonString, members, routesMember)
+            )
+            return response.copy(
+                routes = LazyDecodedList.decode(jsonString, routes, eagerCount = 1) { source, range ->
+                    DirectionsRoute.fromJsonLazily(source, range)
+                }
+            )
+        }
     }
 
     /**
@@ -115,6 +115,32 @@ data class DirectionsRoute(
 
         @JvmStatic
         fun fromJson(jsonString: String): DirectionsRoute = json.decodeFromString(jsonString)
+
+        /**
+         * Decodes the route object in the given range. Only the first leg is decoded immediately,
+         * all other legs are decoded on their first access. Only the JSON of the deferred legs is
+         * kept, not [jsonString].
+         *
+         * @param jsonString JSON string containing the route
+         * @param range range of the route object in [jsonString]
+         * @return the route with lazily decoded legs
+         */
+        internal fun fromJsonLazily(jsonString: String, range: IntRange): DirectionsRoute {
+            val members = JsonRanges.members(jsonString, range.first)
+            val legsMember = members.lastOrNull { member -> member.name == "legs" }
+                ?.takeIf { member -> member.isArray(jsonString) }
+                ?: return json.decodeFromString(jsonString.substring(range.first, range.last + 1))
+
+            val legs = JsonRanges.elements(jsonString, legsMember.valueStart)
+            val route = json.decodeFromString<DirectionsRoute>(
+                JsonRanges.withEmptyArray(jsonString, members, legsMember)
+            )
+            return route.copy(
+                legs = LazyDecodedList.decode(jsonString, legs, eagerCount = 1) { source, range ->
+                    json.decodeFromString<RouteLeg>(source.substring(range.first, range.last + 1))
+                }
+            )
+        }
     }
 
     /**
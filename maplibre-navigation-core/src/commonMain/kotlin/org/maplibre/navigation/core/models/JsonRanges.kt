@@ -0,0 +1,201 @@
+package org.maplibre.navigation.core.models
+
+import kotlinx.serialization.SerializationException
+import org.maplibre.navigation.core.json
+
+/**
+ * Finds the members of JSON objects and the elements of JSON arrays as index ranges of the source
+ * string, without decoding their values. Nested values are skipped by counting brackets, so finding
+ * the ranges is much cheaper than decoding them. The ranges can be decoded later with [json].
+ */
+internal object JsonRanges {
+
+    /**
+     * Member of a JSON object.
+     *
+     * @param name name of the member
+     * @param start index of the first character of the name
+     * @param valueStart index of the first character of the value
+     * @param end index after the last character of the value
+     */
+    class Member(val name: String, val start: Int, val valueStart: Int, val end: Int) {
+
+        /**
+         * True if the value of this member is an array.
+         */
+        fun isArray(source: String): Boolean = source[valueStart] == '['
+    }
+
+    /**
+     * Finds the members of the object starting at the given index.
+     *
+     * @param source JSON string
+     * @param start index of the opening brace or whitespace before it
+     * @return members of the object in their order in the source
+     * @throws SerializationException if the source is no valid JSON object
+     */
+    fun members(source: String, start: Int): List<Member> {
+        val members = ArrayList<Member>()
+        var index = expect(source, skipWhitespace(source, start), '{')
+        index = skipWhitespace(source, index)
+        if (index < source.length && source[index] == '}') {
+            return members
+        }
+
+        while (true) {
+            val nameEnd = skipValue(source, index)
+            val name = decodeName(source, index, nameEnd)
+            val valueStart = skipWhitespace(source, expect(source, skipWhitespace(source, nameEnd), ':'))
+            val valueEnd = skipValue(source, valueStart)
+            members += Member(name, index, valueStart, valueEnd)
+
+            index = skipWhitespace(source, valueEnd)
+            if (index < source.length && source[index] == ',') {
+                index = skipWhitespace(source, index + 1)
+            } else {
+                expect(source, index, '}')
+                return members
+            }
+        }
+    }
+
+    /**
+     * Finds the elements of the array starting at the given index.
+     *
+     * @param source JSON string
+     * @param start index of the opening bracket or whitespace before it
+     * @return ranges of the elements, the last index of every range is inclusive
+     * @throws SerializationException if the source is no valid JSON array
+     */
+    fun elements(source: String, start: Int): List<IntRange> {
+        val elements = ArrayList<IntRange>()
+        var index = expect(source, skipWhitespace(source, start), '[')
+        index = skipWhitespace(source, index)
+        if (index < source.length && source[index] == ']') {
+            return elements
+        }
+
+        while (true) {
+            val elementEnd = skipValue(source, index)
+            elements += index until elementEnd
+
+            index = skipWhitespace(source, elementEnd)
+            if (index < source.length && source[index] == ',') {
+                index = skipWhitespace(source, index + 1)
+            } else {
+                expect(source, index, ']')
+                return elements
+            }
+        }
+    }
+
+    /**
+     * Builds the JSON of the given object members, with the value of one member replaced by an empty
+     * array. Used to decode an object without its heavy array member.
+     *
+     * @param source JSON string the members were found in
+     * @param members all members of the object
+     * @param emptied member, whose value is replaced
+     * @return JSON of the object with an empty array for [emptied]
+     */
+    fun withEmptyArray(source: String, members: List<Member>, emptied: Member): String {
+        return buildString {
+            append('{')
+            members.forEach { member ->
+                if (length > 1) {
+                    append(',')
+                }
+                if (member === emptied) {
+                    appendRange(source, member.start, member.valueStart)
+                    append("[]")
+                } else {
+                    appendRange(source, member.start, member.end)
+                }
+            }
+            append('}')
+        }
+    }
+
+    private fun skipValue(source: String, start: Int): Int {
+        if (start >= source.length) {
+            throw SerializationException("Unexpected end of JSON at offset $start")
+        }
+
+        return when (source[start]) {
+            '"' -> skipString(source, start)
+            '{', '[' -> skipNested(source, start)
+            else -> {
+                // Numbers, literals and unquoted strings of lenient JSON
+                var index = start
+                while (index < source.length && source[index] !in TOKEN_DELIMITERS) {
+                    index++
+                }
+                if (index == start) {
+                    throw SerializationException("Unexpected '${source[start]}' at offset $start")
+                }
+                index
+            }
+        }
+    }
+
+    private fun skipString(source: String, start: Int): Int {
+        var index = start + 1
+        while (index < source.length) {
+            when (source[index]) {
+                '\\' -> index += 2
+                '"' -> return index + 1
+                else -> index++
+            }
+        }
+        throw SerializationException("Unterminated string at offset $start")
+    }
+
+    private fun skipNested(source: String, start: Int): Int {
+        var depth = 0
+        var index = start
+        while (index < source.length) {
+            when (source[index]) {
+                '"' -> {
+                    index = skipString(source, index)
+                    continue
+                }
+
+                '{', '[' -> depth++
+                '}', ']' -> {
+                    depth--
+                    if (depth == 0) {
+                        return index + 1
+                    }
+                }
+            }
+            index++
+        }
+        throw SerializationException("Unterminated value at offset $start")
+    }
+
+    private fun skipWhitespace(source: String, start: Int): Int {
+        var index = start
+        while (index < source.length && source[index].isWhitespace()) {
+            index++
+        }
+        return index
+    }
+
+    private fun expect(source: String, index: Int, expected: Char): Int {
+        if (index >= source.length || source[index] != expected) {
+            throw SerializationException("Expected '$expected' at offset $index")
+        }
+        return index + 1
+    }
+
+    private fun decodeName(source: String, start: Int, end: Int): String {
+        if (source[start] != '"') {
+            return source.substring(start, end)
+        }
+
+        val name = source.substring(start + 1, end - 1)
+        return if (name.contains('\\')) json.decodeFromString<String>(source.substring(start, end)) else name
+    }
+
+    private val TOKEN_DELIMITERS = charArrayOf(',', ':', ']', '}', ' ', '\t', '\n', '\r')
+}
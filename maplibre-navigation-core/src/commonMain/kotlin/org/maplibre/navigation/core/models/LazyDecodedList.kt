@@ -0,0 +1,51 @@
+package org.maplibre.navigation.core.models
+
+/**
+ * Read only list, which decodes every element on its first access and keeps it afterwards.
+ * Decoding errors of the elements which are not decoded immediately are thrown on their first
+ * access.
+ *
+ * Created with [decode], which only keeps the JSON of the elements which are not decoded yet, but
+ * never the whole source string.
+ */
+internal class LazyDecodedList<T> private constructor(
+    private val elements: List<Lazy<T>>
+) : AbstractList<T>(), RandomAccess {
+
+    override val size: Int
+        get() = elements.size
+
+    override fun get(index: Int): T = elements[index].value
+
+    companion object {
+
+        /**
+         * Creates a list of the elements found at the given ranges of the source. The first
+         * [eagerCount] elements are decoded immediately. For every other element, a copy of its
+         * range is kept until it is decoded on its first access.
+         *
+         * @param source JSON string holding the elements
+         * @param ranges ranges of the elements in the source, the last index of every range is
+         * inclusive
+         * @param eagerCount number of elements to decode immediately
+         * @param decode decodes the element found at the given range of the given string
+         * @return list of the elements
+         */
+        fun <T> decode(
+            source: String,
+            ranges: List<IntRange>,
+            eagerCount: Int,
+            decode: (String, IntRange) -> T
+        ): LazyDecodedList<T> {
+            val elements = ranges.mapIndexed { index, range ->
+                if (index < eagerCount) {
+                    lazyOf(decode(source, range))
+                } else {
+                    val elementJson = source.substring(range.first, range.last + 1)
+                    lazy { decode(elementJson, elementJson.indices) }
+                }
+            }
+            return LazyDecodedList(elements)
+        }
+    }
+}
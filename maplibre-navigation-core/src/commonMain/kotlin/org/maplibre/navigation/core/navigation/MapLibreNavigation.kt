@@ -4,9 +4,14 @@ import co.touchlab.kermit.Logger
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.flow.SharedFlow
+import kotlinx.coroutines.flow.StateFlow
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
 import org.maplibre.navigation.core.location.engine.LocationEngine
+import org.maplibre.navigation.core.metrics.NavigationMetricsListener
 import org.maplibre.navigation.core.milestone.BannerInstructionMilestone
 import org.maplibre.navigation.core.milestone.Milestone
+import org.maplibre.navigation.core.milestone.MilestoneEvent
 import org.maplibre.navigation.core.milestone.MilestoneEventListener
 import org.maplibre.navigation.core.milestone.VoiceInstructionMilestone
 import org.maplibre.navigation.core.models.DirectionsRoute
@@ -18,15 +23,20 @@ import org.maplibre.navigation.core.navigation.engine.MapLibreNavigationEngine
 import org.maplibre.navigation.core.navigation.engine.NavigationEngine
 import org.maplibre.navigation.core.offroute.OffRoute
 import org.maplibre.navigation.core.offroute.OffRouteDetector
+import org.maplibre.navigation.core.offroute.OffRouteEvent
 import org.maplibre.navigation.core.offroute.OffRouteListener
+import org.maplibre.navigation.core.recording.NavigationSessionRecorder
 import org.maplibre.navigation.core.route.FasterRoute
 import org.maplibre.navigation.core.route.FasterRouteDetector
+import org.maplibre.navigation.core.route.FasterRouteEvent
 import org.maplibre.navigation.core.route.FasterRouteListener
 import org.maplibre.navigation.core.routeprogress.ProgressChangeListener
+import org.maplibre.navigation.core.routeprogress.RouteProgressEvent
 import org.maplibre.navigation.core.snap.Snap
 import org.maplibre.navigation.core.snap.SnapToRoute
 import org.maplibre.navigation.core.utils.RouteUtils
 import org.maplibre.navigation.core.utils.ValidationUtils
+import kotlin.concurrent.Volatile
 import kotlin.jvm.JvmOverloads
 
 /**
@@ -91,7 +101,7 @@ open class MapLibreNavigation @JvmOverloads constructor(
     val routeUtils: RouteUtils = RouteUtils(),
 ) {
     /**
-     * Convenience constructor for tests. Enables injection of navigation engine mock.
+     * Convenience constructor for tests and simulations. Enables injection of a navigation engine.
      */
     internal constructor(
         options: MapLibreNavigationOptions = MapLibreNavigationOptions(),
@@ -101,7 +111,7 @@ open class MapLibreNavigation @JvmOverloads constructor(
         offRouteEngine: OffRoute = OffRouteDetector(),
         fasterRouteEngine: FasterRoute = FasterRouteDetector(options),
         routeUtils: RouteUtils = RouteUtils(),
-        mapLibreNavigationEngine: MapLibreNavigationEngine
+        mapLibreNavigationEngine: NavigationEngine
     ) : this(
         options,
         locationEngine,
@@ -167,7 +177,7 @@ open class MapLibreNavigation @JvmOverloads constructor(
             }
         }
 
-    val eventDispatcher: NavigationEventDispatcher = NavigationEventDispatcher()
+    val eventDispatcher: NavigationEventDispatcher = NavigationEventDispatcher(options.eventBufferCapacity)
 
     val milestones: Set<Milestone>
         get() = mutableMilestones
@@ -175,6 +185,64 @@ open class MapLibreNavigation @JvmOverloads constructor(
     var route: DirectionsRoute? = null
         private set
 
+    /**
+     * Decoded geometries of the current [route]. Created once in [startNavigation] and shared by
+     * all components of the navigation session, so that the route polylines don't need to be
+     * decoded on every location update.
+     *
+     * @since 5.0.0
+     */
+    @Volatile
+    var routeGeometryIndex: RouteGeometryIndex? = null
+        private set
+
+    /**
+     * Optional recorder of the navigation session, which records every processed location update
+     * in a compact binary format. Recording is disabled while null.
+     *
+     * @since 5.0.0
+     */
+    var sessionRecorder: NavigationSessionRecorder? = null
+
+    /**
+     * Latest progress along the route, or null until the first location update was processed.
+     * Alternative to [addProgressChangeListener]; the progress is reset to null by [stopNavigation].
+     * Slow collectors skip intermediate progress and only get the latest one.
+     *
+     * @since 5.0.0
+     */
+    val progress: StateFlow<RouteProgressEvent?>
+        get() = eventDispatcher.progress
+
+    /**
+     * Triggered milestones. Alternative to [addMilestoneEventListener]; if a collector falls
+     * behind more than [MapLibreNavigationOptions.eventBufferCapacity] events, the oldest events
+     * are dropped.
+     *
+     * @since 5.0.0
+     */
+    val milestoneEvents: SharedFlow<MilestoneEvent>
+        get() = eventDispatcher.milestoneEvents
+
+    /**
+     * Detected off-routes. Alternative to [addOffRouteListener]; if a collector falls behind more
+     * than [MapLibreNavigationOptions.eventBufferCapacity] events, the oldest events are dropped.
+     *
+     * @since 5.0.0
+     */
+    val offRouteEvents: SharedFlow<OffRouteEvent>
+        get() = eventDispatcher.offRouteEvents
+
+    /**
+     * Found faster routes. Alternative to [addFasterRouteListener]; if a collector falls behind
+     * more than [MapLibreNavigationOptions.eventBufferCapacity] events, the oldest events are
+     * dropped.
+     *
+     * @since 5.0.0
+     */
+    val fasterRouteEvents: SharedFlow<FasterRouteEvent>
+        get() = eventDispatcher.fasterRouteEvents
+
     // Public APIs
 
     /**
@@ -188,6 +256,7 @@ open class MapLibreNavigation @JvmOverloads constructor(
         removeProgressChangeListener(null)
         removeMilestoneEventListener(null)
         removeNavigationEventListener(null)
+        removeNavigationMetricsListener(null)
     }
 
     /**
@@ -274,6 +343,9 @@ open class MapLibreNavigation @JvmOverloads constructor(
      */
     fun startNavigation(directionsRoute: DirectionsRoute) {
         ValidationUtils.validDirectionsRoute(directionsRoute, options.defaultMilestonesEnabled)
+        this.routeGeometryIndex = routeGeometryIndex
+            ?.takeIf { index -> index.directionsRoute === directionsRoute }
+            ?: RouteGeometryIndex(directionsRoute, options.geometryKernel)
         this.route = directionsRoute
         Logger.d { "MapLibreNavigation startNavigation called." }
 
@@ -332,6 +404,18 @@ open class MapLibreNavigation @JvmOverloads constructor(
         getNavigationEngineInternal().triggerManualRouteUpdate(legIndex, stepIndex)
     }
 
+    /**
+     * Returns the [routeGeometryIndex] if it was built for the given route. During a route change,
+     * the route and the index are not updated atomically, so consumers running on a background
+     * thread should always access the index through this method.
+     *
+     * @param directionsRoute route the index is requested for
+     * @return the index of the given route or null if not available
+     */
+    internal fun routeGeometryIndexFor(directionsRoute: DirectionsRoute): RouteGeometryIndex? {
+        return routeGeometryIndex?.takeIf { index -> index.directionsRoute === directionsRoute }
+    }
+
     /**
      * Get custom set navigation engine or create default instance if not set.
      * The use of this inconvenient method is necessary because we can not pass
@@ -551,4 +635,40 @@ open class MapLibreNavigation @JvmOverloads constructor(
     fun removeFasterRouteListener(fasterRouteListener: FasterRouteListener?) {
         eventDispatcher.removeFasterRouteListener(fasterRouteListener)
     }
+
+    /**
+     * This adds a new navigation metrics listener, which receives the duration of every processing
+     * stage for each location update. Measuring only starts once the first listener is added and
+     * stops again when all listeners are removed, so there is no overhead without listeners.
+     *
+     * It is not possible to add the same listener implementation more then once and a warning will be
+     * printed in the log if attempted.
+     *
+     * @param navigationMetricsListener an implementation of `NavigationMetricsListener` which hasn't
+     * already been added
+     * @see NavigationMetricsListener
+     *
+     * @since 5.0.0
+     */
+    fun addNavigationMetricsListener(navigationMetricsListener: NavigationMetricsListener) {
+        eventDispatcher.addNavigationMetricsListener(navigationMetricsListener)
+    }
+
+    /**
+     * This removes a specific navigation metrics listener by passing in the instance of it or you can
+     * pass in null to remove all the listeners. When [.onDestroy] is called, all listeners
+     * get removed automatically, removing the requirement for developers to manually handle this.
+     *
+     * If the listener you are trying to remove does not exist in the list, a warning will be printed
+     * in the log.
+     *
+     * @param navigationMetricsListener an implementation of `NavigationMetricsListener` which currently
+     * exist in the navigationMetricsListeners list
+     * @see NavigationMetricsListener
+     *
+     * @since 5.0.0
+     */
+    fun removeNavigationMetricsListener(navigationMetricsListener: NavigationMetricsListener?) {
+        eventDispatcher.removeNavigationMetricsListener(navigationMetricsListener)
+    }
 }
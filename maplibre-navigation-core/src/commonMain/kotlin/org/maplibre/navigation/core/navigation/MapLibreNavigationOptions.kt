@@ -2,6 +2,7 @@ package org.maplibre.navigation.core.navigation
 
 import org.maplibre.navigation.core.milestone.BannerInstructionMilestone
 import org.maplibre.navigation.core.milestone.VoiceInstructionMilestone
+import org.maplibre.navigation.core.navigation.engine.DispatchStrategy
 import org.maplibre.navigation.core.route.FasterRouteDetector
 
 
@@ -114,7 +115,41 @@ data class MapLibreNavigationOptions(
      * will tell [RouteProcessorBackgroundThread] to check
      * for a faster [org.maplibre.navigation.core.models.DirectionsRoute].
      */
-    val fasterRouteCheckIntervalSeconds: Int = Defaults.FASTER_ROUTE_CHECK_INTERVAL_SECONDS
+    val fasterRouteCheckIntervalSeconds: Int = Defaults.FASTER_ROUTE_CHECK_INTERVAL_SECONDS,
+
+    /**
+     * Defines how location updates are processed when they arrive faster than they can be processed.
+     * See [LocationProcessingMode] for the available modes.
+     */
+    val locationProcessingMode: LocationProcessingMode = Defaults.locationProcessingMode,
+
+    /**
+     * Defines how events of processed location updates are delivered to the listeners.
+     * By default, all events are posted to the main scope of the navigation engine, which uses the
+     * main thread. See [DispatchStrategy] for the available strategies.
+     */
+    val dispatchStrategy: DispatchStrategy = Defaults.dispatchStrategy,
+
+    /**
+     * Number of milestone, off-route and faster-route events buffered for slow collectors of the
+     * event flows of [MapLibreNavigation], before the oldest events are dropped.
+     */
+    val eventBufferCapacity: Int = Defaults.EVENT_BUFFER_CAPACITY,
+
+    /**
+     * If enabled, a user who is off the current step is searched on the whole route, before an
+     * off-route event is fired. If a step close enough to the user is found, the navigation
+     * continues on this step instead, for example after a GPS jump when leaving a tunnel. Only
+     * steps heading in the direction of the location bearing are considered and steps ahead are
+     * preferred, locations without a bearing are never re-acquired. Disabled by default.
+     */
+    val enableRouteReacquisition: Boolean = Defaults.ENABLE_ROUTE_REACQUISITION,
+
+    /**
+     * Defines how distances along and to the route are measured on every location update.
+     * See [GeometryKernel] for the available kernels.
+     */
+    val geometryKernel: GeometryKernel = Defaults.geometryKernel
 ) {
     fun toBuilder(): Builder {
         return Builder()
@@ -139,6 +174,11 @@ data class MapLibreNavigationOptions(
             .withTimeFormatType(timeFormatType)
             .withLocationAcceptableAccuracyInMetersThreshold(locationAcceptableAccuracyInMetersThreshold)
             .withFasterRouteCheckIntervalSeconds(fasterRouteCheckIntervalSeconds)
+            .withLocationProcessingMode(locationProcessingMode)
+            .withDispatchStrategy(dispatchStrategy)
+            .withEventBufferCapacity(eventBufferCapacity)
+            .withEnableRouteReacquisition(enableRouteReacquisition)
+            .withGeometryKernel(geometryKernel)
     }
 
     enum class TimeFormat(val id: Int) {
@@ -155,6 +195,36 @@ data class MapLibreNavigationOptions(
         ROUNDING_INCREMENT_ONE_HUNDRED(100)
     }
 
+    enum class LocationProcessingMode {
+        /**
+         * Every location update is processed in order. If processing falls behind, updates are
+         * queued and the reported progress lags behind the current location.
+         */
+        SEQUENTIAL,
+
+        /**
+         * Only the newest pending location update is processed. Older updates, which arrived while
+         * the previous update was processed, are dropped. This keeps the delay between a location
+         * update and its progress event bounded, no matter how fast updates arrive.
+         */
+        CONFLATED
+    }
+
+    enum class GeometryKernel {
+        /**
+         * Distances are measured with great-circle formulas on every location update.
+         */
+        GEODESIC,
+
+        /**
+         * Every step is projected into a [org.maplibre.navigation.core.geometry.LocalTangentPlane]
+         * once per route, so distances on every location update are measured with plain 2D math.
+         * Considerably cheaper, with an error below 0.1% for steps reaching up to 2 km from their
+         * center. See [org.maplibre.navigation.core.geometry.LocalTangentPlane] for the exact bounds.
+         */
+        LOCAL_TANGENT_PLANE
+    }
+
     object Defaults {
         const val MAX_TURN_COMPLETION_OFFSET = 30.0
         const val MANEUVER_ZONE_RADIUS = 40.0
@@ -175,7 +245,12 @@ data class MapLibreNavigationOptions(
         const val IS_DEBUG_LOGGING_ENABLED = false
         const val LOCATION_ACCEPTABLE_ACCURACY_IN_METERS_THRESHOLD = 100
         const val FASTER_ROUTE_CHECK_INTERVAL_SECONDS = 120
+        const val EVENT_BUFFER_CAPACITY = 16
+        const val ENABLE_ROUTE_REACQUISITION = false
         val roundingIncrement = RoundingIncrement.ROUNDING_INCREMENT_FIFTY
+        val locationProcessingMode = LocationProcessingMode.SEQUENTIAL
+        val dispatchStrategy: DispatchStrategy = DispatchStrategy.Posted()
+        val geometryKernel = GeometryKernel.GEODESIC
     }
 
     class Builder {
@@ -207,6 +282,11 @@ data class MapLibreNavigationOptions(
             Defaults.LOCATION_ACCEPTABLE_ACCURACY_IN_METERS_THRESHOLD
         private var fasterRouteCheckIntervalSeconds: Int =
             Defaults.FASTER_ROUTE_CHECK_INTERVAL_SECONDS
+        private var locationProcessingMode: LocationProcessingMode = Defaults.locationProcessingMode
+        private var dispatchStrategy: DispatchStrategy = Defaults.dispatchStrategy
+        private var eventBufferCapacity: Int = Defaults.EVENT_BUFFER_CAPACITY
+        private var enableRouteReacquisition: Boolean = Defaults.ENABLE_ROUTE_REACQUISITION
+        private var geometryKernel: GeometryKernel = Defaults.geometryKernel
 
         fun withMaxTurnCompletionOffset(maxTurnCompletionOffset: Double) = apply { this.maxTurnCompletionOffset = maxTurnCompletionOffset }
         fun withManeuverZoneRadius(maneuverZoneRadius: Double) = apply { this.maneuverZoneRadius = maneuverZoneRadius }
@@ -229,6 +309,11 @@ data class MapLibreNavigationOptions(
         fun withTimeFormatType(timeFormatType: TimeFormat) = apply { this.timeFormatType = timeFormatType }
         fun withLocationAcceptableAccuracyInMetersThreshold(locationAcceptableAccuracyInMetersThreshold: Int) = apply { this.locationAcceptableAccuracyInMetersThreshold = locationAcceptableAccuracyInMetersThreshold }
         fun withFasterRouteCheckIntervalSeconds(fasterRouteCheckIntervalSeconds: Int) = apply { this.fasterRouteCheckIntervalSeconds = fasterRouteCheckIntervalSeconds }
+        fun withLocationProcessingMode(locationProcessingMode: LocationProcessingMode) = apply { this.locationProcessingMode = locationProcessingMode }
+        fun withDispatchStrategy(dispatchStrategy: DispatchStrategy) = apply { this.dispatchStrategy = dispatchStrategy }
+        fun withEventBufferCapacity(eventBufferCapacity: Int) = apply { this.eventBufferCapacity = eventBufferCapacity }
+        fun withEnableRouteReacquisition(enableRouteReacquisition: Boolean) = apply { this.enableRouteReacquisition = enableRouteReacquisition }
+        fun withGeometryKernel(geometryKernel: GeometryKernel) = apply { this.geometryKernel = geometryKernel }
 
         fun build(): MapLibreNavigationOptions {
             return MapLibreNavigationOptions(
@@ -252,7 +337,12 @@ data class MapLibreNavigationOptions(
                 roundingIncrement,
                 timeFormatType,
                 locationAcceptableAccuracyInMetersThreshold,
-                fasterRouteCheckIntervalSeconds
+                fasterRouteCheckIntervalSeconds,
+                locationProcessingMode,
+                dispatchStrategy,
+                eventBufferCapacity,
+                enableRouteReacquisition,
+                geometryKernel
             )
         }
     }
@@ -1,21 +1,84 @@
 package org.maplibre.navigation.core.navigation
 
 import co.touchlab.kermit.Logger
+import kotlinx.coroutines.channels.BufferOverflow
+import kotlinx.coroutines.flow.MutableSharedFlow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.SharedFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asSharedFlow
+import kotlinx.coroutines.flow.asStateFlow
 import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.metrics.NavigationMetrics
+import org.maplibre.navigation.core.metrics.NavigationMetricsListener
 import org.maplibre.navigation.core.milestone.Milestone
+import org.maplibre.navigation.core.milestone.MilestoneEvent
 import org.maplibre.navigation.core.milestone.MilestoneEventListener
 import org.maplibre.navigation.core.models.DirectionsRoute
+import org.maplibre.navigation.core.offroute.OffRouteEvent
 import org.maplibre.navigation.core.offroute.OffRouteListener
+import org.maplibre.navigation.core.route.FasterRouteEvent
 import org.maplibre.navigation.core.route.FasterRouteListener
 import org.maplibre.navigation.core.routeprogress.ProgressChangeListener
 import org.maplibre.navigation.core.routeprogress.RouteProgress
-
-open class NavigationEventDispatcher {
+import org.maplibre.navigation.core.routeprogress.RouteProgressEvent
+import kotlin.jvm.JvmOverloads
+
+/**
+ * Delivers navigation events to the added listeners and the event flows.
+ *
+ * @param eventBufferCapacity number of milestone, off-route and faster-route events buffered for
+ * slow flow collectors, before the oldest events are dropped
+ */
+open class NavigationEventDispatcher @JvmOverloads constructor(
+    eventBufferCapacity: Int = MapLibreNavigationOptions.Defaults.EVENT_BUFFER_CAPACITY
+) {
     private val navigationEventListeners = mutableListOf<NavigationEventListener>()
     private val milestoneEventListeners = mutableListOf<MilestoneEventListener>()
     private val progressChangeListeners = mutableListOf<ProgressChangeListener>()
     private val offRouteListeners = mutableListOf<OffRouteListener>()
     private val fasterRouteListeners = mutableListOf<FasterRouteListener>()
+    private val navigationMetricsListeners = mutableListOf<NavigationMetricsListener>()
+
+    init {
+        require(eventBufferCapacity > 0) { "Event buffer capacity must be positive, but was $eventBufferCapacity." }
+    }
+
+    private val mutableProgress = MutableStateFlow<RouteProgressEvent?>(null)
+    private val mutableMilestoneEvents = createEventFlow<MilestoneEvent>(eventBufferCapacity)
+    private val mutableOffRouteEvents = createEventFlow<OffRouteEvent>(eventBufferCapacity)
+    private val mutableFasterRouteEvents = createEventFlow<FasterRouteEvent>(eventBufferCapacity)
+
+    /**
+     * Latest progress along the route, or null until the first location update was processed. The
+     * progress is reset to null when navigation is stopped. Slow collectors skip intermediate
+     * progress and only get the latest one.
+     */
+    val progress: StateFlow<RouteProgressEvent?> = mutableProgress.asStateFlow()
+
+    /**
+     * Triggered milestones. Events are only emitted while collected. If a collector falls behind,
+     * the oldest buffered events are dropped.
+     */
+    val milestoneEvents: SharedFlow<MilestoneEvent> = mutableMilestoneEvents.asSharedFlow()
+
+    /**
+     * Detected off-routes. Events are only emitted while collected. If a collector falls behind,
+     * the oldest buffered events are dropped.
+     */
+    val offRouteEvents: SharedFlow<OffRouteEvent> = mutableOffRouteEvents.asSharedFlow()
+
+    /**
+     * Found faster routes. Events are only emitted while collected. If a collector falls behind,
+     * the oldest buffered events are dropped.
+     */
+    val fasterRouteEvents: SharedFlow<FasterRouteEvent> = mutableFasterRouteEvents.asSharedFlow()
+
+    /**
+     * True if at least one [NavigationMetricsListener] is added. Metrics are only recorded in this case.
+     */
+    val hasNavigationMetricsListeners: Boolean
+        get() = navigationMetricsListeners.isNotEmpty()
 
     fun addMilestoneEventListener(milestoneEventListener: MilestoneEventListener) {
         if (milestoneEventListeners.contains(milestoneEventListener)) {
@@ -107,6 +170,24 @@ open class NavigationEventDispatcher {
         }
     }
 
+    fun addNavigationMetricsListener(navigationMetricsListener: NavigationMetricsListener) {
+        if (navigationMetricsListeners.contains(navigationMetricsListener)) {
+            Logger.w { "The specified NavigationMetricsListener has already been added to the stack." }
+            return
+        }
+        navigationMetricsListeners.add(navigationMetricsListener)
+    }
+
+    fun removeNavigationMetricsListener(navigationMetricsListener: NavigationMetricsListener?) {
+        if (navigationMetricsListener == null) {
+            navigationMetricsListeners.clear()
+        } else if (!navigationMetricsListeners.contains(navigationMetricsListener)) {
+            Logger.w { "The specified NavigationMetricsListener isn't found in stack, therefore, cannot be removed." }
+        } else {
+            navigationMetricsListeners.remove(navigationMetricsListener)
+        }
+    }
+
     fun onMilestoneEvent(
         routeProgress: RouteProgress,
         instruction: String?,
@@ -115,21 +196,31 @@ open class NavigationEventDispatcher {
         for (milestoneEventListener in milestoneEventListeners) {
             milestoneEventListener.onMilestoneEvent(routeProgress, instruction, milestone)
         }
+        if (mutableMilestoneEvents.subscriptionCount.value > 0) {
+            mutableMilestoneEvents.tryEmit(MilestoneEvent(routeProgress, instruction, milestone))
+        }
     }
 
     fun onProgressChange(location: Location, routeProgress: RouteProgress) {
         for (progressChangeListener in progressChangeListeners) {
             progressChangeListener.onProgressChange(location, routeProgress)
         }
+        mutableProgress.value = RouteProgressEvent(location, routeProgress)
     }
 
     fun onUserOffRoute(location: Location) {
         for (offRouteListener in offRouteListeners) {
             offRouteListener.userOffRoute(location)
         }
+        if (mutableOffRouteEvents.subscriptionCount.value > 0) {
+            mutableOffRouteEvents.tryEmit(OffRouteEvent(location))
+        }
     }
 
     fun onNavigationEvent(isRunning: Boolean) {
+        if (!isRunning) {
+            mutableProgress.value = null
+        }
         for (navigationEventListener in navigationEventListeners) {
             navigationEventListener.onRunning(isRunning)
         }
@@ -139,5 +230,21 @@ open class NavigationEventDispatcher {
         for (fasterRouteListener in fasterRouteListeners) {
             fasterRouteListener.fasterRouteFound(directionsRoute)
         }
+        if (mutableFasterRouteEvents.subscriptionCount.value > 0) {
+            mutableFasterRouteEvents.tryEmit(FasterRouteEvent(directionsRoute))
+        }
+    }
+
+    fun onNavigationMetrics(navigationMetrics: NavigationMetrics) {
+        for (navigationMetricsListener in navigationMetricsListeners) {
+            navigationMetricsListener.onLocationProcessed(navigationMetrics)
+        }
+    }
+
+    private fun <T> createEventFlow(bufferCapacity: Int): MutableSharedFlow<T> {
+        return MutableSharedFlow(
+            extraBufferCapacity = bufferCapacity,
+            onBufferOverflow = BufferOverflow.DROP_OLDEST
+        )
     }
 }
@@ -1,6 +1,10 @@
 package org.maplibre.navigation.core.navigation
 
 import co.touchlab.kermit.Logger
+import org.maplibre.navigation.core.geometry.PackedPositions
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
+import org.maplibre.navigation.core.geometry.RouteProjection
+import org.maplibre.navigation.core.geometry.StepGeometry
 import org.maplibre.navigation.core.location.Location
 import org.maplibre.navigation.core.milestone.Milestone
 import org.maplibre.navigation.core.models.DirectionsRoute
@@ -17,14 +21,15 @@ import org.maplibre.navigation.core.utils.MathUtils
 import org.maplibre.spatialk.geojson.LineString
 import org.maplibre.spatialk.geojson.Point
 import org.maplibre.spatialk.geojson.Position
-import org.maplibre.spatialk.polyline.PolylineEncoding
 import org.maplibre.spatialk.turf.measurement.distance
 import org.maplibre.spatialk.turf.measurement.length
 import org.maplibre.spatialk.turf.misc.nearestPointTo
 import org.maplibre.spatialk.turf.misc.slice
 import org.maplibre.spatialk.units.extensions.inKilometers
 import org.maplibre.spatialk.units.extensions.inMeters
+import kotlin.jvm.JvmOverloads
 import kotlin.jvm.JvmStatic
+import kotlin.math.abs
 
 /**
  * This contains several single purpose methods that help out when a new location update occurs and
@@ -103,6 +108,55 @@ object NavigationHelper {
         return slicedLine.length().inMeters
     }
 
+    /**
+     * Calculates the distance remaining in the step from the already projected users position, to
+     * the next maneuver position.
+     *
+     * If the user is more than 1km away from the route, we are returning the total step distance.
+     *
+     * @since 5.0.0
+     */
+    @JvmStatic
+    fun stepDistanceRemaining(
+        projection: RouteProjection,
+        legIndex: Int,
+        stepIndex: Int,
+        directionsRoute: DirectionsRoute,
+        stepGeometry: StepGeometry
+    ): Double {
+        // Check distance to route line, if it's too high, it makes no sense to snap and we assume the step distance is the whole distance of the step
+        val distanceKilometers = projection.distanceFromLine / 1000.0
+        if (distanceKilometers > 1) {
+            Logger.d { "Distance to step is larger than 1km, so we won't advance the step, distance: $distanceKilometers km" }
+            return stepGeometry.length
+        }
+
+        val steps = directionsRoute.legs[legIndex].steps
+        val nextManeuverPosition = nextManeuverPosition(
+            stepIndex,
+            steps,
+            stepGeometry.positions
+        )
+
+        // When the coordinates are empty, no distance can be calculated
+        if (nextManeuverPosition == null) {
+            return 0.0
+        }
+
+        // If the users snapped position equals the next maneuver position
+        if (projection.position == nextManeuverPosition) {
+            return 0.0
+        }
+
+        // The next maneuver is usually the last point of the step, otherwise it's projected on the step
+        val maneuverDistanceAlongStep = if (nextManeuverPosition == stepGeometry.positions.last()) {
+            stepGeometry.length
+        } else {
+            stepGeometry.distanceAlong(nextManeuverPosition) ?: return 0.0
+        }
+        return abs(maneuverDistanceAlongStep - projection.distanceAlongStep)
+    }
+
     /**
      * Takes in the already calculated step distance and iterates through the step list from the
      * step index value plus one till the end of the leg.
@@ -120,6 +174,22 @@ object NavigationHelper {
                     .sumOf(LegStep::distance)
     }
 
+    /**
+     * Takes in the already calculated step distance and adds the precalculated distance of all
+     * steps after the step index till the end of the leg.
+     *
+     * @since 5.0.0
+     */
+    @JvmStatic
+    fun legDistanceRemaining(
+        stepDistanceRemaining: Double,
+        legIndex: Int,
+        stepIndex: Int,
+        routeGeometryIndex: RouteGeometryIndex
+    ): Double {
+        return stepDistanceRemaining + routeGeometryIndex.stepDistanceAfter(legIndex, stepIndex)
+    }
+
     /**
      * Takes in the leg distance remaining value already calculated and if additional legs need to be
      * traversed along after the current one, adds those distances and returns the new distance.
@@ -142,6 +212,21 @@ object NavigationHelper {
                     .sumOf(RouteLeg::distance)
     }
 
+    /**
+     * Takes in the leg distance remaining value already calculated and adds the precalculated
+     * distance of all legs after the leg index till the end of the route.
+     *
+     * @since 5.0.0
+     */
+    @JvmStatic
+    fun routeDistanceRemaining(
+        legDistanceRemaining: Double,
+        legIndex: Int,
+        routeGeometryIndex: RouteGeometryIndex
+    ): Double {
+        return legDistanceRemaining + routeGeometryIndex.legDistanceAfter(legIndex)
+    }
+
     /**
      * Checks whether the user's bearing matches the next step's maneuver provided bearingAfter
      * variable. This is one of the criteria's required for the user location to be recognized as
@@ -237,7 +322,7 @@ object NavigationHelper {
      * return a list of [Point] representing the current step.
      *
      *
-     * This method is only used on a per-step basis as [PolylineEncoding.decode]
+     * This method is only used on a per-step basis as [PackedPositions.decode]
      * can be a heavy operation based on the length of the step.
      *
      *
@@ -258,7 +343,7 @@ object NavigationHelper {
             ?.steps
             ?.getOrNull(stepIndex)
             ?.let { step ->
-                PolylineEncoding.decode(
+                PackedPositions.decode(
                     encoded = step.geometry,
                     precision = Constants.PRECISION_6
                 )
@@ -310,25 +395,101 @@ object NavigationHelper {
         stepPoints: List<Position>,
         intersections: List<StepIntersection>
     ): Map<StepIntersection, Double> {
-        // Require at minimum two points
-        if (stepPoints.size < TWO_POINTS) {
+        return createDistancesToIntersections(
+            intersections,
+            createIntersectionDistances(stepPoints, intersections)
+        )
+    }
+
+    /**
+     * Pairs each intersection with its distance created by [createIntersectionDistances].
+     *
+     * @param intersections         along the step
+     * @param intersectionDistances distances along the step, in the same order as the intersections
+     * @return measured intersection pairs, empty if no distances are given
+     */
+    internal fun createDistancesToIntersections(
+        intersections: List<StepIntersection>,
+        intersectionDistances: DoubleArray
+    ): Map<StepIntersection, Double> {
+        if (intersectionDistances.isEmpty()) {
             return emptyMap()
         }
 
-        val stepLineString = LineString(stepPoints)
         val distancesToIntersections = mutableMapOf<StepIntersection, Double>()
-        for (intersection in intersections) {
-            val intersectionPoint = intersection.location
+        for (intersectionIndex in intersections.indices) {
+            distancesToIntersections[intersections[intersectionIndex]] =
+                intersectionDistances[intersectionIndex]
+        }
+        return distancesToIntersections
+    }
+
+    /**
+     * Measures the distance in meters along the step geometry of every intersection.
+     *
+     *
+     * Intersections are ordered along the step and usually located on a step point, so the step
+     * points are walked once from the start, reading the distances from the cumulative distances
+     * of the step. Intersections which are not located on a step point are measured by slicing the
+     * step geometry.
+     *
+     * @param stepPoints          representing the step geometry
+     * @param intersections       along the step to be measured
+     * @param cumulativeDistances distances along the step of every step point, calculated if not given
+     * @return distances in the same order as the intersections, empty if the step has less than two points
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun createIntersectionDistances(
+        stepPoints: List<Position>,
+        intersections: List<StepIntersection>,
+        cumulativeDistances: DoubleArray? = null
+    ): DoubleArray {
+        // Require at minimum two points
+        if (stepPoints.size < TWO_POINTS) {
+            return DoubleArray(0)
+        }
+
+        val distancesAlongStep = cumulativeDistances
+            ?.takeIf { distances -> distances.size == stepPoints.size }
+            ?: createCumulativeDistances(stepPoints)
+        val stepLineString by lazy(LazyThreadSafetyMode.NONE) { LineString(stepPoints) }
+        val intersectionDistances = DoubleArray(intersections.size)
+        var stepPointIndex = 0
+        for (intersectionIndex in intersections.indices) {
+            val intersectionPoint = intersections[intersectionIndex].location
             if (stepPoints.first() == intersectionPoint) {
-                distancesToIntersections[intersection] = ZERO_METERS
+                intersectionDistances[intersectionIndex] = ZERO_METERS
+                continue
+            }
+
+            val matchingPointIndex = stepPoints.indexOfFrom(intersectionPoint, stepPointIndex)
+            intersectionDistances[intersectionIndex] = if (matchingPointIndex >= 0) {
+                stepPointIndex = matchingPointIndex
+                distancesAlongStep[matchingPointIndex]
             } else {
-                val beginningLineString =
-                    stepLineString.slice(stepPoints.first(), intersectionPoint)
-                val distanceToIntersectionInMeters = beginningLineString.length().inMeters
-                distancesToIntersections[intersection] = distanceToIntersectionInMeters
+                stepLineString.slice(stepPoints.first(), intersectionPoint).length().inMeters
             }
         }
-        return distancesToIntersections
+        return intersectionDistances
+    }
+
+    private fun createCumulativeDistances(stepPoints: List<Position>): DoubleArray {
+        val cumulativeDistances = DoubleArray(stepPoints.size)
+        for (i in 1 until stepPoints.size) {
+            cumulativeDistances[i] = cumulativeDistances[i - 1] +
+                    distance(stepPoints[i - 1], stepPoints[i]).inMeters
+        }
+        return cumulativeDistances
+    }
+
+    private fun List<Position>.indexOfFrom(position: Position, fromIndex: Int): Int {
+        for (i in fromIndex until size) {
+            if (this[i] == position) {
+                return i
+            }
+        }
+        return -1
     }
 
     /**
@@ -380,6 +541,42 @@ object NavigationHelper {
         return intersections[FIRST_INTERSECTION]
     }
 
+    /**
+     * Based on the intersection distances and the step distance traveled, finds the index of the
+     * current intersection a user is traveling along. Same as [findCurrentIntersection], but
+     * using a binary search.
+     *
+     * @param intersectionDistances distances along the step of the intersections, sorted ascending
+     * @param stepDistanceTraveled  how far the user has traveled along the step
+     * @return index of the current step intersection
+     */
+    @JvmStatic
+    fun findCurrentIntersectionIndex(
+        intersectionDistances: DoubleArray,
+        stepDistanceTraveled: Double
+    ): Int {
+        // Find the last intersection before the distance traveled
+        var low = 0
+        var high = intersectionDistances.size - 1
+        var intersectionIndex = -1
+        while (low <= high) {
+            val middle = (low + high) ushr 1
+            if (intersectionDistances[middle] < stepDistanceTraveled) {
+                intersectionIndex = middle
+                low = middle + 1
+            } else {
+                high = middle - 1
+            }
+        }
+
+        return when {
+            intersectionIndex < 0 -> FIRST_INTERSECTION
+            intersectionIndex == intersectionDistances.size - 1 -> intersectionIndex
+            stepDistanceTraveled < intersectionDistances[intersectionIndex + 1] -> intersectionIndex
+            else -> FIRST_INTERSECTION
+        }
+    }
+
     /**
      * Based on the current intersection index, add one and try to get the upcoming.
      *
@@ -403,6 +600,24 @@ object NavigationHelper {
             ?: upcomingStep?.intersections?.firstOrNull()
     }
 
+    /**
+     * Same as [findUpcomingIntersection], with the index of the current intersection already known.
+     *
+     * @param intersections            for the current step
+     * @param upcomingStep             for the first intersection if needed
+     * @param currentIntersectionIndex index of the intersection being traveled along
+     * @return the upcoming intersection on the step
+     */
+    @JvmStatic
+    fun findUpcomingIntersection(
+        intersections: List<StepIntersection>,
+        upcomingStep: LegStep?,
+        currentIntersectionIndex: Int
+    ): StepIntersection? {
+        return intersections.getOrNull(currentIntersectionIndex + 1)
+            ?: upcomingStep?.intersections?.firstOrNull()
+    }
+
     /**
      * Given a list of distance annotations, find the current annotation index. This index retrieves the
      * current annotation from any provided annotation list in [LegAnnotation].
@@ -440,6 +655,74 @@ object NavigationHelper {
         }
     }
 
+    /**
+     * Same as [createCurrentAnnotation], but finds the current annotation index with a binary search
+     * over the given prefix sums of the distance annotations, for example from
+     * [RouteGeometryIndex.annotationDistanceSums].
+     *
+     * If the found annotation equals the given current annotation, it is returned as is.
+     *
+     * @param currentLegAnnotation   current annotation being traveled along
+     * @param leg                    holding each list of annotations
+     * @param legDistanceRemaining   to determine the new set of annotations
+     * @param annotationDistanceSums prefix sums of the distance annotations of the leg
+     * @return a current set of annotation data for the user's position along the route
+     */
+    @JvmStatic
+    fun createCurrentAnnotation(
+        currentLegAnnotation: CurrentLegAnnotation?,
+        leg: RouteLeg,
+        legDistanceRemaining: Double,
+        annotationDistanceSums: DoubleArray
+    ): CurrentLegAnnotation? {
+        val legAnnotation = leg.annotation ?: return null
+        val distanceList = legAnnotation.distance ?: return null
+        if (annotationDistanceSums.size != distanceList.size + 1) {
+            return createCurrentAnnotation(currentLegAnnotation, leg, legDistanceRemaining)
+        }
+
+        val startIndex = currentLegAnnotation?.index ?: 0
+        val lastIndex = distanceList.size - 1
+        if (startIndex > lastIndex) {
+            return null
+        }
+
+        // Annotations are searched from the current one on, like findAnnotationIndex does
+        val distanceOffset =
+            (currentLegAnnotation?.distanceToAnnotation ?: 0.0) - annotationDistanceSums[startIndex]
+        val distanceTraveled = leg.distance - legDistanceRemaining - distanceOffset
+        var low = startIndex
+        var high = lastIndex
+        var annotationIndex = lastIndex
+        while (low <= high) {
+            val middle = (low + high) ushr 1
+            if (annotationDistanceSums[middle + 1] > distanceTraveled) {
+                annotationIndex = middle
+                high = middle - 1
+            } else {
+                low = middle + 1
+            }
+        }
+
+        val distanceToAnnotation = annotationDistanceSums[annotationIndex] + distanceOffset
+        if (currentLegAnnotation != null
+            && currentLegAnnotation.index == annotationIndex
+            && currentLegAnnotation.distanceToAnnotation == distanceToAnnotation
+        ) {
+            return currentLegAnnotation
+        }
+
+        return CurrentLegAnnotation(
+            index = annotationIndex,
+            distance = distanceList[annotationIndex],
+            distanceToAnnotation = distanceToAnnotation,
+            duration = legAnnotation.duration?.get(annotationIndex),
+            speed = legAnnotation.speed?.get(annotationIndex),
+            maxSpeed = legAnnotation.maxSpeed?.get(annotationIndex),
+            congestion = legAnnotation.congestion?.get(annotationIndex),
+        )
+    }
+
     /**
      * This method runs through the list of milestones in [MapLibreNavigation.milestones]
      * and returns a list of occurring milestones (if any), based on their individual criteria.
@@ -532,7 +815,7 @@ object NavigationHelper {
         legDistanceRemaining: Double,
         distanceAnnotationList: List<Double>
     ): AnnotationResult? {
-        val legDistances: List<Double> = ArrayList(distanceAnnotationList)
+        val legDistances: List<Double> = distanceAnnotationList
         val distanceTraveled = leg.distance - legDistanceRemaining
         val distanceIndex = currentLegAnnotation?.index ?: 0
 
@@ -1,5 +1,8 @@
 package org.maplibre.navigation.core.navigation
 
+import org.maplibre.navigation.core.geometry.ProjectionCursor
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
+import org.maplibre.navigation.core.geometry.RouteProjection
 import org.maplibre.navigation.core.location.Location
 import org.maplibre.navigation.core.models.DirectionsRoute
 import org.maplibre.navigation.core.models.LegStep
@@ -8,9 +11,11 @@ import org.maplibre.navigation.core.models.StepIntersection
 import org.maplibre.navigation.core.navigation.NavigationHelper.checkBearingForStepCompletion
 import org.maplibre.navigation.core.navigation.NavigationHelper.createCurrentAnnotation
 import org.maplibre.navigation.core.navigation.NavigationHelper.createDistancesToIntersections
+import org.maplibre.navigation.core.navigation.NavigationHelper.createIntersectionDistances
 import org.maplibre.navigation.core.navigation.NavigationHelper.createIntersectionsList
 import org.maplibre.navigation.core.navigation.NavigationHelper.decodeStepPoints
 import org.maplibre.navigation.core.navigation.NavigationHelper.findCurrentIntersection
+import org.maplibre.navigation.core.navigation.NavigationHelper.findCurrentIntersectionIndex
 import org.maplibre.navigation.core.navigation.NavigationHelper.findUpcomingIntersection
 import org.maplibre.navigation.core.navigation.NavigationHelper.increaseIndex
 import org.maplibre.navigation.core.navigation.NavigationHelper.legDistanceRemaining
@@ -35,10 +40,15 @@ open class NavigationRouteProcessor(
     private var upcomingStepPoints: List<Position>? = null
     private var currentIntersections: List<StepIntersection>? = null
     private var currentIntersectionDistances: Map<StepIntersection, Double>? = null
+    private var currentIntersectionDistancesAlongStep: DoubleArray = DoubleArray(0)
+    private var currentIntersectionDistancesSorted = false
     private var currentLeg: RouteLeg? = null
     private var currentStep: LegStep? = null
     private var upcomingStep: LegStep? = null
     private var currentLegAnnotation: CurrentLegAnnotation? = null
+    private var routeGeometryIndex: RouteGeometryIndex? = null
+    private val projectionCursor = ProjectionCursor()
+    private var routeProjection: RouteProjection? = null
     private var indices: NavigationIndices =
         NavigationIndices(legIndex = FIRST_LEG_INDEX, stepIndex = FIRST_STEP_INDEX)
     private var stepDistanceRemaining = 0.0
@@ -131,6 +141,17 @@ open class NavigationRouteProcessor(
         location: Location,
         directionsRoute: DirectionsRoute
     ): Double {
+        // The projection is shared with all following checks of this location update
+        routeProjection = null
+        routeGeometryIndex?.stepGeometry(indices.legIndex, indices.stepIndex)?.let { stepGeometry ->
+            val projection = projectionCursor.project(stepGeometry, location.position)
+                ?: return 0.0
+            routeProjection = projection
+            return stepDistanceRemaining(
+                projection, indices.legIndex, indices.stepIndex, directionsRoute, stepGeometry
+            )
+        }
+
         return stepDistanceRemaining(
             location, indices.legIndex, indices.stepIndex, directionsRoute, currentStepPoints!!
         )
@@ -201,6 +222,7 @@ open class NavigationRouteProcessor(
             createFirstIndices(mapLibreNavigation)
             return
         }
+        routeGeometryIndex = mapLibreNavigation.routeGeometryIndexFor(route)
         updateSteps(route, legIndex, stepIndex, upcomingStepIndex)
         updateStepPoints(route, legIndex, stepIndex, upcomingStepIndex)
         updateIntersections()
@@ -223,21 +245,49 @@ open class NavigationRouteProcessor(
         val legIndex = indices.legIndex
         val stepIndex = indices.stepIndex
 
-        val legDistanceRemaining =
+        val routeGeometryIndex = routeGeometryIndex
+        val legDistanceRemaining = if (routeGeometryIndex != null) {
+            legDistanceRemaining(stepDistanceRemaining, legIndex, stepIndex, routeGeometryIndex)
+        } else {
             legDistanceRemaining(stepDistanceRemaining, legIndex, stepIndex, route)
-        val routeDistanceRemaining = routeDistanceRemaining(legDistanceRemaining, legIndex, route)
-        currentLegAnnotation = createCurrentAnnotation(
-            currentLegAnnotation,
-            currentLeg!!, legDistanceRemaining
-        )
+        }
+        val routeDistanceRemaining = if (routeGeometryIndex != null) {
+            routeDistanceRemaining(legDistanceRemaining, legIndex, routeGeometryIndex)
+        } else {
+            routeDistanceRemaining(legDistanceRemaining, legIndex, route)
+        }
+        val annotationDistanceSums = routeGeometryIndex?.annotationDistanceSums(legIndex)
+        currentLegAnnotation = if (annotationDistanceSums != null) {
+            createCurrentAnnotation(
+                currentLegAnnotation,
+                currentLeg!!, legDistanceRemaining, annotationDistanceSums
+            )
+        } else {
+            createCurrentAnnotation(
+                currentLegAnnotation,
+                currentLeg!!, legDistanceRemaining
+            )
+        }
         val stepDistanceTraveled = currentStep!!.distance - stepDistanceRemaining
 
-        val currentIntersection = findCurrentIntersection(
-            currentIntersections!!, currentIntersectionDistances!!, stepDistanceTraveled
-        )
-        val upcomingIntersection = findUpcomingIntersection(
-            currentIntersections!!, upcomingStep, currentIntersection!!
-        )
+        val currentIntersection: StepIntersection?
+        val upcomingIntersection: StepIntersection?
+        if (currentIntersectionDistancesSorted) {
+            val currentIntersectionIndex = findCurrentIntersectionIndex(
+                currentIntersectionDistancesAlongStep, stepDistanceTraveled
+            )
+            currentIntersection = currentIntersections!![currentIntersectionIndex]
+            upcomingIntersection = findUpcomingIntersection(
+                currentIntersections!!, upcomingStep, currentIntersectionIndex
+            )
+        } else {
+            currentIntersection = findCurrentIntersection(
+                currentIntersections!!, currentIntersectionDistances!!, stepDistanceTraveled
+            )
+            upcomingIntersection = findUpcomingIntersection(
+                currentIntersections!!, upcomingStep, currentIntersection!!
+            )
+        }
 
         return RouteProgress(
             stepDistanceRemaining = stepDistanceRemaining,
@@ -253,7 +303,10 @@ open class NavigationRouteProcessor(
             upcomingIntersection = upcomingIntersection,
             intersectionDistancesAlongStep = currentIntersectionDistances,
             currentLegAnnotation = currentLegAnnotation,
-        )
+        ).also { routeProgress ->
+            routeProgress.routeGeometryIndex = routeGeometryIndex
+            routeProgress.routeProjection = routeProjection
+        }
     }
 
     private fun updateSteps(
@@ -275,15 +328,40 @@ open class NavigationRouteProcessor(
         stepIndex: Int,
         upcomingStepIndex: Int
     ) {
-        currentStepPoints =
-            decodeStepPoints(route, currentStepPoints ?: emptyList(), legIndex, stepIndex)
-        upcomingStepPoints = decodeStepPoints(route, emptyList(), legIndex, upcomingStepIndex)
+        // Decoding is only needed if no index is available for the route
+        currentStepPoints = routeGeometryIndex?.stepGeometry(legIndex, stepIndex)?.positions
+            ?: decodeStepPoints(route, currentStepPoints ?: emptyList(), legIndex, stepIndex)
+        upcomingStepPoints = routeGeometryIndex?.stepGeometry(legIndex, upcomingStepIndex)?.positions
+            ?: decodeStepPoints(route, emptyList(), legIndex, upcomingStepIndex)
     }
 
     private fun updateIntersections() {
-        currentIntersections = createIntersectionsList(currentStep!!, upcomingStep)
-        currentIntersectionDistances =
-            createDistancesToIntersections(currentStepPoints!!, currentIntersections!!)
+        val intersections = createIntersectionsList(currentStep!!, upcomingStep)
+        val stepGeometry = routeGeometryIndex
+            ?.stepGeometry(indices.legIndex, indices.stepIndex)
+            ?.takeIf { stepGeometry -> stepGeometry.positions === currentStepPoints }
+        val intersectionDistances = createIntersectionDistances(
+            currentStepPoints!!,
+            intersections,
+            stepGeometry?.cumulativeDistances
+        )
+
+        currentIntersections = intersections
+        currentIntersectionDistancesAlongStep = intersectionDistances
+        // Binary search requires distances for all intersections, in ascending order
+        currentIntersectionDistancesSorted = intersectionDistances.isNotEmpty()
+                && intersectionDistances.size == intersections.toSet().size
+                && isSortedAscending(intersectionDistances)
+        currentIntersectionDistances = createDistancesToIntersections(intersections, intersectionDistances)
+    }
+
+    private fun isSortedAscending(values: DoubleArray): Boolean {
+        for (i in 1 until values.size) {
+            if (values[i] < values[i - 1]) {
+                return false
+            }
+        }
+        return true
     }
 
     private fun clearManeuverDistances(offRoute: OffRoute) {
@@ -1,10 +1,11 @@
 package org.maplibre.navigation.core.navigation.camera
 
+import org.maplibre.navigation.core.geometry.PackedPositions
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
 import org.maplibre.navigation.core.models.DirectionsRoute
 import org.maplibre.navigation.core.navigation.MapLibreNavigation
 import org.maplibre.navigation.core.utils.Constants
 import org.maplibre.spatialk.geojson.Point
-import org.maplibre.spatialk.polyline.PolylineEncoding
 import org.maplibre.spatialk.turf.measurement.bearingTo
 import org.maplibre.spatialk.units.Bearing
 import org.maplibre.spatialk.units.extensions.inDegrees
@@ -22,7 +23,7 @@ open class SimpleCamera : Camera {
 
     override fun bearing(routeInformation: RouteInformation): Double {
         return routeInformation.route?.let { route ->
-            setupLineStringAndBearing(route)
+            setupLineStringAndBearing(route, routeInformation.routeProgress?.routeGeometryIndex)
             initialBearing
         }
             ?: routeInformation.location?.bearing?.toDouble()
@@ -31,7 +32,7 @@ open class SimpleCamera : Camera {
 
     override fun target(routeInformation: RouteInformation): Point? {
         return routeInformation.route?.let { route ->
-            setupLineStringAndBearing(route)
+            setupLineStringAndBearing(route, routeInformation.routeProgress?.routeGeometryIndex)
             val firstPoint = routeCoordinates.first()
             Point(
                 longitude = firstPoint.longitude,
@@ -65,19 +66,25 @@ open class SimpleCamera : Camera {
 
     private fun buildRouteCoordinatesFromRouteData(routeInformation: RouteInformation) {
         routeInformation.route?.let { route ->
-            setupLineStringAndBearing(route)
+            setupLineStringAndBearing(route, routeInformation.routeProgress?.routeGeometryIndex)
         } ?: routeInformation.routeProgress?.let { routeProgress ->
-            setupLineStringAndBearing(routeProgress.directionsRoute)
+            setupLineStringAndBearing(routeProgress.directionsRoute, routeProgress.routeGeometryIndex)
         }
     }
 
-    private fun setupLineStringAndBearing(route: DirectionsRoute) {
-        if (initialRoute != null && route == initialRoute) {
+    private fun setupLineStringAndBearing(
+        route: DirectionsRoute,
+        routeGeometryIndex: RouteGeometryIndex?
+    ) {
+        if (initialRoute != null && (route === initialRoute || route == initialRoute)) {
             return // no need to recalculate these values
         }
 
         initialRoute = route
-        routeCoordinates = generateRouteCoordinates(route)
+        routeCoordinates = routeGeometryIndex
+            ?.takeIf { index -> index.directionsRoute === route }
+            ?.let { index -> index.routeGeometry.positions.map(::Point) }
+            ?: generateRouteCoordinates(route)
         initialBearing = Bearing.North
                 .clockwiseRotationTo(
                     Point(
@@ -97,9 +104,8 @@ open class SimpleCamera : Camera {
 
     private fun generateRouteCoordinates(route: DirectionsRoute?): List<Point> {
         return route?.let { rte ->
-            val lineString =
-                PolylineEncoding.decode(encoded = rte.geometry, precision = Constants.PRECISION_6)
-            lineString.map(::Point)
+            PackedPositions.decode(encoded = rte.geometry, precision = Constants.PRECISION_6)
+                .map(::Point)
         } ?: emptyList()
     }
 
@@ -0,0 +1,42 @@
+package org.maplibre.navigation.core.navigation.engine
+
+import kotlinx.coroutines.CoroutineDispatcher
+
+/**
+ * Defines how [MapLibreNavigationEngine] delivers the results of a processed location update
+ * (progress, milestone, off-route and metrics events) to the registered listeners.
+ *
+ * Events of one strategy are always delivered in the order the location updates were processed.
+ */
+sealed class DispatchStrategy {
+
+    /**
+     * Delivers all events directly on the thread, which processed the location update. This avoids
+     * any thread hop, for example for headless usage on the JVM, where no main dispatcher exists.
+     * Listeners must not block, because they delay processing of the next location update.
+     */
+    data object Immediate : DispatchStrategy()
+
+    /**
+     * Posts all events of every location update to the given dispatcher.
+     *
+     * @param dispatcher dispatcher the events are delivered on, or null to deliver them on the
+     * dispatcher of the main scope of [MapLibreNavigationEngine], which is the main thread by default
+     */
+    data class Posted(
+        val dispatcher: CoroutineDispatcher? = null
+    ) : DispatchStrategy()
+
+    /**
+     * Posts events to the given dispatcher, but skips progress events which are already outdated
+     * when the dispatcher gets to them. If the dispatcher is busy, all location updates processed in
+     * the meantime are delivered together, with only the progress event of the latest one.
+     * Milestone, off-route and metrics events are never skipped.
+     *
+     * @param dispatcher dispatcher the events are delivered on, or null to deliver them on the
+     * dispatcher of the main scope of [MapLibreNavigationEngine], which is the main thread by default
+     */
+    data class Conflated(
+        val dispatcher: CoroutineDispatcher? = null
+    ) : DispatchStrategy()
+}
@@ -1,25 +1,41 @@
 package org.maplibre.navigation.core.navigation.engine
 
+import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.conflate
+import kotlinx.coroutines.flow.withIndex
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.sync.Mutex
 import kotlinx.coroutines.sync.withLock
 import org.maplibre.navigation.core.location.Location
 import org.maplibre.navigation.core.location.LocationValidator
 import org.maplibre.navigation.core.location.engine.LocationEngine
+import org.maplibre.navigation.core.metrics.NavigationMetricsRecorder
+import org.maplibre.navigation.core.metrics.NavigationStage
 import org.maplibre.navigation.core.milestone.Milestone
 import org.maplibre.navigation.core.models.DirectionsRoute
 import org.maplibre.navigation.core.navigation.MapLibreNavigation
+import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions
+import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions.LocationProcessingMode
 import org.maplibre.navigation.core.navigation.NavigationEventDispatcher
 import org.maplibre.navigation.core.navigation.NavigationHelper.buildSnappedLocation
 import org.maplibre.navigation.core.navigation.NavigationHelper.checkMilestones
 import org.maplibre.navigation.core.navigation.NavigationHelper.isUserOffRoute
 import org.maplibre.navigation.core.navigation.NavigationIndices
 import org.maplibre.navigation.core.navigation.NavigationRouteProcessor
+import org.maplibre.navigation.core.recording.NavigationSessionRecorder
 import org.maplibre.navigation.core.routeprogress.RouteProgress
 import org.maplibre.navigation.core.utils.RouteUtils
+import kotlin.concurrent.Volatile
+import kotlin.coroutines.CoroutineContext
+import kotlin.coroutines.EmptyCoroutineContext
+import kotlin.jvm.JvmOverloads
+import kotlin.time.TimeMark
+import kotlin.time.TimeSource
 
 /**
  * Default implementation for [NavigationEngine] which is responsible for fetching location updates
@@ -40,9 +56,39 @@ open class MapLibreNavigationEngine(
 
     private val navigationRouteProcessor = NavigationRouteProcessor(routeUtils)
     private val processingMutex = Mutex()
+    private val metricsRecorder = NavigationMetricsRecorder()
 
     private var collectLocationJob: Job? = null
 
+    private val dispatchStrategy: DispatchStrategy
+        get() = mapLibreNavigation.options.dispatchStrategy
+
+    /**
+     * Dispatcher of a posting dispatch strategy together with its view limited to a single thread.
+     */
+    @Volatile
+    private var limitedDispatcher: Pair<CoroutineDispatcher, CoroutineDispatcher>? = null
+
+    /**
+     * Pending updates of the conflated dispatch strategy, waiting for [conflatedDispatchJob].
+     * Only created while a conflated dispatching is running.
+     */
+    @Volatile
+    private var conflatedUpdates: Channel<PendingUpdates>? = null
+
+    @Volatile
+    private var conflatedDispatchJob: Job? = null
+
+    /**
+     * Number of location updates, which were dropped without being processed, because a newer
+     * update arrived while the engine was still busy. Only counted while
+     * [MapLibreNavigationOptions.locationProcessingMode] is [LocationProcessingMode.CONFLATED].
+     * Reset to zero every time a navigation is started.
+     */
+    @Volatile
+    var droppedLocationCount: Long = 0
+        private set
+
     /**
      * Start navigation for the given route.
      *
@@ -51,21 +97,43 @@ open class MapLibreNavigationEngine(
      */
     override fun startNavigation(route: DirectionsRoute) {
         collectLocationJob?.cancel() // Cancel previous started run
+        cancelConflatedDispatch()
+        droppedLocationCount = 0
 
         collectLocationJob = backgroundScope.launch {
             processLocationAndIndexUpdate(
-                locationEngine.getLastLocation() ?: routeUtils.createFirstLocationFromRoute(route)
+                locationEngine.getLastLocation() ?: createFirstLocation(route)
             )
 
-            locationEngine.listenToLocation(
+            val locations = locationEngine.listenToLocation(
                 LocationEngine.Request(
                     minIntervalMilliseconds = LOCATION_ENGINE_INTERVAL,
                     maxIntervalMilliseconds = LOCATION_ENGINE_INTERVAL,
                 )
-            ).collect(::processLocationAndIndexUpdate)
+            )
+            when (mapLibreNavigation.options.locationProcessingMode) {
+                LocationProcessingMode.SEQUENTIAL -> locations.collect(::processLocationAndIndexUpdate)
+                LocationProcessingMode.CONFLATED -> collectConflated(locations)
+            }
         }
     }
 
+    /**
+     * Processes only the newest location update, while the previous one is still processed.
+     * All skipped location updates are counted in [droppedLocationCount].
+     */
+    private suspend fun collectConflated(locations: Flow<Location>) {
+        var lastProcessedIndex = -1
+        locations
+            .withIndex()
+            .conflate()
+            .collect { (index, location) ->
+                droppedLocationCount += index - lastProcessedIndex - 1
+                lastProcessedIndex = index
+                processLocationAndIndexUpdate(location)
+            }
+    }
+
     /**
      * Stop and cancel the current running navigation.
      *
@@ -74,6 +142,7 @@ open class MapLibreNavigationEngine(
     override fun stopNavigation() {
         collectLocationJob?.cancel()
         collectLocationJob = null
+        cancelConflatedDispatch()
     }
 
     /**
@@ -100,24 +169,67 @@ open class MapLibreNavigationEngine(
                 navigationRouteProcessor.setIndex(mapLibreNavigation, it)
             }
 
-            if (!locationValidator.isValidUpdate(rawLocation)) {
+            // Stage durations are only measured while someone listens for metrics.
+            val stageDurations = if (eventDispatcher.hasNavigationMetricsListeners) {
+                metricsRecorder.createStageDurations()
+            } else {
+                null
+            }
+
+            val sessionRecorder = mapLibreNavigation.sessionRecorder
+            sessionRecorder?.recordLocation(rawLocation)
+
+            val isValidUpdate = measure(stageDurations, NavigationStage.LOCATION_VALIDATION) {
+                locationValidator.isValidUpdate(rawLocation)
+            }
+            if (!isValidUpdate) {
                 return
             }
 
-            val routeProgress = navigationRouteProcessor
-                .buildNewRouteProgress(mapLibreNavigation, rawLocation)
+            val routeProgress = measure(stageDurations, NavigationStage.ROUTE_PROGRESS) {
+                navigationRouteProcessor.buildNewRouteProgress(mapLibreNavigation, rawLocation)
+            }
 
-            val userOffRoute = determineUserOffRoute(mapLibreNavigation, rawLocation, routeProgress)
-            val milestones = findTriggeredMilestones(mapLibreNavigation, routeProgress)
-            val location = findSnappedLocation(
-                mapLibreNavigation,
-                rawLocation,
-                routeProgress,
-                userOffRoute
-            )
+            val userOffRoute = measure(stageDurations, NavigationStage.OFF_ROUTE) {
+                determineUserOffRoute(mapLibreNavigation, rawLocation, routeProgress)
+            }
+            val milestones = measure(stageDurations, NavigationStage.MILESTONES) {
+                findTriggeredMilestones(mapLibreNavigation, routeProgress)
+            }
+            val location = measure(stageDurations, NavigationStage.SNAPPING) {
+                findSnappedLocation(
+                    mapLibreNavigation,
+                    rawLocation,
+                    routeProgress,
+                    userOffRoute
+                )
+            }
 
             val finalRouteProgress = updateRouteProcessorWith(routeProgress)
-            dispatchUpdate(userOffRoute, milestones, location, finalRouteProgress)
+            sessionRecorder?.let { recorder ->
+                recordUpdate(recorder, rawLocation, userOffRoute, milestones, finalRouteProgress)
+            }
+            dispatchUpdate(userOffRoute, milestones, location, finalRouteProgress, stageDurations)
+        }
+    }
+
+    /**
+     * Records the results of a processed location update, without allocating.
+     */
+    private fun recordUpdate(
+        recorder: NavigationSessionRecorder,
+        rawLocation: Location,
+        userOffRoute: Boolean,
+        milestones: List<Milestone>,
+        routeProgress: RouteProgress
+    ) {
+        val timeMilliseconds = rawLocation.timeMilliseconds
+        recorder.recordProgress(timeMilliseconds, routeProgress)
+        for (index in milestones.indices) {
+            recorder.recordMilestone(timeMilliseconds, milestones[index])
+        }
+        if (userOffRoute) {
+            recorder.recordOffRoute(timeMilliseconds)
         }
     }
 
@@ -165,16 +277,109 @@ open class MapLibreNavigationEngine(
         return routeProgress
     }
 
+    @JvmOverloads
     protected fun dispatchUpdate(
         userOffRoute: Boolean,
         milestones: List<Milestone>,
         location: Location,
-        routeProgress: RouteProgress
+        routeProgress: RouteProgress,
+        stageDurations: LongArray? = null
     ) {
-        mainScope.launch {
-            dispatchRouteProgress(location, routeProgress)
-            dispatchTriggeredMilestones(milestones, routeProgress)
-            dispatchOffRoute(location, userOffRoute)
+        val update = NavigationUpdate(
+            userOffRoute = userOffRoute,
+            milestones = milestones,
+            location = location,
+            routeProgress = routeProgress,
+            stageDurations = stageDurations,
+            dispatchMark = stageDurations?.let { TimeSource.Monotonic.markNow() }
+        )
+
+        when (val strategy = dispatchStrategy) {
+            is DispatchStrategy.Immediate -> dispatchNavigationUpdate(update, dispatchProgress = true)
+            is DispatchStrategy.Posted -> mainScope.launch(dispatchContext(strategy.dispatcher)) {
+                dispatchNavigationUpdate(update, dispatchProgress = true)
+            }
+            is DispatchStrategy.Conflated -> sendConflated(update, strategy.dispatcher)
+        }
+    }
+
+    /**
+     * Merges the given update into the pending updates of the conflated dispatching. Pending
+     * updates, which were not taken by the dispatching yet, are taken back and sent again together
+     * with the given update, so at most one merged element is waiting at any time.
+     */
+    private fun sendConflated(update: NavigationUpdate, dispatcher: CoroutineDispatcher?) {
+        val updates = conflatedUpdates ?: launchConflatedDispatch(dispatcher)
+        val pendingUpdates = updates.tryReceive().getOrNull()
+        updates.trySend(pendingUpdates?.mergeWith(update) ?: PendingUpdates(update))
+    }
+
+    /**
+     * Delivers all updates, which are pending when the dispatcher gets to them, at once. Only the
+     * progress of the latest update is delivered, all other events of the skipped updates are kept.
+     * Runs until [cancelConflatedDispatch] is called, when the navigation is stopped or restarted.
+     */
+    private fun launchConflatedDispatch(dispatcher: CoroutineDispatcher?): Channel<PendingUpdates> {
+        val updates = Channel<PendingUpdates>(Channel.CONFLATED)
+        conflatedDispatchJob = mainScope.launch(dispatchContext(dispatcher)) {
+            for (pendingUpdates in updates) {
+                pendingUpdates.skipped.forEach { skippedUpdate ->
+                    dispatchNavigationUpdate(skippedUpdate, dispatchProgress = false)
+                }
+                dispatchNavigationUpdate(pendingUpdates.latest, dispatchProgress = true)
+            }
+        }
+        conflatedUpdates = updates
+        return updates
+    }
+
+    /**
+     * Stops the conflated dispatching and drops all of its pending updates.
+     */
+    private fun cancelConflatedDispatch() {
+        conflatedUpdates?.cancel()
+        conflatedUpdates = null
+        conflatedDispatchJob?.cancel()
+        conflatedDispatchJob = null
+    }
+
+    /**
+     * Returns the context to launch the dispatching of a posting dispatch strategy in. The given
+     * dispatcher is limited to a single thread to keep the order of the delivered events. Without a
+     * dispatcher, the dispatcher of [mainScope] is kept.
+     *
+     * @param dispatcher dispatcher of the dispatch strategy
+     * @return context to launch the dispatching in
+     */
+    private fun dispatchContext(dispatcher: CoroutineDispatcher?): CoroutineContext {
+        if (dispatcher == null) {
+            return EmptyCoroutineContext
+        }
+
+        limitedDispatcher
+            ?.takeIf { (source, _) -> source === dispatcher }
+            ?.let { (_, limited) -> return limited }
+
+        return dispatcher.limitedParallelism(1).also { limited ->
+            limitedDispatcher = dispatcher to limited
+        }
+    }
+
+    private fun dispatchNavigationUpdate(update: NavigationUpdate, dispatchProgress: Boolean) {
+        val stageDurations = update.stageDurations
+        if (stageDurations != null && update.dispatchMark != null) {
+            stageDurations[NavigationStage.DISPATCH.ordinal] =
+                update.dispatchMark.elapsedNow().inWholeNanoseconds
+        }
+
+        if (dispatchProgress) {
+            dispatchRouteProgress(update.location, update.routeProgress)
+        }
+        dispatchTriggeredMilestones(update.milestones, update.routeProgress)
+        dispatchOffRoute(update.location, update.userOffRoute)
+
+        if (stageDurations != null) {
+            eventDispatcher.onNavigationMetrics(metricsRecorder.record(stageDurations))
         }
     }
 
@@ -198,6 +403,38 @@ open class MapLibreNavigationEngine(
         }
     }
 
+    /**
+     * Runs the given block and stores its duration for the given stage, if stage durations are
+     * measured for the current location update.
+     */
+    private inline fun <T> measure(
+        stageDurations: LongArray?,
+        stage: NavigationStage,
+        block: () -> T
+    ): T {
+        if (stageDurations == null) {
+            return block()
+        }
+
+        val mark = TimeSource.Monotonic.markNow()
+        val result = block()
+        stageDurations[stage.ordinal] = mark.elapsedNow().inWholeNanoseconds
+        return result
+    }
+
+    /**
+     * Creates the first location of the given route, used while no location is available yet.
+     * Reuses the already decoded geometry of the route, if available.
+     *
+     * @param route the route to start
+     * @return location at the start of the route
+     */
+    private fun createFirstLocation(route: DirectionsRoute): Location {
+        return mapLibreNavigation.routeGeometryIndexFor(route)
+            ?.let(routeUtils::createFirstLocationFromRoute)
+            ?: routeUtils.createFirstLocationFromRoute(route)
+    }
+
     /**
      * Manually triggers a route progress update for the specified leg and step indices.
      * This method is used for waypoint skipping during active navigation.
@@ -213,6 +450,40 @@ open class MapLibreNavigationEngine(
         }
     }
 
+    /**
+     * Results of a processed location update, waiting to be delivered to the listeners.
+     */
+    private class NavigationUpdate(
+        val userOffRoute: Boolean,
+        val milestones: List<Milestone>,
+        val location: Location,
+        val routeProgress: RouteProgress,
+        val stageDurations: LongArray?,
+        val dispatchMark: TimeMark?
+    ) {
+        /**
+         * Whether this update holds any event besides its progress.
+         */
+        val hasEvents: Boolean
+            get() = userOffRoute || milestones.isNotEmpty() || stageDurations != null
+    }
+
+    /**
+     * Updates waiting for the conflated dispatching. Only the progress of the [latest] update is
+     * delivered, the [skipped] updates are only kept for their other events.
+     */
+    private class PendingUpdates(
+        val latest: NavigationUpdate,
+        val skipped: List<NavigationUpdate> = emptyList()
+    ) {
+        fun mergeWith(update: NavigationUpdate): PendingUpdates {
+            return PendingUpdates(
+                latest = update,
+                skipped = if (latest.hasEvents) skipped + latest else skipped
+            )
+        }
+    }
+
     companion object {
         const val LOCATION_ENGINE_INTERVAL = 1000L
     }
@@ -1,5 +1,7 @@
 package org.maplibre.navigation.core.offroute
 
+import org.maplibre.navigation.core.geometry.ProjectionCursor
+import org.maplibre.navigation.core.geometry.StepGeometryCache
 import org.maplibre.navigation.core.location.Location
 import org.maplibre.navigation.core.models.LegStep
 import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions
@@ -7,16 +9,14 @@ import org.maplibre.navigation.core.routeprogress.RouteProgress
 import org.maplibre.navigation.core.utils.MeasurementUtils.userTrueDistanceFromStep
 import org.maplibre.navigation.core.utils.RingBuffer
 import org.maplibre.navigation.core.utils.ToleranceUtils.dynamicOffRouteRadiusTolerance
-import org.maplibre.spatialk.geojson.LineString
 import org.maplibre.spatialk.geojson.Point
 import org.maplibre.spatialk.geojson.Position
 import org.maplibre.spatialk.turf.measurement.distance
-import org.maplibre.spatialk.turf.measurement.length
-import org.maplibre.spatialk.turf.misc.nearestPointTo
-import org.maplibre.spatialk.turf.misc.slice
 import org.maplibre.spatialk.units.extensions.inMeters
 import kotlin.jvm.JvmStatic
+import kotlin.math.abs
 import kotlin.math.max
+import kotlin.math.min
 
 /**
  * @param callback a callback that is fired for different off-route scenarios.
@@ -25,14 +25,16 @@ open class OffRouteDetector(
     /**
      * A callback that is fired for different off-route scenarios.
      *
-     * Right now, the only scenario is when the step index should be increased with
-     * [OffRouteCallback.onShouldIncreaseIndex].
+     * The step index should be increased with [OffRouteCallback.onShouldIncreaseIndex], or the
+     * user was found on another step of the route with [OffRouteCallback.onShouldUpdateToIndex].
      */
     var callback: OffRouteCallback? = null
 ) : OffRoute {
 
     private var lastReroutePoint: Position? = null
     private val distancesAwayFromManeuver = RingBuffer<Int>(3)
+    private val projectionCursor = ProjectionCursor()
+    private val stepGeometryCache = StepGeometryCache()
 
     /**
      * Method in charge of running a series of test based on the device current location
@@ -64,6 +66,13 @@ open class OffRouteDetector(
      * to let the <tt>NavigationEngine</tt> know that the
      * step index should be increased on the next location update.
      *
+     *
+     * Test #5:
+     * Searches the user on the whole route, if [MapLibreNavigationOptions.enableRouteReacquisition] is
+     * enabled. If another step heading in the direction of the location bearing is within the
+     * off-route radius, this method will return false as well as fire
+     * [OffRouteCallback.onShouldUpdateToIndex] to continue on this step.
+     *
      * @return true if the users off-route, else false.
      * @since 0.2.0
      */
@@ -98,10 +107,16 @@ open class OffRouteDetector(
 
         callback?.let { callback ->
             routeProgress.currentLegProgress.upComingStep?.let { upComingStep ->
-                if (closeToUpcomingStep(options, callback, currentPoint, upComingStep)) {
+                if (closeToUpcomingStep(options, callback, currentPoint, routeProgress, upComingStep)) {
                     return false
                 }
             }
+
+            if (options.enableRouteReacquisition &&
+                reacquireRoute(location, options, callback, currentPoint, routeProgress)
+            ) {
+                return false
+            }
         }
 
         // All checks have run, return true
@@ -158,10 +173,15 @@ open class OffRouteDetector(
         currentPoint: Position
     ): Boolean {
         val currentStep = routeProgress.currentLegProgress.currentStep
-        val distanceFromCurrentStep = userTrueDistanceFromStep(
-            currentPoint,
-            currentStep
-        )
+        val distanceFromCurrentStep = routeProgress.routeProjection
+            ?.takeIf { projection -> projection.isProjectionOf(currentPoint) }
+            ?.distanceFromLine
+            ?: distanceFromStep(
+                currentPoint,
+                routeProgress,
+                routeProgress.stepIndex,
+                currentStep
+            )
 
         val offRouteRadius = createOffRouteRadius(location, routeProgress, options, currentPoint)
         return distanceFromCurrentStep > offRouteRadius
@@ -218,6 +238,7 @@ open class OffRouteDetector(
      * @param options      for maneuver zone radius
      * @param callback     to increase step index
      * @param currentPoint for distance from upcoming step
+     * @param routeProgress for the decoded upcoming step geometry
      * @param upComingStep for distance from current point
      * @return true if close to upcoming step, false if not
      */
@@ -225,9 +246,15 @@ open class OffRouteDetector(
         options: MapLibreNavigationOptions,
         callback: OffRouteCallback,
         currentPoint: Position,
+        routeProgress: RouteProgress,
         upComingStep: LegStep
     ): Boolean {
-        val distanceFromUpcomingStep = userTrueDistanceFromStep(currentPoint, upComingStep)
+        val distanceFromUpcomingStep = distanceFromStep(
+            currentPoint,
+            routeProgress,
+            routeProgress.stepIndex + 1,
+            upComingStep
+        )
         val maneuverZoneRadius = options.maneuverZoneRadius
         return if (distanceFromUpcomingStep < maneuverZoneRadius) {
             // Callback to the NavigationEngine to increase the step index
@@ -238,6 +265,92 @@ open class OffRouteDetector(
         }
     }
 
+    /**
+     * Searches the step closest to the current point on the whole route, using the
+     * [org.maplibre.navigation.core.geometry.RouteSegmentIndex] of the route progress.
+     *
+     *
+     * Only segments heading in the direction of the location bearing are considered, so a road
+     * driven in the opposite direction, for example on the way back of a route, is never matched.
+     * Steps ahead of the current step are preferred over the steps already passed. Without a
+     * location bearing, the route is not searched.
+     *
+     *
+     * If a step other than the current one is within the off-route radius, fire
+     * [OffRouteCallback.onShouldUpdateToIndex] to continue navigating on this step and return true.
+     *
+     * @param location      current location, for the bearing and the accuracy based tolerance
+     * @param options       for the off-route radius
+     * @param callback      to update the indices
+     * @param currentPoint  to search the closest step for
+     * @param routeProgress for the segment index of the route
+     * @return true if the user was found on another step, false if not
+     */
+    private fun reacquireRoute(
+        location: Location,
+        options: MapLibreNavigationOptions,
+        callback: OffRouteCallback,
+        currentPoint: Position,
+        routeProgress: RouteProgress
+    ): Boolean {
+        val bearing = location.bearing?.toDouble() ?: return false
+        val segmentIndex = routeProgress.routeGeometryIndex?.segmentIndex ?: return false
+        val offRouteRadius = createOffRouteRadius(location, routeProgress, options, currentPoint)
+        val legIndex = routeProgress.legIndex
+        val stepIndex = routeProgress.stepIndex
+        val match = segmentIndex.nearestSegment(currentPoint, offRouteRadius) { matchLegIndex, matchStepIndex, segmentBearing ->
+            compareSteps(matchLegIndex, matchStepIndex, legIndex, stepIndex) > 0 &&
+                    isHeadingAlong(bearing, segmentBearing)
+        } ?: segmentIndex.nearestSegment(currentPoint, offRouteRadius) { matchLegIndex, matchStepIndex, segmentBearing ->
+            compareSteps(matchLegIndex, matchStepIndex, legIndex, stepIndex) < 0 &&
+                    isHeadingAlong(bearing, segmentBearing)
+        } ?: return false
+
+        callback.onShouldUpdateToIndex(match.legIndex, match.stepIndex)
+        return true
+    }
+
+    /**
+     * Compares the position of two steps along the route.
+     *
+     * @return a positive number if the first step comes after the second one, a negative number
+     * if it comes before and zero if both are the same step
+     */
+    private fun compareSteps(legIndex: Int, stepIndex: Int, otherLegIndex: Int, otherStepIndex: Int): Int {
+        return if (legIndex != otherLegIndex) legIndex - otherLegIndex else stepIndex - otherStepIndex
+    }
+
+    private fun isHeadingAlong(bearing: Double, segmentBearing: Double): Boolean {
+        val difference = abs(bearing - segmentBearing) % 360.0
+        return min(difference, 360.0 - difference) <= MAX_REACQUISITION_BEARING_DIFFERENCE
+    }
+
+    /**
+     * Measures the distance from the current point to the given step. The already decoded step
+     * geometry of the [RouteProgress.routeGeometryIndex] and its local tangent plane are used if
+     * available.
+     *
+     * @param currentPoint  to measure the distance from
+     * @param routeProgress for the decoded step geometry
+     * @param stepIndex     index of the step in the current leg
+     * @param step          to decode, if no decoded geometry is available
+     * @return distance in meters
+     */
+    private fun distanceFromStep(
+        currentPoint: Position,
+        routeProgress: RouteProgress,
+        stepIndex: Int,
+        step: LegStep
+    ): Double {
+        return routeProgress.routeGeometryIndex
+            ?.stepGeometry(routeProgress.legIndex, stepIndex)
+            ?.let { stepGeometry ->
+                stepGeometry.localTangentPlane?.distanceFromLine(currentPoint)
+                    ?: userTrueDistanceFromStep(currentPoint, stepGeometry.positions)
+            }
+            ?: userTrueDistanceFromStep(currentPoint, step)
+    }
+
     /**
      * Checks to see if the current point is moving away from the maneuver.
      *
@@ -264,18 +377,8 @@ open class OffRouteDetector(
             return false
         }
 
-        val stepLineString = LineString(stepPoints)
-        val maneuverPoint = stepPoints[stepPoints.size - 1]
-
-        val userPointOnStepFeature = LineString(stepPoints).nearestPointTo(currentPoint)
-        val userPointOnStep = userPointOnStepFeature.geometry.coordinates
-        if (maneuverPoint == userPointOnStep) {
-            return false
-        }
-
-        val remainingStepLineString = stepLineString.slice(userPointOnStep, maneuverPoint)
-        val userDistanceToManeuver = remainingStepLineString.length().inMeters
-            .toInt()
+        val userDistanceToManeuver = distanceToManeuver(routeProgress, stepPoints, currentPoint)
+            ?: return false
 
         if (distancesAwayFromManeuver.isEmpty()) {
             // No move-away positions before, add the current one to history stack
@@ -302,8 +405,47 @@ open class OffRouteDetector(
         return false
     }
 
+    /**
+     * Measures the distance along the step from the current point, snapped to the step, to the
+     * maneuver at the end of the step. The already decoded step geometry of the
+     * [RouteProgress.routeGeometryIndex] and the [RouteProgress.routeProjection] are used if
+     * available. Otherwise, the step points are measured once per step by [stepGeometryCache].
+     *
+     * @param routeProgress for the decoded step geometry
+     * @param stepPoints    current step points being traveled along
+     * @param currentPoint  to measure the distance from
+     * @return distance in meters or null if the snapped point equals the maneuver
+     */
+    private fun distanceToManeuver(
+        routeProgress: RouteProgress,
+        stepPoints: List<Position>,
+        currentPoint: Position
+    ): Int? {
+        val maneuverPoint = stepPoints[stepPoints.size - 1]
+
+        val indexedStepGeometry = routeProgress.routeGeometryIndex
+            ?.stepGeometry(routeProgress.legIndex, routeProgress.stepIndex)
+            ?.takeIf { stepGeometry -> stepGeometry.positions === stepPoints }
+        val stepGeometry = indexedStepGeometry ?: stepGeometryCache.stepGeometryOf(stepPoints)
+
+        // Reuse the projection of the route progress if it was created for the same point
+        val projection = routeProgress.routeProjection
+            ?.takeIf { projection -> indexedStepGeometry != null && projection.isProjectionOf(currentPoint) }
+            ?: projectionCursor.project(stepGeometry, currentPoint)!!
+        if (maneuverPoint == projection.position) {
+            return null
+        }
+        return (stepGeometry.length - projection.distanceAlongStep).toInt()
+    }
+
     companion object {
         @JvmStatic
         protected val TWO_POINTS = 2
+
+        /**
+         * Maximum difference in degrees between the location bearing and a segment of the route,
+         * to re-acquire the route on this segment.
+         */
+        private const val MAX_REACQUISITION_BEARING_DIFFERENCE = 45.0
     }
 }
@@ -0,0 +1,15 @@
+package org.maplibre.navigation.core.offroute
+
+import org.maplibre.navigation.core.location.Location
+
+/**
+ * Detected off-route, as emitted by
+ * [org.maplibre.navigation.core.navigation.MapLibreNavigation.offRouteEvents].
+ *
+ * @param location the location at which the user left the route
+ *
+ * @since 5.0.0
+ */
+data class OffRouteEvent(
+    val location: Location
+)
@@ -0,0 +1,70 @@
+package org.maplibre.navigation.core.recording
+
+import org.maplibre.navigation.core.location.Location
+
+/**
+ * A single record of a navigation recording, read by [NavigationRecordReader].
+ *
+ * @since 5.0.0
+ */
+sealed class NavigationRecord {
+
+    /**
+     * Time of the location update the record belongs to, in milliseconds since epoch, or null if
+     * the location had no time.
+     */
+    abstract val timeMilliseconds: Long?
+
+    /**
+     * A raw location update. Only the recorded fields of the location are set.
+     */
+    data class LocationRecord(
+        val location: Location
+    ) : NavigationRecord() {
+        override val timeMilliseconds: Long?
+            get() = location.timeMilliseconds
+    }
+
+    /**
+     * Summary of the route progress, derived from a location update.
+     */
+    data class ProgressRecord(
+        override val timeMilliseconds: Long?,
+        val legIndex: Int,
+        val stepIndex: Int,
+        val distanceRemaining: Double,
+        val legDistanceRemaining: Double,
+        val stepDistanceRemaining: Double
+    ) : NavigationRecord()
+
+    /**
+     * A triggered milestone.
+     */
+    data class MilestoneRecord(
+        override val timeMilliseconds: Long?,
+        val milestoneIdentifier: Int
+    ) : NavigationRecord()
+
+    /**
+     * The user went off-route.
+     */
+    data class OffRouteRecord(
+        override val timeMilliseconds: Long?
+    ) : NavigationRecord()
+
+    internal companion object {
+        const val VERSION = 1
+
+        /**
+         * Magic bytes "MLNR", followed by the format version.
+         */
+        val HEADER = byteArrayOf('M'.code.toByte(), 'L'.code.toByte(), 'N'.code.toByte(), 'R'.code.toByte(), VERSION.toByte())
+
+        const val TYPE_LOCATION = 1
+        const val TYPE_PROGRESS = 2
+        const val TYPE_MILESTONE = 3
+        const val TYPE_OFF_ROUTE = 4
+
+        const val UNKNOWN_TIME = Long.MIN_VALUE
+    }
+}
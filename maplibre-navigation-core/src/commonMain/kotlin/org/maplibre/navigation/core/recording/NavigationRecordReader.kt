@@ -0,0 +1,123 @@
+package org.maplibre.navigation.core.recording
+
+import org.maplibre.navigation.core.location.Location
+
+/**
+ * Reads a recording written by [NavigationSessionRecorder].
+ *
+ * @since 5.0.0
+ */
+object NavigationRecordReader {
+
+    /**
+     * Provider of the locations read from a recording.
+     */
+    const val PROVIDER_NAME = "NavigationRecording"
+
+    /**
+     * Reads all records of the recording. An incomplete last record, for example of a session that
+     * was not closed, is ignored.
+     *
+     * @param bytes the whole recording
+     * @return the records in recorded order
+     * @throws IllegalArgumentException if the bytes are no recording of a supported version
+     */
+    fun read(bytes: ByteArray): List<NavigationRecord> {
+        val header = NavigationRecord.HEADER
+        require(bytes.size >= header.size && header.indices.all { bytes[it] == header[it] }) {
+            "Not a navigation recording of version ${NavigationRecord.VERSION}"
+        }
+
+        val cursor = Cursor(bytes, header.size)
+        val records = mutableListOf<NavigationRecord>()
+        while (cursor.hasRemaining()) {
+            val record = try {
+                cursor.readRecord()
+            } catch (e: IndexOutOfBoundsException) {
+                null
+            } ?: break
+            records.add(record)
+        }
+        return records
+    }
+
+    private class Cursor(private val bytes: ByteArray, private var position: Int) {
+
+        fun hasRemaining() = position < bytes.size
+
+        fun readRecord(): NavigationRecord {
+            return when (val type = readByte()) {
+                NavigationRecord.TYPE_LOCATION -> {
+                    val timeMilliseconds = readTime()
+                    val latitude = readDouble()
+                    val longitude = readDouble()
+                    val altitude = readDouble()
+                    val accuracy = readFloat()
+                    val speed = readFloat()
+                    val bearing = readFloat()
+                    NavigationRecord.LocationRecord(
+                        Location(
+                            latitude = latitude,
+                            longitude = longitude,
+                            accuracyMeters = accuracy.takeUnless { it.isNaN() },
+                            altitude = altitude.takeUnless { it.isNaN() },
+                            speedMetersPerSeconds = speed.takeUnless { it.isNaN() },
+                            bearing = bearing.takeUnless { it.isNaN() },
+                            timeMilliseconds = timeMilliseconds,
+                            provider = PROVIDER_NAME
+                        )
+                    )
+                }
+
+                NavigationRecord.TYPE_PROGRESS -> NavigationRecord.ProgressRecord(
+                    timeMilliseconds = readTime(),
+                    legIndex = readInt(),
+                    stepIndex = readInt(),
+                    distanceRemaining = readDouble(),
+                    legDistanceRemaining = readDouble(),
+                    stepDistanceRemaining = readDouble()
+                )
+
+                NavigationRecord.TYPE_MILESTONE -> NavigationRecord.MilestoneRecord(
+                    timeMilliseconds = readTime(),
+                    milestoneIdentifier = readInt()
+                )
+
+                NavigationRecord.TYPE_OFF_ROUTE -> NavigationRecord.OffRouteRecord(
+                    timeMilliseconds = readTime()
+                )
+
+                else -> throw IllegalArgumentException("Unknown record type $type at byte ${position - 1}")
+            }
+        }
+
+        private fun readByte(): Int {
+            if (position >= bytes.size) {
+                throw IndexOutOfBoundsException("Recording ends within a record")
+            }
+            return bytes[position++].toInt() and 0xFF
+        }
+
+        private fun readInt(): Int {
+            var value = 0
+            for (shift in 0 until Int.SIZE_BITS step 8) {
+                value = value or (readByte() shl shift)
+            }
+            return value
+        }
+
+        private fun readLong(): Long {
+            var value = 0L
+            for (shift in 0 until Long.SIZE_BITS step 8) {
+                value = value or (readByte().toLong() shl shift)
+            }
+            return value
+        }
+
+        private fun readFloat() = Float.fromBits(readInt())
+
+        private fun readDouble() = Double.fromBits(readLong())
+
+        private fun readTime() = readLong().takeUnless { it == NavigationRecord.UNKNOWN_TIME }
+    }
+}
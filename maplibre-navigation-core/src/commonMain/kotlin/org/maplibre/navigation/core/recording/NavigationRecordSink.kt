@@ -0,0 +1,21 @@
+package org.maplibre.navigation.core.recording
+
+/**
+ * Destination of the binary recording written by [NavigationSessionRecorder], for example a file.
+ * All methods are called from the flush coroutine of the recorder and never concurrently.
+ *
+ * @since 5.0.0
+ */
+interface NavigationRecordSink : AutoCloseable {
+
+    /**
+     * Appends [length] bytes of [bytes], starting at [offset]. The array is reused by the
+     * recorder, so the bytes need to be copied if they are kept.
+     */
+    fun write(bytes: ByteArray, offset: Int, length: Int)
+
+    /**
+     * Called after every written batch, to persist the bytes written so far.
+     */
+    fun flush()
+}
@@ -0,0 +1,269 @@
+package org.maplibre.navigation.core.recording
+
+import co.touchlab.kermit.Logger
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withTimeoutOrNull
+import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.milestone.Milestone
+import org.maplibre.navigation.core.routeprogress.RouteProgress
+import kotlin.concurrent.Volatile
+import kotlin.jvm.JvmOverloads
+
+/**
+ * Records a navigation session in a compact binary format, to reproduce issues of field sessions.
+ * Attach it to a navigation with [org.maplibre.navigation.core.navigation.MapLibreNavigation.sessionRecorder],
+ * to record every raw location, the route progress summary, triggered milestones and off-route
+ * events. The recording can be read again with [NavigationRecordReader].
+ *
+ * Records are written to a preallocated ring buffer without allocating, and written to the [sink]
+ * in batches by a background coroutine: once the buffer is half full, or at the latest after
+ * [flushIntervalMilliseconds]. If the sink can't keep up and the buffer is full, new records are
+ * dropped and counted in [droppedRecordCount].
+ *
+ * The record methods must not be called concurrently, which is ensured while the recorder is only
+ * attached to a single navigation.
+ *
+ * @param sink destination of the recording
+ * @param capacityBytes size of the ring buffer
+ * @param flushIntervalMilliseconds maximum time records stay in the buffer
+ * @param scope scope of the background coroutine writing to the sink
+ *
+ * @since 5.0.0
+ */
+class NavigationSessionRecorder @JvmOverloads constructor(
+    private val sink: NavigationRecordSink,
+    capacityBytes: Int = DEFAULT_CAPACITY_BYTES,
+    private val flushIntervalMilliseconds: Long = DEFAULT_FLUSH_INTERVAL_MILLISECONDS,
+    scope: CoroutineScope = CoroutineScope(Dispatchers.Default)
+) {
+
+    init {
+        require(capacityBytes >= MIN_CAPACITY_BYTES) { "Capacity must be at least $MIN_CAPACITY_BYTES bytes" }
+        require(flushIntervalMilliseconds > 0) { "Flush interval must be positive" }
+    }
+
+    private val buffer = ByteArray(capacityBytes)
+    private val capacity = capacityBytes.toLong()
+    private val flushThreshold = capacity / 2
+
+    /**
+     * Total bytes ever written to the buffer. Only modified by the recording thread.
+     */
+    @Volatile
+    private var writePosition = 0L
+
+    /**
+     * Total bytes ever written to the sink. Only modified by the flush coroutine.
+     */
+    @Volatile
+    private var readPosition = 0L
+
+    /**
+     * Write position of the record, which is currently written.
+     */
+    private var recordPosition = 0L
+
+    @Volatile
+    private var flushRequested = false
+
+    @Volatile
+    private var closed = false
+
+    private var headerWritten = false
+
+    private val flushRequests = Channel<Unit>(Channel.CONFLATED)
+    private val flushJob = scope.launch { runFlushLoop() }
+
+    /**
+     * Number of records, which were dropped because the buffer was full.
+     */
+    @Volatile
+    var droppedRecordCount: Long = 0
+        private set
+
+    /**
+     * Records a raw location update, before it was validated or snapped.
+     */
+    fun recordLocation(location: Location) {
+        if (!beginRecord(LOCATION_RECORD_SIZE)) {
+            return
+        }
+
+        putByte(NavigationRecord.TYPE_LOCATION)
+        putTime(location.timeMilliseconds)
+        putDouble(location.latitude)
+        putDouble(location.longitude)
+        putDouble(location.altitude ?: Double.NaN)
+        putFloat(location.accuracyMeters ?: Float.NaN)
+        putFloat(location.speedMetersPerSeconds ?: Float.NaN)
+        putFloat(location.bearing ?: Float.NaN)
+        commitRecord()
+    }
+
+    /**
+     * Records the indices and remaining distances of the route progress, derived from the location
+     * update with the given time.
+     */
+    fun recordProgress(timeMilliseconds: Long?, routeProgress: RouteProgress) {
+        if (!beginRecord(PROGRESS_RECORD_SIZE)) {
+            return
+        }
+
+        putByte(NavigationRecord.TYPE_PROGRESS)
+        putTime(timeMilliseconds)
+        putInt(routeProgress.legIndex)
+        putInt(routeProgress.stepIndex)
+        putDouble(routeProgress.distanceRemaining)
+        putDouble(routeProgress.legDistanceRemaining)
+        putDouble(routeProgress.stepDistanceRemaining)
+        commitRecord()
+    }
+
+    /**
+     * Records the identifier of a triggered milestone.
+     */
+    fun recordMilestone(timeMilliseconds: Long?, milestone: Milestone) {
+        if (!beginRecord(MILESTONE_RECORD_SIZE)) {
+            return
+        }
+
+        putByte(NavigationRecord.TYPE_MILESTONE)
+        putTime(timeMilliseconds)
+        putInt(milestone.identifier)
+        commitRecord()
+    }
+
+    /**
+     * Records that the user went off-route.
+     */
+    fun recordOffRoute(timeMilliseconds: Long?) {
+        if (!beginRecord(OFF_ROUTE_RECORD_SIZE)) {
+            return
+        }
+
+        putByte(NavigationRecord.TYPE_OFF_ROUTE)
+        putTime(timeMilliseconds)
+        commitRecord()
+    }
+
+    /**
+     * Stops recording, writes all buffered records to the sink and closes it. Records passed after
+     * this call are ignored.
+     */
+    suspend fun close() {
+        closed = true
+        flushRequests.close()
+        flushJob.join()
+        sink.close()
+    }
+
+    private fun beginRecord(size: Int): Boolean {
+        if (closed) {
+            return false
+        }
+        if (capacity - (writePosition - readPosition) < size) {
+            droppedRecordCount++
+            return false
+        }
+
+        recordPosition = writePosition
+        return true
+    }
+
+    private fun commitRecord() {
+        writePosition = recordPosition
+        if (!flushRequested && writePosition - readPosition >= flushThreshold) {
+            flushRequested = true
+            flushRequests.trySend(Unit)
+        }
+    }
+
+    private fun putByte(value: Int) {
+        buffer[(recordPosition % capacity).toInt()] = value.toByte()
+        recordPosition++
+    }
+
+    private fun putInt(value: Int) {
+        var remaining = value
+        repeat(Int.SIZE_BYTES) {
+            putByte(remaining)
+            remaining = remaining ushr 8
+        }
+    }
+
+    private fun putLong(value: Long) {
+        var remaining = value
+        repeat(Long.SIZE_BYTES) {
+            putByte(remaining.toInt())
+            remaining = remaining ushr 8
+        }
+    }
+
+    private fun putFloat(value: Float) = putInt(value.toRawBits())
+
+    private fun putDouble(value: Double) = putLong(value.toRawBits())
+
+    private fun putTime(timeMilliseconds: Long?) = putLong(timeMilliseconds ?: NavigationRecord.UNKNOWN_TIME)
+
+    private suspend fun runFlushLoop() {
+        while (true) {
+            val request = withTimeoutOrNull(flushIntervalMilliseconds) {
+                flushRequests.receiveCatching()
+            }
+
+            try {
+                flushPending()
+            } catch (e: Exception) {
+                Logger.e(e) { "Writing the navigation recording failed, recording is stopped" }
+                closed = true
+                return
+            }
+
+            if (request?.isClosed == true) {
+                return
+            }
+        }
+    }
+
+    /**
+     * Writes all records, which were completely written to the buffer, to the sink.
+     */
+    private fun flushPending() {
+        flushRequested = false
+        val start = readPosition
+        val end = writePosition
+
+        if (!headerWritten) {
+            sink.write(NavigationRecord.HEADER, 0, NavigationRecord.HEADER.size)
+            headerWritten = true
+        } else if (start == end) {
+            return
+        }
+
+        // Pending bytes wrap around the end of the buffer at most once
+        val startIndex = (start % capacity).toInt()
+        val length = (end - start).toInt()
+        val firstLength = minOf(length, buffer.size - startIndex)
+        sink.write(buffer, startIndex, firstLength)
+        if (firstLength < length) {
+            sink.write(buffer, 0, length - firstLength)
+        }
+        sink.flush()
+
+        readPosition = end
+    }
+
+    companion object {
+        const val DEFAULT_CAPACITY_BYTES = 64 * 1024
+        const val DEFAULT_FLUSH_INTERVAL_MILLISECONDS = 5_000L
+
+        private const val LOCATION_RECORD_SIZE = 1 + 8 + 3 * 8 + 3 * 4
+        private const val PROGRESS_RECORD_SIZE = 1 + 8 + 2 * 4 + 3 * 8
+        private const val MILESTONE_RECORD_SIZE = 1 + 8 + 4
+        private const val OFF_ROUTE_RECORD_SIZE = 1 + 8
+        private const val MIN_CAPACITY_BYTES = 2 * LOCATION_RECORD_SIZE
+    }
+}
@@ -0,0 +1,15 @@
+package org.maplibre.navigation.core.route
+
+import org.maplibre.navigation.core.models.DirectionsRoute
+
+/**
+ * Found faster route, as emitted by
+ * [org.maplibre.navigation.core.navigation.MapLibreNavigation.fasterRouteEvents].
+ *
+ * @param directionsRoute the faster route
+ *
+ * @since 5.0.0
+ */
+data class FasterRouteEvent(
+    val directionsRoute: DirectionsRoute?
+)
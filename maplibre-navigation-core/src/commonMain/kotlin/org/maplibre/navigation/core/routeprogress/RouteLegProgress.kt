@@ -146,12 +146,12 @@ data class RouteLegProgress(
 
     /**
      * Gives a [RouteStepProgress] object with information about the particular step the user
-     * is currently on.
+     * is currently on. The object is created on first access and reused afterwards.
      *
      * @since 0.1.0
      */
-    val currentStepProgress: RouteStepProgress
-        get() = RouteStepProgress(
+    val currentStepProgress: RouteStepProgress by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        RouteStepProgress(
             step = currentStep,
             nextStep = routeLeg.steps.getOrNull(stepIndex + 1),
             distanceRemaining = stepDistanceRemaining,
@@ -160,4 +160,5 @@ data class RouteLegProgress(
             upcomingIntersection = upcomingIntersection,
             intersectionDistancesAlongStep = intersectionDistancesAlongStep
         )
+    }
 }
@@ -1,5 +1,7 @@
 package org.maplibre.navigation.core.routeprogress
 
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
+import org.maplibre.navigation.core.geometry.RouteProjection
 import org.maplibre.navigation.core.milestone.MilestoneEventListener
 import org.maplibre.navigation.core.models.DirectionsRoute
 import org.maplibre.navigation.core.models.RouteLeg
@@ -80,6 +82,27 @@ data class RouteProgress(
     val intersectionDistancesAlongStep: Map<StepIntersection, Double>?,
 ) {
 
+    /**
+     * Decoded geometries of the [directionsRoute], shared by all route progress objects of the
+     * same navigation session. Is null if the route progress was not created by
+     * [MapLibreNavigation]. Not part of [equals] and not kept by [copy], use [toBuilder] instead.
+     *
+     * @since 5.0.0
+     */
+    var routeGeometryIndex: RouteGeometryIndex? = null
+        internal set
+
+    /**
+     * Projection of the location this route progress was created for, onto the current step.
+     * The projection is calculated once per location update and shared by the off-route, snap,
+     * tolerance and milestone checks. Is null if no [routeGeometryIndex] is available. Not part of
+     * [equals] and not kept by [copy], use [toBuilder] instead.
+     *
+     * @since 5.0.0
+     */
+    var routeProjection: RouteProjection? = null
+        internal set
+
     /**
      * Provides the current [RouteLeg] the user is on.
      *
@@ -127,12 +150,12 @@ data class RouteProgress(
 
     /**
      * Gives a [RouteLegProgress] object with information about the particular leg the user is
-     * currently on.
+     * currently on. The object is created on first access and reused afterwards.
      *
      * @since 0.1.0
      */
-    val currentLegProgress: RouteLegProgress
-        get() = RouteLegProgress(
+    val currentLegProgress: RouteLegProgress by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        RouteLegProgress(
             routeLeg = directionsRoute.legs[legIndex],
             stepIndex = stepIndex,
             distanceRemaining = legDistanceRemaining,
@@ -145,6 +168,7 @@ data class RouteProgress(
             intersectionDistancesAlongStep = intersectionDistancesAlongStep,
             currentLegAnnotation = currentLegAnnotation,
         )
+    }
 
 
     fun toBuilder(): Builder {
@@ -163,6 +187,8 @@ data class RouteProgress(
             withUpcomingIntersection(upcomingIntersection)
             withCurrentLegAnnotation(currentLegAnnotation)
             withIntersectionDistancesAlongStep(intersectionDistancesAlongStep)
+            withRouteGeometryIndex(routeGeometryIndex)
+            withRouteProjection(routeProjection)
         }
     }
 
@@ -181,6 +207,8 @@ data class RouteProgress(
         private var upcomingIntersection: StepIntersection? = null
         private var currentLegAnnotation: CurrentLegAnnotation? = null
         private var intersectionDistancesAlongStep: Map<StepIntersection, Double>? = null
+        private var routeGeometryIndex: RouteGeometryIndex? = null
+        private var routeProjection: RouteProjection? = null
 
         fun withUpcomingStepPoints(upcomingStepPoints: List<Position>?) =
             apply { this.upcomingStepPoints = upcomingStepPoints }
@@ -200,6 +228,12 @@ data class RouteProgress(
         fun withIntersectionDistancesAlongStep(intersectionDistancesAlongStep: Map<StepIntersection, Double>?) =
             apply { this.intersectionDistancesAlongStep = intersectionDistancesAlongStep }
 
+        fun withRouteGeometryIndex(routeGeometryIndex: RouteGeometryIndex?) =
+            apply { this.routeGeometryIndex = routeGeometryIndex }
+
+        fun withRouteProjection(routeProjection: RouteProjection?) =
+            apply { this.routeProjection = routeProjection }
+
         fun build(): RouteProgress {
             return RouteProgress(
                 directionsRoute = directionsRoute,
@@ -215,7 +249,10 @@ data class RouteProgress(
                 upcomingIntersection = upcomingIntersection,
                 currentLegAnnotation = currentLegAnnotation,
                 intersectionDistancesAlongStep = intersectionDistancesAlongStep
-            )
+            ).also { routeProgress ->
+                routeProgress.routeGeometryIndex = routeGeometryIndex
+                routeProgress.routeProjection = routeProjection
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package org.maplibre.navigation.core.routeprogress
+
+import org.maplibre.navigation.core.location.Location
+
+/**
+ * Progress along the route after a processed location update, as emitted by
+ * [org.maplibre.navigation.core.navigation.MapLibreNavigation.progress].
+ *
+ * @param location the (snapped) location of the user
+ * @param routeProgress the progress along the route at this location
+ *
+ * @since 5.0.0
+ */
+data class RouteProgressEvent(
+    val location: Location,
+    val routeProgress: RouteProgress
+)
@@ -0,0 +1,131 @@
+package org.maplibre.navigation.core.simulation
+
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.emptyFlow
+import org.maplibre.navigation.core.location.Location
+import org.maplibre.navigation.core.location.engine.LocationEngine
+import org.maplibre.navigation.core.milestone.Milestone
+import org.maplibre.navigation.core.milestone.MilestoneEvent
+import org.maplibre.navigation.core.models.DirectionsRoute
+import org.maplibre.navigation.core.navigation.MapLibreNavigation
+import org.maplibre.navigation.core.navigation.MapLibreNavigationOptions
+import org.maplibre.navigation.core.navigation.engine.DispatchStrategy
+import org.maplibre.navigation.core.navigation.engine.MapLibreNavigationEngine
+import org.maplibre.navigation.core.navigation.engine.NavigationEngine
+import org.maplibre.navigation.core.offroute.OffRouteEvent
+import org.maplibre.navigation.core.routeprogress.RouteProgressEvent
+import kotlin.jvm.JvmOverloads
+
+/**
+ * Runs the full navigation pipeline of [MapLibreNavigationEngine] for a route and a location
+ * trace, as fast as possible and without any main thread.
+ *
+ * Time only advances with the timestamps of the given locations, there is no `delay()` between
+ * them. A trace of a two hour drive is processed in the time the engine needs to process its
+ * locations, which makes it possible to regression test many routes, for example with locations
+ * created by [org.maplibre.navigation.core.location.replay.ReplayRouteLocationConverter].
+ *
+ * Every simulation starts a new navigation session. Milestones are stateful, a simulator with
+ * custom milestones must therefore not simulate multiple routes at the same time. Use one
+ * simulator per thread to simulate routes in parallel.
+ *
+ * @param options navigation options of the simulated sessions. The dispatch strategy is always
+ * replaced by [DispatchStrategy.Immediate].
+ * @param milestones custom milestones, added to the default milestones of the options
+ *
+ * @since 5.0.0
+ */
+class NavigationSimulator @JvmOverloads constructor(
+    private val options: MapLibreNavigationOptions = MapLibreNavigationOptions(),
+    private val milestones: List<Milestone> = emptyList(),
+) {
+
+    /**
+     * Simulates navigating the given route along the given locations.
+     *
+     * @param route the route to navigate
+     * @param locations the location trace, ordered by time
+     * @return all events emitted while processing the locations
+     */
+    suspend fun simulate(route: DirectionsRoute, locations: Sequence<Location>): SimulationResult {
+        val progressEvents = mutableListOf<RouteProgressEvent>()
+        val milestoneEvents = mutableListOf<MilestoneEvent>()
+        val offRouteEvents = mutableListOf<OffRouteEvent>()
+
+        val navigation = MapLibreNavigation(
+            options = options.toBuilder()
+                .withDispatchStrategy(DispatchStrategy.Immediate)
+                .build(),
+            locationEngine = SimulationLocationEngine,
+            mapLibreNavigationEngine = SimulationNavigationEngine
+        )
+        navigation.addMilestones(milestones)
+        navigation.addProgressChangeListener { location, routeProgress ->
+            progressEvents.add(RouteProgressEvent(location, routeProgress))
+        }
+        navigation.addMilestoneEventListener { routeProgress, instruction, milestone ->
+            milestoneEvents.add(MilestoneEvent(routeProgress, instruction, milestone))
+        }
+        navigation.addOffRouteListener { location ->
+            offRouteEvents.add(OffRouteEvent(location))
+        }
+
+        try {
+            coroutineScope {
+                val engine = MapLibreNavigationEngine(
+                    mapLibreNavigation = navigation,
+                    routeUtils = navigation.routeUtils,
+                    backgroundScope = this,
+                    mainScope = this
+                )
+                navigation.startNavigation(route)
+                for (location in locations) {
+                    engine.processLocationAndIndexUpdate(location)
+                }
+            }
+        } finally {
+            navigation.onDestroy()
+        }
+
+        return SimulationResult(
+            progressEvents = progressEvents,
+            milestoneEvents = milestoneEvents,
+            offRouteEvents = offRouteEvents
+        )
+    }
+
+    /**
+     * Simulates navigating the given route along the given locations.
+     *
+     * @param route the route to navigate
+     * @param locations the location trace, ordered by time
+     * @return all events emitted while processing the locations
+     */
+    suspend fun simulate(route: DirectionsRoute, locations: List<Location>): SimulationResult {
+        return simulate(route, locations.asSequence())
+    }
+
+    /**
+     * Locations are passed directly to the engine, the session never listens to a location engine.
+     */
+    private object SimulationLocationEngine : LocationEngine {
+        override fun listenToLocation(request: LocationEngine.Request): Flow<Location> = emptyFlow()
+
+        override suspend fun getLastLocation(): Location? = null
+    }
+
+    /**
+     * Engine of the simulated session, which doesn't process anything by itself. Locations are
+     * processed by the simulation directly.
+     */
+    private object SimulationNavigationEngine : NavigationEngine {
+        override fun startNavigation(route: DirectionsRoute) = Unit
+
+        override fun stopNavigation() = Unit
+
+        override fun isRunning(): Boolean = false
+
+        override fun triggerManualRouteUpdate(legIndex: Int, stepIndex: Int) = Unit
+    }
+}
@@ -0,0 +1,35 @@
+package org.maplibre.navigation.core.simulation
+
+import org.maplibre.navigation.core.milestone.MilestoneEvent
+import org.maplibre.navigation.core.offroute.OffRouteEvent
+import org.maplibre.navigation.core.routeprogress.RouteProgressEvent
+
+/**
+ * Events of a route simulated by [NavigationSimulator], in the order they were emitted.
+ *
+ * @since 5.0.0
+ */
+data class SimulationResult(
+    /**
+     * Progress of every processed location. Locations rejected by the
+     * [org.maplibre.navigation.core.location.LocationValidator] don't create progress.
+     */
+    val progressEvents: List<RouteProgressEvent>,
+
+    /**
+     * All triggered milestones.
+     */
+    val milestoneEvents: List<MilestoneEvent>,
+
+    /**
+     * All detected off-routes.
+     */
+    val offRouteEvents: List<OffRouteEvent>,
+) {
+
+    /**
+     * Number of processed locations, which created a progress event.
+     */
+    val processedLocationCount: Int
+        get() = progressEvents.size
+}
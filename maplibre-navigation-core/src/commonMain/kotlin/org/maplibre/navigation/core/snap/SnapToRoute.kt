@@ -1,16 +1,17 @@
 package org.maplibre.navigation.core.snap
 
+import org.maplibre.navigation.core.geometry.PackedPositions
+import org.maplibre.navigation.core.geometry.ProjectionCursor
+import org.maplibre.navigation.core.geometry.StepGeometry
+import org.maplibre.navigation.core.geometry.StepGeometryCache
 import org.maplibre.navigation.core.location.Location
-import org.maplibre.navigation.core.routeprogress.RouteLegProgress
 import org.maplibre.navigation.core.routeprogress.RouteProgress
 import org.maplibre.navigation.core.utils.Constants
 import org.maplibre.spatialk.geojson.LineString
 import org.maplibre.spatialk.geojson.Point
 import org.maplibre.spatialk.geojson.Position
-import org.maplibre.spatialk.polyline.PolylineEncoding
 import org.maplibre.spatialk.turf.measurement.bearingTo
 import org.maplibre.spatialk.turf.measurement.locateAlong
-import org.maplibre.spatialk.turf.misc.nearestPointTo
 import org.maplibre.spatialk.units.Bearing
 import org.maplibre.spatialk.units.extensions.inDegrees
 import org.maplibre.spatialk.units.extensions.meters
@@ -31,6 +32,17 @@ open class SnapToRoute : Snap() {
      */
     private var lastSnappedBearing: Float? = null
 
+    /**
+     * Remembers the last snapped segment, to only search the segments around it on the next update.
+     */
+    private val projectionCursor = ProjectionCursor()
+
+    /**
+     * Measured geometry of the current step points, used if the route progress has no route
+     * geometry index.
+     */
+    private val stepGeometryCache = StepGeometryCache()
+
     /**
      * Calculate a snapped location along the route. Latitude, longitude and bearing are provided.
      *
@@ -39,7 +51,10 @@ open class SnapToRoute : Snap() {
      * @return Snapped location along route
      */
     override fun getSnappedLocation(location: Location, routeProgress: RouteProgress): Location {
-        val snappedLocation = snapLocationLatLng(location, routeProgress.currentStepPoints)
+        val snappedLocation = routeProgress.routeGeometryIndex
+            ?.stepGeometry(routeProgress.legIndex, routeProgress.stepIndex)
+            ?.let { stepGeometry -> snapLocationLatLng(location, routeProgress, stepGeometry) }
+            ?: snapLocationLatLng(location, routeProgress.currentStepPoints)
         return snappedLocation.copy(bearing = snapLocationBearing(location, routeProgress))
     }
 
@@ -75,24 +90,50 @@ open class SnapToRoute : Snap() {
     /**
      * Snap coordinates of user's location to the closest position along the current step.
      *
+     * The step coordinates are measured once per step by [stepGeometryCache], every update only
+     * projects the location with the [projectionCursor].
+     *
      * @param location        the raw location
      * @param stepCoordinates the list of step geometry coordinates
      * @return the altered user location
      * @since 0.4.0
      */
     private fun snapLocationLatLng(location: Location, stepCoordinates: List<Position>): Location {
-        // Uses Turf's pointOnLine, which takes a Point and a LineString to calculate the closest
-        // Point on the LineString.
-        return if (stepCoordinates.size > 1) {
-            val pointFeature = LineString(stepCoordinates).nearestPointTo(location.position)
-            val point = pointFeature.geometry
-            location.copy(
-                latitude = point.latitude,
-                longitude = point.longitude
-            )
-        } else {
-            location.copy()
-        }
+        return projectionCursor.project(stepGeometryCache.stepGeometryOf(stepCoordinates), location.position)
+            ?.let { projection ->
+                location.copy(
+                    latitude = projection.position.latitude,
+                    longitude = projection.position.longitude
+                )
+            }
+            ?: location.copy()
+    }
+
+    /**
+     * Snap coordinates of user's location to the closest position along the already decoded
+     * current step.
+     *
+     * The projection of the route progress is reused if it was created for the same location.
+     *
+     * @param location      the raw location
+     * @param routeProgress the current route progress
+     * @param stepGeometry  the decoded current step geometry
+     * @return the altered user location
+     */
+    private fun snapLocationLatLng(
+        location: Location,
+        routeProgress: RouteProgress,
+        stepGeometry: StepGeometry
+    ): Location {
+        return (routeProgress.routeProjection?.takeIf { projection -> projection.isProjectionOf(location.position) }
+            ?: projectionCursor.project(stepGeometry, location.position))
+            ?.let { projection ->
+                location.copy(
+                    latitude = projection.position.latitude,
+                    longitude = projection.position.longitude
+                )
+            }
+            ?: location.copy()
     }
 
     /**
@@ -102,7 +143,7 @@ open class SnapToRoute : Snap() {
      * @return Current step point or null if no current leg process is available
      */
     private fun getCurrentPoint(routeProgress: RouteProgress): Point? {
-        return getCurrentStepPoint(routeProgress.currentLegProgress, 0.0)
+        return getCurrentStepPoint(routeProgress, 0.0)
     }
 
     /**
@@ -115,7 +156,7 @@ open class SnapToRoute : Snap() {
     private fun getFuturePoint(routeProgress: RouteProgress): Point? {
         return if (routeProgress.currentLegProgress.distanceRemaining > 1) {
             // User has not reaching the end of current leg. Use traveled distance + 1 meter for future point
-            getCurrentStepPoint(routeProgress.currentLegProgress, 1.0)
+            getCurrentStepPoint(routeProgress, 1.0)
         } else {
             // User has reached the end of steps. Use upcoming leg for future point if available.
             getUpcomingLegPoint(routeProgress)
@@ -126,27 +167,30 @@ open class SnapToRoute : Snap() {
      * Current step point plus additional distance value. If no current leg process is available,
      * null is returned.
      *
-     * @param currentLegProgress Current leg process
+     * @param routeProgress Current route progress
      * @param additionalDistance Additional distance to add to current step point
      * @return Current step point + additional distance or null if no current leg process is available
      */
     private fun getCurrentStepPoint(
-        currentLegProgress: RouteLegProgress,
+        routeProgress: RouteProgress,
         additionalDistance: Double
     ): Point? {
-        val currentStepPositions = currentLegProgress.currentStep
-            .geometry
-            .let { geometry ->
-                PolylineEncoding.decode(encoded = geometry, precision = Constants.PRECISION_6)
+        val currentLegProgress = routeProgress.currentLegProgress
+        routeProgress.routeGeometryIndex
+            ?.stepGeometry(routeProgress.legIndex, routeProgress.stepIndex)
+            ?.let { stepGeometry ->
+                val distanceTraveled = currentLegProgress.currentStepProgress.distanceTraveled
+                return stepGeometry.locateAlong(distanceTraveled + additionalDistance)
             }
 
-        return if (currentStepPositions.size >= 2) {
+        val currentStepGeometry = stepGeometryCache.stepGeometryOf(routeProgress.currentStepPoints)
+
+        return if (currentStepGeometry.positions.size >= 2) {
             currentLegProgress.currentStepProgress.distanceTraveled.let { distanceTraveled ->
-                val currentStepLineString = LineString(currentStepPositions)
-                currentStepLineString.locateAlong((distanceTraveled + additionalDistance).meters)
+                currentStepGeometry.locateAlong(distanceTraveled + additionalDistance)
             }
         } else {
-            currentStepPositions.firstOrNull()?.let(::Point)
+            currentStepGeometry.positions.firstOrNull()?.let(::Point)
         }
     }
 
@@ -159,6 +203,13 @@ open class SnapToRoute : Snap() {
      * @return Next leg's start point or null if no next leg is available
      */
     private fun getUpcomingLegPoint(routeProgress: RouteProgress): Point? {
+        routeProgress.routeGeometryIndex?.let { routeGeometryIndex ->
+            // While first step is the same point as the last point of the current step, use the second one.
+            return routeGeometryIndex.stepGeometry(routeProgress.legIndex + 1, 1)
+                ?.takeIf { stepGeometry -> stepGeometry.positions.size >= 2 }
+                ?.locateAlong(1.0)
+        }
+
         return routeProgress.directionsRoute
             .legs
             .getOrNull(routeProgress.legIndex + 1)
@@ -167,7 +218,7 @@ open class SnapToRoute : Snap() {
             ?.getOrNull(1)
             ?.let { firstStep ->
                 val currentStepPositions =
-                    PolylineEncoding.decode(
+                    PackedPositions.decode(
                         encoded = firstStep.geometry,
                         precision = Constants.PRECISION_6
                     )
@@ -1,15 +1,17 @@
 package org.maplibre.navigation.core.utils
 
+import org.maplibre.navigation.core.geometry.PackedPositions
 import org.maplibre.navigation.core.models.LegStep
 import org.maplibre.spatialk.geojson.LineString
 import org.maplibre.spatialk.geojson.Point
 import org.maplibre.spatialk.geojson.Position
-import org.maplibre.spatialk.polyline.PolylineEncoding
 import org.maplibre.spatialk.turf.measurement.distance
 import org.maplibre.spatialk.turf.misc.nearestPointTo
 import org.maplibre.spatialk.units.International.Meters
 import org.maplibre.spatialk.units.extensions.inMeters
 import kotlin.jvm.JvmStatic
+import kotlin.math.PI
+import kotlin.math.cos
 
 object MeasurementUtils {
 
@@ -32,7 +34,26 @@ object MeasurementUtils {
 
         // Get the lineString from the step geometry.
         val positions =
-            PolylineEncoding.decode(encoded = step.geometry, precision = Constants.PRECISION_6)
+            PackedPositions.decode(encoded = step.geometry, precision = Constants.PRECISION_6)
+
+        return userTrueDistanceFromStep(usersRawLocation, positions)
+    }
+
+    /**
+     * Calculates the distance between the users current raw [android.location.Location] object
+     * to the closest [Point] in the already decoded step geometry.
+     *
+     * @param usersRawLocation [Point] the raw location where the user is currently located
+     * @param positions        decoded geometry of the step to calculate the closest point on the
+     * step to our predicted location
+     * @return double in distance meters
+     * @since 5.0.0
+     */
+    @JvmStatic
+    fun userTrueDistanceFromStep(usersRawLocation: Position, positions: List<Position>): Double {
+        if (positions is PackedPositions) {
+            return userTrueDistanceFromStep(usersRawLocation, positions)
+        }
 
         // Make sure that the step coordinates isn't less than size 2. If the points equal each other,
         // the distance is obviously zero, so return 0 to avoid executing additional unnecessary code.
@@ -55,5 +76,71 @@ object MeasurementUtils {
         val distance = distance(usersRawLocation, snappedPoint).inMeters
         return if (!distance.isNaN()) distance else 0.0
     }
-}
 
+    /**
+     * Calculates the distance between the users current raw location and the closest point on the
+     * already decoded and packed step geometry.
+     *
+     * The coordinates are read with [PackedPositions.longitude] and [PackedPositions.latitude],
+     * without creating a [Position] per vertex. The closest point is searched in a local
+     * equirectangular frame centered at the user, the distance to it is measured with the
+     * haversine formula.
+     *
+     * @param usersRawLocation the raw location where the user is currently located
+     * @param positions        decoded geometry of the step
+     * @return double in distance meters
+     * @since 5.0.0
+     */
+    @JvmStatic
+    fun userTrueDistanceFromStep(usersRawLocation: Position, positions: PackedPositions): Double {
+        if (positions.isEmpty()) {
+            return 0.0
+        }
+
+        if (positions.size == 1) {
+            return distance(usersRawLocation, positions.first()).inMeters
+        }
+
+        val longitudeScale = cos(usersRawLocation.latitude * PI / 180.0)
+        var bestDistanceSquared = Double.MAX_VALUE
+        var bestSegment = 0
+        var bestFraction = 0.0
+
+        var startX = (positions.longitude(0) - usersRawLocation.longitude) * longitudeScale
+        var startY = positions.latitude(0) - usersRawLocation.latitude
+        for (i in 0 until positions.size - 1) {
+            val endX = (positions.longitude(i + 1) - usersRawLocation.longitude) * longitudeScale
+            val endY = positions.latitude(i + 1) - usersRawLocation.latitude
+
+            val deltaX = endX - startX
+            val deltaY = endY - startY
+            val lengthSquared = deltaX * deltaX + deltaY * deltaY
+            val fraction = if (lengthSquared > 0.0) {
+                (-(startX * deltaX + startY * deltaY) / lengthSquared).coerceIn(0.0, 1.0)
+            } else {
+                0.0
+            }
+
+            val projectedX = startX + fraction * deltaX
+            val projectedY = startY + fraction * deltaY
+            val distanceSquared = projectedX * projectedX + projectedY * projectedY
+            if (distanceSquared < bestDistanceSquared) {
+                bestDistanceSquared = distanceSquared
+                bestSegment = i
+                bestFraction = fraction
+            }
+
+            startX = endX
+            startY = endY
+        }
+
+        val startLongitude = positions.longitude(bestSegment)
+        val startLatitude = positions.latitude(bestSegment)
+        val snappedPoint = Position(
+            longitude = startLongitude + bestFraction * (positions.longitude(bestSegment + 1) - startLongitude),
+            latitude = startLatitude + bestFraction * (positions.latitude(bestSegment + 1) - startLatitude),
+        )
+        val distance = distance(usersRawLocation, snappedPoint).inMeters
+        return if (!distance.isNaN()) distance else 0.0
+    }
+}
@@ -1,5 +1,7 @@
 package org.maplibre.navigation.core.utils
 
+import org.maplibre.navigation.core.geometry.PolylineDecoder
+import org.maplibre.navigation.core.geometry.RouteGeometryIndex
 import org.maplibre.navigation.core.location.Location
 import org.maplibre.navigation.core.milestone.BannerInstructionMilestone
 import org.maplibre.navigation.core.milestone.Milestone
@@ -12,7 +14,6 @@ import org.maplibre.navigation.core.navigation.NavigationConstants
 import org.maplibre.navigation.core.routeprogress.RouteProgress
 import org.maplibre.spatialk.geojson.Point
 import org.maplibre.spatialk.geojson.Position
-import org.maplibre.spatialk.polyline.PolylineEncoding
 
 
 open class RouteUtils {
@@ -37,6 +38,9 @@ open class RouteUtils {
      * Compares a new routeProgress geometry to a previousRouteProgress geometry to determine if the
      * user is traversing along a new route. If the route geometries do not match, this returns true.
      *
+     * While navigating the same route instance is passed on every location update, so the route
+     * geometries are only compared if the route instance changed.
+     *
      * @param previousRouteProgress the past route progress with the directions route included
      * @param directionsRoute       the current directions route
      * @return true if the direction route geometries do not match up, otherwise, false
@@ -46,8 +50,12 @@ open class RouteUtils {
         previousRouteProgress: RouteProgress?,
         directionsRoute: DirectionsRoute
     ): Boolean {
-        return previousRouteProgress == null || (previousRouteProgress.directionsRoute.geometry
-                != directionsRoute.geometry)
+        if (previousRouteProgress == null) {
+            return true
+        }
+
+        val previousRoute = previousRouteProgress.directionsRoute
+        return previousRoute !== directionsRoute && previousRoute.geometry != directionsRoute.geometry
     }
 
     /**
@@ -145,11 +153,33 @@ open class RouteUtils {
      * @since 0.10.0
      */
     fun createFirstLocationFromRoute(route: DirectionsRoute): Location {
-        val positions = PolylineEncoding.decode(
+        // Only the first position is needed, so the rest of the geometry is not decoded
+        val decoder = PolylineDecoder(1)
+        decoder.reset(
             encoded = route.legs.firstOrNull()?.steps?.firstOrNull()?.geometry ?: route.geometry,
             precision = Constants.PRECISION_6,
         )
-        val firstRoutePosition = positions.first()
+        if (decoder.decodeUntil(1) == 0) {
+            throw NoSuchElementException("Route geometry is empty.")
+        }
+        return Location(
+            provider = FORCED_LOCATION,
+            latitude = decoder.latitude(0),
+            longitude = decoder.longitude(0),
+        )
+    }
+
+    /**
+     * Takes the already decoded geometry of a [DirectionsRoute] and creates a [Location] from
+     * the first coordinate.
+     *
+     * @param routeGeometryIndex decoded geometry of the route
+     * @return [Location] from first coordinate
+     * @since 5.0.0
+     */
+    fun createFirstLocationFromRoute(routeGeometryIndex: RouteGeometryIndex): Location {
+        val firstRoutePosition = routeGeometryIndex.firstPosition
+            ?: throw NoSuchElementException("Route geometry is empty.")
         return Location(
             provider = FORCED_LOCATION,
             latitude = firstRoutePosition.latitude,
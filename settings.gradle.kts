@@ -20,6 +20,7 @@ dependencyResolutionManagement {
 rootProject.name = "maplibre-navigation"
 
 include(":maplibre-navigation-core")
+include(":maplibre-navigation-benchmark")
 include(":maplibre-navigation-location-gms")
 include(":libandroid-navigation-ui")
 include(":app")
\ No newline at end of file